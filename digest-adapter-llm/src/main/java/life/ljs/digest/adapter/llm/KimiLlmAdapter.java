@@ -3,6 +3,7 @@ package life.ljs.digest.adapter.llm;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import life.ljs.digest.domain.model.KeywordMatcher;
 import life.ljs.digest.domain.model.TopicCluster;
 import life.ljs.digest.domain.model.Tweet;
 import life.ljs.digest.domain.port.LlmPort;
@@ -26,6 +27,18 @@ public class KimiLlmAdapter implements LlmPort {
 
     private static final Logger log = LoggerFactory.getLogger(KimiLlmAdapter.class);
 
+    private static final String SUMMARY_PROMPT_TEMPLATE =
+            "请用一句话(不超过60字)概括以下推文的核心观点，直接输出概括内容，不要加\"概括:\"等前缀:\n\n%s";
+    private static final int SUMMARY_MAX_TOKENS = 100;
+
+    // Keyword topics for the offline clustering fallback, one matcher group per topic
+    private static final int TOPIC_AI = 0;
+    private static final int TOPIC_BUSINESS = 1;
+    private static final KeywordMatcher FALLBACK_TOPICS = KeywordMatcher.builder()
+            .addAll(List.of("ai", "llm", "gpt", "模型", "prompt"), TOPIC_AI)
+            .addAll(List.of("创业", "增长", "粉丝", "business", "growth"), TOPIC_BUSINESS)
+            .build();
+
     private final String apiKey;
     private final String baseUrl;
     private final String model;
@@ -55,12 +68,10 @@ public class KimiLlmAdapter implements LlmPort {
             return fallbackSummarize(tweet.getText());
         }
 
-        String prompt = String.format(
-                "请用一句话(不超过60字)概括以下推文的核心观点，直接输出概括内容，不要加\"概括:\"等前缀:\n\n%s",
-                tweet.getText());
+        String prompt = String.format(SUMMARY_PROMPT_TEMPLATE, tweet.getText());
 
         try {
-            String response = callKimiApi(prompt, 100);
+            String response = callKimiApi(prompt, SUMMARY_MAX_TOKENS);
             tweet.setSummary(response.trim());
             return response.trim();
         } catch (Exception e) {
@@ -69,6 +80,14 @@ public class KimiLlmAdapter implements LlmPort {
         }
     }
 
+    /**
+     * Summaries depend on the model, the prompt template and the token limit.
+     */
+    @Override
+    public String summaryFingerprint() {
+        return model + "\n" + SUMMARY_MAX_TOKENS + "\n" + SUMMARY_PROMPT_TEMPLATE;
+    }
+
     @Override
     public List<TopicCluster> clusterTweets(List<Tweet> tweets) {
         if (apiKey == null || apiKey.isBlank() || tweets.isEmpty()) {
@@ -233,10 +252,12 @@ public class KimiLlmAdapter implements LlmPort {
         List<Tweet> other = new ArrayList<>();
 
         for (Tweet t : tweets) {
-            String lower = t.getText().toLowerCase();
-            if (containsAny(lower, "ai", "llm", "gpt", "模型", "prompt")) {
+            // Lowest matched group wins, same priority as checking the topics in order
+            long topics = FALLBACK_TOPICS.matchedGroups(t.getText());
+            int topic = topics == 0 ? -1 : Long.numberOfTrailingZeros(topics);
+            if (topic == TOPIC_AI) {
                 aiTech.add(t);
-            } else if (containsAny(lower, "创业", "增长", "粉丝", "business", "growth")) {
+            } else if (topic == TOPIC_BUSINESS) {
                 businessGrowth.add(t);
             } else {
                 other.add(t);
@@ -261,14 +282,6 @@ public class KimiLlmAdapter implements LlmPort {
                 "」等话题,值得关注。";
     }
 
-    private boolean containsAny(String text, String... keywords) {
-        for (String keyword : keywords) {
-            if (text.contains(keyword))
-                return true;
-        }
-        return false;
-    }
-
     private String stripEmoji(String text) {
         return text.replaceAll("[\\p{So}\\p{Sk}]", "").trim();
     }
@@ -0,0 +1,179 @@
+package life.ljs.digest.adapter.x;
+
+import com.microsoft.playwright.Browser;
+import com.microsoft.playwright.BrowserContext;
+import com.microsoft.playwright.BrowserType;
+import com.microsoft.playwright.Playwright;
+import com.microsoft.playwright.PlaywrightException;
+import com.microsoft.playwright.options.Cookie;
+import com.microsoft.playwright.options.ServiceWorkerPolicy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One long-lived Playwright driver + Chromium process plus the logged-in context
+ * currently attached to it.
+ * <p>
+ * Playwright objects are not thread-safe, so a session is only ever used by the
+ * thread holding its {@link BrowserSessionPool.Lease}.
+ */
+public class BrowserSession {
+
+    private static final Logger log = LoggerFactory.getLogger(BrowserSession.class);
+
+    private final int id;
+    private final boolean headless;
+    private final long contextMaxAgeMs;
+    private final int contextMaxUses;
+    private final CookieLoader cookieLoader;
+    private final ResourceBlockPolicy blockPolicy;
+    private final RouteBlockStats routeStats = new RouteBlockStats();
+
+    private Playwright playwright;
+    private Browser browser;
+
+    private BrowserContext context;
+    private Path contextCookiesPath;
+    private FileTime contextCookiesModified;
+    private long contextCreatedAt;
+    private int contextUses;
+
+    BrowserSession(int id, boolean headless, long contextMaxAgeMs, int contextMaxUses, CookieLoader cookieLoader,
+                   ResourceBlockPolicy blockPolicy) {
+        this.id = id;
+        this.headless = headless;
+        this.contextMaxAgeMs = contextMaxAgeMs;
+        this.contextMaxUses = contextMaxUses;
+        this.cookieLoader = cookieLoader;
+        this.blockPolicy = blockPolicy;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Traffic blocked by the {@link ResourceBlockPolicy} since the last reset.
+     */
+    public RouteBlockStats getRouteStats() {
+        return routeStats;
+    }
+
+    /**
+     * Returns a healthy context logged in with the given cookies, launching or
+     * relaunching the browser and recycling the context when needed.
+     */
+    BrowserContext context(Path cookiesPath) throws IOException {
+        ensureBrowser();
+
+        if (context != null && !isContextReusable(cookiesPath)) {
+            closeContext();
+        }
+        if (context == null) {
+            Browser.NewContextOptions options = new Browser.NewContextOptions();
+            if (blockPolicy.isEnabled()) {
+                // Requests made by the service worker would bypass the route handler
+                options.setServiceWorkers(ServiceWorkerPolicy.BLOCK);
+            }
+            context = browser.newContext(options);
+            blockPolicy.install(context, routeStats);
+            List<Cookie> cookies = cookieLoader.load(cookiesPath);
+            context.addCookies(cookies);
+            contextCookiesPath = cookiesPath;
+            contextCookiesModified = Files.getLastModifiedTime(cookiesPath);
+            contextCreatedAt = System.currentTimeMillis();
+            contextUses = 0;
+            log.info("Session {}: created browser context with {} cookies", id, cookies.size());
+        }
+        contextUses++;
+        return context;
+    }
+
+    /**
+     * Cheap liveness probe: the browser process must still be connected and the
+     * context must still answer driver calls.
+     */
+    boolean isHealthy() {
+        if (browser == null || !browser.isConnected()) {
+            return false;
+        }
+        if (context == null) {
+            return true;
+        }
+        try {
+            context.pages();
+            return true;
+        } catch (PlaywrightException e) {
+            log.debug("Session {}: context health check failed", id, e);
+            return false;
+        }
+    }
+
+    void closeContext() {
+        if (context == null) {
+            return;
+        }
+        try {
+            context.close();
+        } catch (PlaywrightException e) {
+            log.debug("Session {}: failed to close context cleanly", id, e);
+        }
+        context = null;
+        contextCookiesPath = null;
+        contextCookiesModified = null;
+    }
+
+    void close() {
+        closeContext();
+        try {
+            if (playwright != null) {
+                playwright.close();
+            }
+        } catch (PlaywrightException e) {
+            log.debug("Session {}: failed to close Playwright cleanly", id, e);
+        }
+        browser = null;
+        playwright = null;
+    }
+
+    private void ensureBrowser() {
+        if (browser != null && browser.isConnected()) {
+            return;
+        }
+        if (playwright != null) {
+            log.warn("Session {}: browser is no longer connected, restarting Chromium", id);
+            close();
+        }
+        long start = System.currentTimeMillis();
+        playwright = Playwright
+                .create(new Playwright.CreateOptions().setEnv(Map.of("PLAYWRIGHT_SKIP_BROWSER_DOWNLOAD", "1")));
+        browser = playwright.chromium().launch(new BrowserType.LaunchOptions().setHeadless(headless));
+        log.info("Session {}: launched Chromium in {} ms", id, System.currentTimeMillis() - start);
+    }
+
+    private boolean isContextReusable(Path cookiesPath) throws IOException {
+        if (!cookiesPath.equals(contextCookiesPath)) {
+            return false;
+        }
+        if (!Files.getLastModifiedTime(cookiesPath).equals(contextCookiesModified)) {
+            log.info("Session {}: cookies file changed, recycling context", id);
+            return false;
+        }
+        if (contextMaxUses > 0 && contextUses >= contextMaxUses) {
+            log.info("Session {}: context reached {} uses, recycling", id, contextUses);
+            return false;
+        }
+        if (contextMaxAgeMs > 0 && System.currentTimeMillis() - contextCreatedAt >= contextMaxAgeMs) {
+            log.info("Session {}: context reached max age, recycling", id);
+            return false;
+        }
+        return isHealthy();
+    }
+}
@@ -0,0 +1,184 @@
+package life.ljs.digest.adapter.x;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microsoft.playwright.BrowserContext;
+import com.microsoft.playwright.Page;
+import com.microsoft.playwright.PlaywrightException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Keeps Chromium alive between timeline fetches so a run only pays for navigation,
+ * not for driver start-up, browser launch and cookie loading.
+ * <p>
+ * Sessions are created lazily up to {@code pool.size}. Each lease health-checks its
+ * session: a crashed browser is relaunched, and contexts are recycled once they hit
+ * the configured max age / use count or the cookies file changes on disk.
+ */
+@Component
+@Profile("playwright")
+public class BrowserSessionPool implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(BrowserSessionPool.class);
+
+    private final boolean headless;
+    private final long contextMaxAgeMs;
+    private final int contextMaxUses;
+    private final CookieLoader cookieLoader;
+    private final ResourceBlockPolicy blockPolicy;
+
+    private final Semaphore permits;
+    private final Deque<BrowserSession> idle = new ArrayDeque<>();
+    private final List<BrowserSession> all = new ArrayList<>();
+    private boolean closed;
+
+    public BrowserSessionPool(
+            @Value("${twitter.playwright.headless:true}") boolean headless,
+            @Value("${twitter.playwright.pool.size:2}") int poolSize,
+            @Value("${twitter.playwright.pool.context-max-age-minutes:360}") long contextMaxAgeMinutes,
+            @Value("${twitter.playwright.pool.context-max-uses:24}") int contextMaxUses,
+            @Value("${twitter.playwright.block.enabled:true}") boolean blockEnabled,
+            @Value("${twitter.playwright.block.resource-types:image,media,font}") Set<String> blockResourceTypes,
+            @Value("${twitter.playwright.block.hosts:pbs.twimg.com,video.twimg.com,google-analytics.com,googletagmanager.com,doubleclick.net,ads-twitter.com,ads-api.x.com,analytics.x.com}") List<String> blockHosts,
+            @Value("${twitter.playwright.block.url-patterns:/i/api/1.1/jot/,/jot/client_event}") List<String> blockUrlPatterns,
+            ObjectMapper objectMapper) {
+        this.headless = headless;
+        this.contextMaxAgeMs = contextMaxAgeMinutes * 60_000L;
+        this.contextMaxUses = contextMaxUses;
+        this.cookieLoader = new CookieLoader(objectMapper);
+        this.blockPolicy = new ResourceBlockPolicy(blockEnabled, blockResourceTypes, blockHosts, blockUrlPatterns);
+        this.permits = new Semaphore(Math.max(1, poolSize), true);
+    }
+
+    /**
+     * Borrows a session logged in with the given cookies, blocking while all
+     * sessions are in use.
+     */
+    public Lease acquire(Path cookiesPath) throws IOException, InterruptedException {
+        permits.acquire();
+        BrowserSession session = null;
+        try {
+            session = takeIdle();
+            BrowserContext context = session.context(cookiesPath);
+            session.getRouteStats().reset();
+            return new Lease(session, context);
+        } catch (IOException | RuntimeException e) {
+            if (session != null) {
+                session.closeContext();
+                giveBack(session);
+            } else {
+                permits.release();
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public void destroy() {
+        List<BrowserSession> toClose;
+        synchronized (this) {
+            closed = true;
+            toClose = new ArrayList<>(all);
+            all.clear();
+            idle.clear();
+        }
+        for (BrowserSession session : toClose) {
+            session.close();
+        }
+        log.info("Closed {} browser sessions", toClose.size());
+    }
+
+    private synchronized BrowserSession takeIdle() {
+        if (closed) {
+            throw new IllegalStateException("Browser session pool is closed");
+        }
+        BrowserSession session = idle.pollFirst();
+        if (session == null) {
+            session = new BrowserSession(all.size() + 1, headless, contextMaxAgeMs, contextMaxUses, cookieLoader,
+                    blockPolicy);
+            all.add(session);
+        }
+        return session;
+    }
+
+    private void giveBack(BrowserSession session) {
+        boolean closeNow;
+        synchronized (this) {
+            closeNow = closed;
+            if (!closeNow) {
+                idle.addFirst(session);
+            }
+        }
+        if (closeNow) {
+            session.close();
+        }
+        permits.release();
+    }
+
+    /**
+     * Exclusive use of one session for the duration of a fetch. Closing the lease
+     * closes the pages it opened and returns the session to the pool; an unhealthy
+     * context is dropped so the next lease starts from a fresh one.
+     */
+    public class Lease implements AutoCloseable {
+        private final BrowserSession session;
+        private final BrowserContext context;
+        private final List<Page> pages = new ArrayList<>();
+        private boolean released;
+
+        private Lease(BrowserSession session, BrowserContext context) {
+            this.session = session;
+            this.context = context;
+        }
+
+        public BrowserContext context() {
+            return context;
+        }
+
+        /**
+         * Requests blocked / bytes loaded during this lease.
+         */
+        public RouteBlockStats routeStats() {
+            return session.getRouteStats();
+        }
+
+        public Page newPage() {
+            Page page = context.newPage();
+            pages.add(page);
+            return page;
+        }
+
+        @Override
+        public void close() {
+            if (released) {
+                return;
+            }
+            released = true;
+            for (Page page : pages) {
+                try {
+                    page.close();
+                } catch (PlaywrightException e) {
+                    log.debug("Session {}: failed to close page", session.getId(), e);
+                }
+            }
+            if (!session.isHealthy()) {
+                log.warn("Session {}: unhealthy after use, dropping context", session.getId());
+                session.closeContext();
+            }
+            giveBack(session);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package life.ljs.digest.adapter.x;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.microsoft.playwright.options.Cookie;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Reads a browser-exported cookies.json (e.g. EditThisCookie) into Playwright cookies.
+ */
+class CookieLoader {
+
+    private final ObjectMapper objectMapper;
+
+    CookieLoader(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    List<Cookie> load(Path path) throws IOException {
+        byte[] bytes = Files.readAllBytes(path);
+        JsonNode rootNode = objectMapper.readTree(bytes);
+        if (rootNode.isArray()) {
+            for (JsonNode node : rootNode) {
+                if (node.has("sameSite")) {
+                    ObjectNode objectNode = (ObjectNode) node;
+                    String sameSite = node.get("sameSite").asText();
+                    if ("unspecified".equalsIgnoreCase(sameSite)
+                            || "no_restriction".equalsIgnoreCase(sameSite)) {
+                        objectNode.put("sameSite", "NONE");
+                    } else {
+                        objectNode.put("sameSite", sameSite.toUpperCase());
+                    }
+                }
+            }
+        }
+        return objectMapper.convertValue(rootNode, new TypeReference<List<Cookie>>() {
+        });
+    }
+}
@@ -0,0 +1,108 @@
+package life.ljs.digest.adapter.x;
+
+import com.microsoft.playwright.ElementHandle;
+import com.microsoft.playwright.Page;
+import life.ljs.digest.domain.model.Tweet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Original extraction path: one driver round trip per queried element and attribute.
+ * Kept as a fallback and as the baseline for ExtractionBenchmark (test sources).
+ */
+public class ElementHandleTweetExtractor implements TweetExtractor {
+
+    private static final Logger log = LoggerFactory.getLogger(ElementHandleTweetExtractor.class);
+
+    @Override
+    public String name() {
+        return "element";
+    }
+
+    @Override
+    public List<Tweet> extract(Page page) {
+        List<Tweet> results = new ArrayList<>();
+        List<ElementHandle> articles = page.querySelectorAll(ARTICLE_SELECTOR);
+
+        for (ElementHandle article : articles) {
+            try {
+                // Extract ID from link
+                // Usually: /User/status/123456789
+                ElementHandle timeElement = article.querySelector("time");
+                if (timeElement == null)
+                    continue;
+
+                String timeStr = timeElement.getAttribute("datetime");
+                OffsetDateTime createdAt = TweetParsing.parseTime(timeStr);
+
+                ElementHandle linkElement = article.querySelector("a[href*='/status/']");
+                if (linkElement == null)
+                    continue;
+
+                String href = linkElement.getAttribute("href");
+                String tweetId = TweetParsing.extractTweetId(href);
+                if (tweetId == null)
+                    continue;
+
+                // Extract Text
+                ElementHandle textElement = article.querySelector("div[data-testid='tweetText']");
+                String text = textElement != null ? textElement.innerText() : "";
+
+                // Extract Author
+                ElementHandle authorElement = article.querySelector("div[data-testid='User-Name']");
+                String authorName = authorElement != null ? authorElement.innerText().replace("\n", " ") : "Unknown";
+
+                // Extract Stats (approximate)
+                long replyCount = parseStat(article, "reply");
+                long retweetCount = parseStat(article, "retweet");
+                long likeCount = parseStat(article, "like");
+
+                results.add(TweetParsing.toTweet(tweetId, href, authorName, text, createdAt,
+                        likeCount, retweetCount, replyCount));
+
+            } catch (Exception e) {
+                // Ignore single failure
+                log.trace("Failed to parse a tweet element", e);
+            }
+        }
+        return results;
+    }
+
+    private long parseStat(ElementHandle article, String type) {
+        // X (Twitter) uses different data-testid attributes for engagement buttons
+        // "reply", "retweet", "like", "bookmark" etc.
+        try {
+            ElementHandle button = article.querySelector("button[data-testid='" + type + "']");
+            if (button != null) {
+                // Strategy 1: aria-label of the button, Strategy 2: inner text of its span
+                long count = TweetParsing.resolveStat(type, button.getAttribute("aria-label"), null, null);
+                if (count > 0) {
+                    return count;
+                }
+                ElementHandle span = button.querySelector("span");
+                if (span != null) {
+                    count = TweetParsing.resolveStat(type, null, span.innerText(), null);
+                    if (count > 0) {
+                        return count;
+                    }
+                }
+            }
+
+            // Strategy 3: Look for group with role="group" containing the stat
+            List<String> groupAriaLabels = new ArrayList<>();
+            for (ElementHandle group : article.querySelectorAll("div[role='group']")) {
+                groupAriaLabels.add(group.getAttribute("aria-label"));
+            }
+            return TweetParsing.resolveStat(type, null, null, groupAriaLabels);
+
+        } catch (Exception e) {
+            log.trace("Error parsing {} stat", type, e);
+        }
+
+        return 0;
+    }
+}
@@ -0,0 +1,124 @@
+package life.ljs.digest.adapter.x;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microsoft.playwright.Page;
+import life.ljs.digest.domain.model.Tweet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Gathers every visible article in a single {@code page.evaluate} round trip.
+ * <p>
+ * The script only collects the raw strings the per-element path would have read;
+ * all interpretation goes through {@link TweetParsing}, so both strategies produce
+ * identical {@link Tweet}s.
+ */
+public class EvaluateTweetExtractor implements TweetExtractor {
+
+    private static final Logger log = LoggerFactory.getLogger(EvaluateTweetExtractor.class);
+
+    private static final String EXTRACT_SCRIPT = """
+            (selector) => {
+              const attr = (el, name) => el ? el.getAttribute(name) : null;
+              const stat = (article, type) => {
+                const button = article.querySelector("button[data-testid='" + type + "']");
+                if (!button) return null;
+                const span = button.querySelector('span');
+                return { ariaLabel: attr(button, 'aria-label'), spanText: span ? span.innerText : null };
+              };
+              return JSON.stringify(Array.from(document.querySelectorAll(selector), article => {
+                const time = article.querySelector('time');
+                const link = article.querySelector("a[href*='/status/']");
+                const text = article.querySelector("div[data-testid='tweetText']");
+                const author = article.querySelector("div[data-testid='User-Name']");
+                return {
+                  hasTime: time !== null,
+                  datetime: attr(time, 'datetime'),
+                  href: attr(link, 'href'),
+                  text: text ? text.innerText : null,
+                  author: author ? author.innerText : null,
+                  reply: stat(article, 'reply'),
+                  retweet: stat(article, 'retweet'),
+                  like: stat(article, 'like'),
+                  groupLabels: Array.from(article.querySelectorAll("div[role='group']"), g => g.getAttribute('aria-label'))
+                };
+              }));
+            }
+            """;
+
+    private final ObjectMapper objectMapper;
+
+    public EvaluateTweetExtractor(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public String name() {
+        return "evaluate";
+    }
+
+    @Override
+    public List<Tweet> extract(Page page) {
+        RawArticle[] articles;
+        try {
+            String json = (String) page.evaluate(EXTRACT_SCRIPT, ARTICLE_SELECTOR);
+            articles = objectMapper.readValue(json, RawArticle[].class);
+        } catch (Exception e) {
+            log.warn("Failed to extract tweets with page.evaluate", e);
+            return List.of();
+        }
+
+        List<Tweet> results = new ArrayList<>(articles.length);
+        for (RawArticle article : articles) {
+            try {
+                if (!article.hasTime || article.href == null)
+                    continue;
+                String tweetId = TweetParsing.extractTweetId(article.href);
+                if (tweetId == null)
+                    continue;
+
+                String text = article.text != null ? article.text : "";
+                String authorName = article.author != null ? article.author.replace("\n", " ") : "Unknown";
+
+                results.add(TweetParsing.toTweet(tweetId, article.href, authorName, text,
+                        TweetParsing.parseTime(article.datetime),
+                        stat("like", article.like, article.groupLabels),
+                        stat("retweet", article.retweet, article.groupLabels),
+                        stat("reply", article.reply, article.groupLabels)));
+            } catch (Exception e) {
+                // Ignore single failure
+                log.trace("Failed to parse an extracted tweet", e);
+            }
+        }
+        return results;
+    }
+
+    private long stat(String type, RawStat stat, List<String> groupLabels) {
+        return stat != null
+                ? TweetParsing.resolveStat(type, stat.ariaLabel, stat.spanText, groupLabels)
+                : TweetParsing.resolveStat(type, null, null, groupLabels);
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    static class RawArticle {
+        public boolean hasTime;
+        public String datetime;
+        public String href;
+        public String text;
+        public String author;
+        public RawStat reply;
+        public RawStat retweet;
+        public RawStat like;
+        public List<String> groupLabels;
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    static class RawStat {
+        public String ariaLabel;
+        public String spanText;
+    }
+}
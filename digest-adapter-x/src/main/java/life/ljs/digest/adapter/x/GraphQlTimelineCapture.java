@@ -0,0 +1,96 @@
+package life.ljs.digest.adapter.x;
+
+import com.microsoft.playwright.Page;
+import com.microsoft.playwright.Response;
+import life.ljs.digest.domain.model.Tweet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * Listens to the timeline GraphQL responses the X web app requests by itself while
+ * scrolling, and turns them into tweets with {@link TimelineJsonParser}.
+ * <p>
+ * The response listener only queues matching responses; bodies are read and parsed
+ * on the fetching thread in {@link #drain()}, never inside the driver's event callback.
+ */
+public class GraphQlTimelineCapture {
+
+    private static final Logger log = LoggerFactory.getLogger(GraphQlTimelineCapture.class);
+
+    private static final Pattern TIMELINE_OPERATION =
+            Pattern.compile("/graphql/[^/]+/(HomeTimeline|HomeLatestTimeline|ListLatestTweetsTimeline)\\b");
+
+    private final TimelineJsonParser parser;
+    private final List<Response> pending = new ArrayList<>();
+    private final Consumer<Response> listener = this::onResponse;
+    private Page page;
+    private int responseCount;
+    private long payloadBytes;
+
+    public GraphQlTimelineCapture(TimelineJsonParser parser) {
+        this.parser = parser;
+    }
+
+    /**
+     * Must be attached before navigating so the initial timeline page is captured.
+     */
+    public void attach(Page page) {
+        this.page = page;
+        page.onResponse(listener);
+    }
+
+    public void detach() {
+        if (page != null) {
+            page.offResponse(listener);
+            page = null;
+        }
+    }
+
+    /**
+     * Parses every timeline response received since the previous call.
+     */
+    public List<Tweet> drain() {
+        List<Response> responses;
+        synchronized (pending) {
+            responses = new ArrayList<>(pending);
+            pending.clear();
+        }
+        List<Tweet> tweets = new ArrayList<>();
+        for (Response response : responses) {
+            try {
+                byte[] body = response.body();
+                payloadBytes += body.length;
+                tweets.addAll(parser.parse(body));
+            } catch (Exception e) {
+                log.debug("Failed to parse timeline response {}", response.url(), e);
+            }
+        }
+        return tweets;
+    }
+
+    /**
+     * Number of timeline responses seen so far; zero means the DOM fallback is needed.
+     */
+    public int getResponseCount() {
+        return responseCount;
+    }
+
+    public long getPayloadBytes() {
+        return payloadBytes;
+    }
+
+    private void onResponse(Response response) {
+        if (response.status() != 200 || !TIMELINE_OPERATION.matcher(response.url()).find()) {
+            return;
+        }
+        synchronized (pending) {
+            pending.add(response);
+            responseCount++;
+        }
+    }
+}
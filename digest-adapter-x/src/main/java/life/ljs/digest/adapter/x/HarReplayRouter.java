@@ -0,0 +1,160 @@
+package life.ljs.digest.adapter.x;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microsoft.playwright.BrowserContext;
+import com.microsoft.playwright.Route;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Serves a recorded HAR file to a browser context, so a timeline can be scraped
+ * again without network access or a logged-in account.
+ * <p>
+ * Requests are matched on method + full URL first, then on method + URL without the
+ * query string (GraphQL cursors differ between recordings); repeated requests walk
+ * through the recorded responses in order. Anything not in the recording is aborted.
+ * Response delays are the recorded timings divided by {@code speed}; {@code speed <= 0}
+ * replays as fast as the browser can consume it. Delays are applied in the driver's
+ * route callback, so they are sequential rather than overlapping like on the wire.
+ * <p>
+ * Record a HAR with embedded bodies, e.g.
+ * {@code mvn exec:java -Dexec.mainClass=com.microsoft.playwright.CLI -Dexec.args="open --save-har=timeline.har https://x.com/home"}.
+ */
+public class HarReplayRouter {
+
+    private static final Logger log = LoggerFactory.getLogger(HarReplayRouter.class);
+
+    // Set by the browser / driver, not valid for route.fulfill()
+    private static final Set<String> SKIPPED_HEADERS =
+            Set.of("content-length", "content-encoding", "transfer-encoding", "connection");
+
+    private final Map<String, List<Entry>> byUrl = new HashMap<>();
+    private final Map<String, List<Entry>> byPath = new HashMap<>();
+    private final Map<String, AtomicInteger> cursors = new HashMap<>();
+    private final double speed;
+    private final AtomicInteger served = new AtomicInteger();
+    private final AtomicInteger missed = new AtomicInteger();
+
+    public HarReplayRouter(Path harFile, double speed, ObjectMapper objectMapper) throws IOException {
+        this.speed = speed;
+        JsonNode entries = objectMapper.readTree(harFile.toFile()).path("log").path("entries");
+        for (JsonNode node : entries) {
+            Entry entry = Entry.from(node);
+            if (entry == null) {
+                continue;
+            }
+            byUrl.computeIfAbsent(entry.method + " " + entry.url, k -> new ArrayList<>()).add(entry);
+            byPath.computeIfAbsent(entry.method + " " + stripQuery(entry.url), k -> new ArrayList<>()).add(entry);
+        }
+        log.info("Loaded {} recorded responses from {}", entries.size(), harFile);
+    }
+
+    /**
+     * Routes every request of {@code context} to the recording.
+     */
+    public void install(BrowserContext context) {
+        context.route("**/*", this::handle);
+    }
+
+    public int getServed() {
+        return served.get();
+    }
+
+    public int getMissed() {
+        return missed.get();
+    }
+
+    /**
+     * Rewinds the per-URL cursors so the next page load replays from the first response.
+     */
+    public synchronized void reset() {
+        cursors.clear();
+        served.set(0);
+        missed.set(0);
+    }
+
+    private void handle(Route route) {
+        String method = route.request().method();
+        String url = route.request().url();
+        Entry entry = next(method + " " + url, byUrl);
+        if (entry == null) {
+            entry = next(method + " " + stripQuery(url), byPath);
+        }
+        if (entry == null) {
+            missed.incrementAndGet();
+            log.debug("No recorded response for {} {}", method, url);
+            route.abort("failed");
+            return;
+        }
+        if (speed > 0 && entry.timeMs > 0) {
+            try {
+                Thread.sleep((long) (entry.timeMs / speed));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        served.incrementAndGet();
+        route.fulfill(new Route.FulfillOptions()
+                .setStatus(entry.status)
+                .setHeaders(entry.headers)
+                .setBodyBytes(entry.body));
+    }
+
+    private synchronized Entry next(String key, Map<String, List<Entry>> index) {
+        List<Entry> candidates = index.get(key);
+        if (candidates == null) {
+            return null;
+        }
+        // Separate cursor spaces for exact and path matches
+        int i = cursors.computeIfAbsent((index == byUrl ? "u:" : "p:") + key, k -> new AtomicInteger())
+                .getAndIncrement();
+        return candidates.get(Math.min(i, candidates.size() - 1));
+    }
+
+    private static String stripQuery(String url) {
+        int q = url.indexOf('?');
+        return q < 0 ? url : url.substring(0, q);
+    }
+
+    private record Entry(String method, String url, int status, Map<String, String> headers, byte[] body,
+                         double timeMs) {
+
+        static Entry from(JsonNode node) {
+            JsonNode request = node.path("request");
+            JsonNode response = node.path("response");
+            int status = response.path("status").asInt();
+            // Status 0 marks requests that failed or were aborted while recording
+            if (status <= 0) {
+                return null;
+            }
+            Map<String, String> headers = new LinkedHashMap<>();
+            for (JsonNode header : response.path("headers")) {
+                String name = header.path("name").asText().toLowerCase(Locale.ROOT);
+                if (!SKIPPED_HEADERS.contains(name) && !name.startsWith(":")) {
+                    headers.merge(name, header.path("value").asText(), (a, b) -> a + "\n" + b);
+                }
+            }
+            JsonNode content = response.path("content");
+            String text = content.path("text").asText("");
+            byte[] body = "base64".equals(content.path("encoding").asText())
+                    ? Base64.getDecoder().decode(text)
+                    : text.getBytes(StandardCharsets.UTF_8);
+            return new Entry(request.path("method").asText("GET"), request.path("url").asText(), status, headers,
+                    body, node.path("time").asDouble());
+        }
+    }
+}
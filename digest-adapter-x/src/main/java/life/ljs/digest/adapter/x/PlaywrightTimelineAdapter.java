@@ -1,307 +1,231 @@
 package life.ljs.digest.adapter.x;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.microsoft.playwright.*;
-import com.microsoft.playwright.options.Cookie;
 import life.ljs.digest.domain.model.Tweet;
-import life.ljs.digest.domain.port.TimelinePort;
+import life.ljs.digest.domain.model.TweetId;
+import life.ljs.digest.domain.model.TweetIdSet;
+import life.ljs.digest.domain.port.StreamingTimelinePort;
+import life.ljs.digest.domain.port.TweetBatchSink;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 
-import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.time.OffsetDateTime;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
 
 @Component
 @Profile("playwright")
-public class PlaywrightTimelineAdapter implements TimelinePort {
+public class PlaywrightTimelineAdapter implements StreamingTimelinePort {
 
     private static final Logger log = LoggerFactory.getLogger(PlaywrightTimelineAdapter.class);
 
-    private final String cookiesPath;
-    private final boolean headless;
-    private final int timeoutMs;
-    private final int maxScrolls;
-    private final ObjectMapper objectMapper;
+    private final List<TimelineSource> sources;
+    private final int maxConcurrency;
+    private final BrowserSessionPool sessionPool;
+    private final TimelineScraper scraper;
+
+    private volatile Map<String, ScrollMetrics> lastScrollMetrics = Map.of();
 
     public PlaywrightTimelineAdapter(
             @Value("${twitter.playwright.cookies-path:}") String cookiesPath,
-            @Value("${twitter.playwright.headless:true}") boolean headless,
-            @Value("${twitter.playwright.timeout:30000}") int timeoutMs,
-            @Value("${twitter.playwright.max-scrolls:10}") int maxScrolls,
-            ObjectMapper objectMapper) {
-        this.cookiesPath = cookiesPath;
-        this.headless = headless;
-        this.timeoutMs = timeoutMs;
-        this.maxScrolls = maxScrolls;
-        this.objectMapper = objectMapper;
+            @Value("${twitter.playwright.sources:}") String sources,
+            @Value("${twitter.playwright.max-concurrency:2}") int maxConcurrency,
+            BrowserSessionPool sessionPool,
+            TimelineScraper scraper) {
+        this.sources = TimelineSource.parseAll(sources, cookiesPath);
+        this.maxConcurrency = Math.max(1, maxConcurrency);
+        this.sessionPool = sessionPool;
+        this.scraper = scraper;
+        log.info("Configured {} timeline source(s)", this.sources.size());
     }
 
+    /**
+     * Same as {@link #streamLatestTweets(Function, TweetBatchSink)} with one watermark
+     * shared by every source.
+     */
     @Override
-    public List<Tweet> fetchLatestTweets(String lastSeenTweetId) {
-        if (cookiesPath == null || cookiesPath.isBlank()) {
-            log.warn("twitter.playwright.cookies-path is not configured, skipping Playwright fetch.");
-            return List.of();
-        }
-
-        Path path = Path.of(cookiesPath);
-        if (!Files.exists(path)) {
-            log.warn("Cookies file not found at: {}", cookiesPath);
-            return List.of();
-        }
-
-        try (Playwright playwright = Playwright
-                .create(new Playwright.CreateOptions().setEnv(Map.of("PLAYWRIGHT_SKIP_BROWSER_DOWNLOAD", "1")))) {
-            Browser browser = playwright.chromium().launch(new BrowserType.LaunchOptions().setHeadless(headless));
-            BrowserContext context = browser.newContext();
+    public void streamLatestTweets(String lastSeenTweetId, TweetBatchSink sink) {
+        streamLatestTweets(source -> lastSeenTweetId, sink);
+    }
 
-            // Load cookies
-            try {
-                byte[] bytes = Files.readAllBytes(path);
-                com.fasterxml.jackson.databind.JsonNode rootNode = objectMapper.readTree(bytes);
-                if (rootNode.isArray()) {
-                    for (com.fasterxml.jackson.databind.JsonNode node : rootNode) {
-                        if (node.has("sameSite")) {
-                            com.fasterxml.jackson.databind.node.ObjectNode objectNode = (com.fasterxml.jackson.databind.node.ObjectNode) node;
-                            String sameSite = node.get("sameSite").asText();
-                            if ("unspecified".equalsIgnoreCase(sameSite)
-                                    || "no_restriction".equalsIgnoreCase(sameSite)) {
-                                objectNode.put("sameSite", "NONE");
-                            } else {
-                                objectNode.put("sameSite", sameSite.toUpperCase());
-                            }
+    /**
+     * Scrapes every configured source, at most {@code max-concurrency} at a time, each
+     * in its own browser session on a virtual thread. Batches from all sources are
+     * merged into one stream, deduplicated by tweet ID.
+     * <p>
+     * Each source stops at its own watermark and reports its own newest ID: IDs from a
+     * busy home timeline say nothing about how far a quiet List has been read.
+     */
+    @Override
+    public Map<String, TweetId> streamLatestTweets(Function<String, String> lastSeenTweetIds, TweetBatchSink sink) {
+        Map<String, ScrollMetrics> metrics = new ConcurrentHashMap<>();
+        Map<String, TweetId> newestIds = new ConcurrentHashMap<>();
+        MergingSink merged = new MergingSink(sink);
+
+        if (sources.size() == 1) {
+            fetchSource(sources.get(0), lastSeenTweetIds, merged, metrics, newestIds);
+        } else {
+            Semaphore permits = new Semaphore(maxConcurrency);
+            long start = System.currentTimeMillis();
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                List<Future<?>> futures = new ArrayList<>();
+                for (TimelineSource source : sources) {
+                    futures.add(executor.submit(() -> {
+                        permits.acquire();
+                        try {
+                            fetchSource(source, lastSeenTweetIds, merged, metrics, newestIds);
+                        } finally {
+                            permits.release();
                         }
-                    }
+                        return null;
+                    }));
                 }
-                List<Cookie> cookies = objectMapper.convertValue(rootNode, new TypeReference<List<Cookie>>() {
-                });
-                context.addCookies(cookies);
-            } catch (IOException e) {
-                log.error("Failed to load cookies from {}", cookiesPath, e);
-                return List.of();
-            }
-
-            Page page = context.newPage();
-            page.setDefaultTimeout(timeoutMs);
-
-            log.info("Navigating to X home...");
-            page.navigate("https://x.com/home");
-
-            // Wait for timeline to load (look for a tweet article)
-            try {
-                page.waitForSelector("article[data-testid='tweet']",
-                        new Page.WaitForSelectorOptions().setTimeout(timeoutMs));
-            } catch (TimeoutError e) {
-                log.error("Timeout waiting for timeline to load. Check login status or network.");
-                // Maybe take screenshot?
-                return List.of();
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.warn("Interrupted while fetching timeline sources");
+            } catch (ExecutionException e) {
+                log.error("Error while fetching timeline sources", e.getCause());
             }
+            log.info("Fetched {} timeline sources in {} ms ({} unique tweets)",
+                    sources.size(), System.currentTimeMillis() - start, merged.size());
+        }
+        lastScrollMetrics = Map.copyOf(metrics);
+        return newestIds;
+    }
 
-            // Ensure "For You" is selected (usually default, but good to check if possible,
-            // skipping for simplicity now)
-
-            Set<Tweet> allTweets = new HashSet<>();
-            for (int i = 0; i < maxScrolls; i++) {
-                List<Tweet> batch = scrapeVisibleTweets(page);
-                int beforeSize = allTweets.size();
-                allTweets.addAll(batch);
-                int afterSize = allTweets.size();
+    /**
+     * Per-scroll wait times and discovery counts of the most recent fetch, by source name.
+     */
+    public Map<String, ScrollMetrics> getLastScrollMetrics() {
+        return lastScrollMetrics;
+    }
 
-                log.debug("Scroll {}: Found {} tweets (Total unique: {})", i + 1, batch.size(), afterSize);
+    private void fetchSource(TimelineSource source, Function<String, String> lastSeenTweetIds, TweetBatchSink sink,
+                             Map<String, ScrollMetrics> metrics, Map<String, TweetId> newestIds) {
+        String cookiesPath = source.cookiesPath();
+        if (cookiesPath == null || cookiesPath.isBlank()) {
+            log.warn("[{}] twitter.playwright.cookies-path is not configured, skipping Playwright fetch.",
+                    source.name());
+            return;
+        }
 
-                if (afterSize == beforeSize && i > 2) {
-                    // Stop if no new tweets found for a while
-                    log.debug("No new tweets found, stopping scroll.");
-                    break;
-                }
+        Path path = Path.of(cookiesPath);
+        if (!Files.exists(path)) {
+            log.warn("[{}] Cookies file not found at: {}", source.name(), cookiesPath);
+            return;
+        }
 
-                page.evaluate("window.scrollBy(0, 2000)");
-                page.waitForTimeout(2000); // Wait for load
+        try (BrowserSessionPool.Lease lease = sessionPool.acquire(path)) {
+            NewestIdSink sourceSink = new NewestIdSink(sink);
+            ScrollMetrics sourceMetrics = scraper.scrape(lease.newPage(), source.name(), source.url(),
+                    lastSeenTweetIds.apply(source.name()), sourceSink);
+            // A source that failed part-way keeps its old watermark and is re-read next time
+            if (sourceSink.newestId != null) {
+                newestIds.put(source.name(), sourceSink.newestId);
             }
-
-            return new ArrayList<>(allTweets).stream()
-                    .sorted(Comparator.comparing(Tweet::getCreatedAt).reversed())
-                    .collect(Collectors.toList());
-
+            if (sourceMetrics != null) {
+                metrics.put(source.name(), sourceMetrics);
+            }
+            log.info("[{}] Route blocking: {}", source.name(), lease.routeStats());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("[{}] Interrupted while waiting for a browser session", source.name());
         } catch (Exception e) {
-            log.error("Error during Playwright execution", e);
-            return List.of();
+            log.error("[{}] Error during Playwright execution", source.name(), e);
         }
     }
 
-    private List<Tweet> scrapeVisibleTweets(Page page) {
-        List<Tweet> results = new ArrayList<>();
-        List<ElementHandle> articles = page.querySelectorAll("article[data-testid='tweet']");
-
-        for (ElementHandle article : articles) {
-            try {
-                // Extract ID from link
-                // Usually: /User/status/123456789
-                ElementHandle timeElement = article.querySelector("time");
-                if (timeElement == null)
-                    continue;
+    /**
+     * Tracks the newest numeric ID one source emitted, before cross-source deduplication.
+     */
+    private static final class NewestIdSink implements TweetBatchSink {
+        private final TweetBatchSink downstream;
+        private TweetId newestId;
 
-                String timeStr = timeElement.getAttribute("datetime");
-                OffsetDateTime createdAt = parseTime(timeStr);
-
-                ElementHandle linkElement = article.querySelector("a[href*='/status/']");
-                if (linkElement == null)
-                    continue;
-
-                String href = linkElement.getAttribute("href");
-                String tweetId = extractTweetId(href);
-                if (tweetId == null)
-                    continue;
-
-                // Extract Text
-                ElementHandle textElement = article.querySelector("div[data-testid='tweetText']");
-                String text = textElement != null ? textElement.innerText() : "";
-
-                // Extract Author
-                ElementHandle authorElement = article.querySelector("div[data-testid='User-Name']");
-                String authorName = authorElement != null ? authorElement.innerText().replace("\n", " ") : "Unknown";
-
-                // Extract Stats (approximate)
-                long replyCount = parseStat(article, "reply");
-                long retweetCount = parseStat(article, "retweet");
-                long likeCount = parseStat(article, "like");
-
-                // Lang detection is hard from UI, default to "en" or empty
-                String lang = "en";
-
-                Tweet tweet = new Tweet(
-                        tweetId,
-                        authorName,
-                        text,
-                        createdAt,
-                        likeCount,
-                        retweetCount,
-                        replyCount,
-                        "https://x.com" + href,
-                        lang);
-                results.add(tweet);
+        private NewestIdSink(TweetBatchSink downstream) {
+            this.downstream = downstream;
+        }
 
-            } catch (Exception e) {
-                // Ignore single failure
-                log.trace("Failed to parse a tweet element", e);
+        @Override
+        public void accept(List<Tweet> batch) {
+            for (Tweet tweet : batch) {
+                TweetId id = tweet.getId();
+                if (id != null && id.isNewerThan(newestId)) {
+                    newestId = id;
+                }
             }
+            downstream.accept(batch);
         }
-        return results;
-    }
 
-    private String extractTweetId(String href) {
-        // href example: /user/status/123456
-        if (href == null)
-            return null;
-        int idx = href.indexOf("/status/");
-        if (idx >= 0) {
-            String sub = href.substring(idx + 8);
-            int end = sub.indexOf("/"); // Remove potential trailing params or routes
-            if (end > 0)
-                return sub.substring(0, end);
-            return sub;
+        @Override
+        public void observe(List<Tweet> tweets) {
+            downstream.observe(tweets);
         }
-        return null;
-    }
 
-    private OffsetDateTime parseTime(String timeStr) {
-        try {
-            return OffsetDateTime.parse(timeStr);
-        } catch (DateTimeParseException e) {
-            return OffsetDateTime.now();
+        @Override
+        public boolean isCancelled() {
+            return downstream.isCancelled();
         }
     }
 
-    private long parseStat(ElementHandle article, String type) {
-        // X (Twitter) uses different data-testid attributes for engagement buttons
-        // "reply", "retweet", "like", "bookmark" etc.
-        try {
-            // Try multiple strategies to find the stat
-
-            // Strategy 1: Find button with data-testid and check aria-label
-            ElementHandle button = article.querySelector("button[data-testid='" + type + "']");
-            if (button != null) {
-                String ariaLabel = button.getAttribute("aria-label");
-                if (ariaLabel != null) {
-                    log.trace("Found {} aria-label: {}", type, ariaLabel);
-                    // aria-label format: "123 Likes", "45 Retweets", "67 Replies"
-                    String[] parts = ariaLabel.split(" ");
-                    if (parts.length > 0) {
-                        long count = parseCount(parts[0]);
-                        if (count > 0) {
-                            return count;
-                        }
-                    }
-                }
+    /**
+     * Serializes batches from concurrent sources into the caller's sink. Tweets another
+     * source already emitted are passed on as observations so their newer counts still
+     * reach the ranking.
+     */
+    private static final class MergingSink implements TweetBatchSink {
+        private final TweetBatchSink downstream;
+        private final TweetIdSet emittedIds = new TweetIdSet(512);
+        private final Set<String> emittedNonNumericIds = new HashSet<>();
+
+        private MergingSink(TweetBatchSink downstream) {
+            this.downstream = downstream;
+        }
 
-                // Strategy 2: Check inner text of the button's span
-                ElementHandle span = button.querySelector("span");
-                if (span != null) {
-                    String text = span.innerText();
-                    if (text != null && !text.isEmpty()) {
-                        log.trace("Found {} span text: {}", type, text);
-                        long count = parseCount(text.trim());
-                        if (count > 0) {
-                            return count;
-                        }
-                    }
+        @Override
+        public synchronized void accept(List<Tweet> batch) {
+            List<Tweet> fresh = new ArrayList<>(batch.size());
+            List<Tweet> duplicates = new ArrayList<>();
+            for (Tweet tweet : batch) {
+                TweetId id = tweet.getId();
+                if (id != null ? emittedIds.add(id) : emittedNonNumericIds.add(tweet.getTweetId())) {
+                    fresh.add(tweet);
+                } else if (id != null) {
+                    duplicates.add(tweet);
                 }
             }
-
-            // Strategy 3: Look for group with role="group" containing the stat
-            List<ElementHandle> groups = article.querySelectorAll("div[role='group']");
-            for (ElementHandle group : groups) {
-                String ariaLabel = group.getAttribute("aria-label");
-                if (ariaLabel != null && ariaLabel.toLowerCase().contains(type)) {
-                    log.trace("Found {} in group aria-label: {}", type, ariaLabel);
-                    String[] parts = ariaLabel.split(" ");
-                    if (parts.length > 0) {
-                        long count = parseCount(parts[0]);
-                        if (count > 0) {
-                            return count;
-                        }
-                    }
-                }
+            if (!fresh.isEmpty()) {
+                downstream.accept(fresh);
+            }
+            if (!duplicates.isEmpty()) {
+                downstream.observe(duplicates);
             }
-
-        } catch (Exception e) {
-            log.trace("Error parsing {} stat", type, e);
         }
 
-        return 0;
-    }
-
-    private long parseCount(String str) {
-        if (str == null || str.isEmpty()) {
-            return 0;
+        @Override
+        public synchronized void observe(List<Tweet> tweets) {
+            downstream.observe(tweets);
         }
 
-        try {
-            // Remove commas and spaces
-            str = str.replace(",", "").replace(" ", "").trim();
-
-            // Handle K, M suffixes
-            if (str.endsWith("K") || str.endsWith("k")) {
-                return (long) (Double.parseDouble(str.substring(0, str.length() - 1)) * 1000);
-            }
-            if (str.endsWith("M") || str.endsWith("m")) {
-                return (long) (Double.parseDouble(str.substring(0, str.length() - 1)) * 1000000);
-            }
+        @Override
+        public synchronized boolean isCancelled() {
+            return downstream.isCancelled();
+        }
 
-            // Try to parse as long
-            return Long.parseLong(str);
-        } catch (NumberFormatException e) {
-            log.trace("Failed to parse count from: {}", str);
-            return 0;
+        synchronized int size() {
+            return emittedIds.size() + emittedNonNumericIds.size();
         }
     }
 }
@@ -0,0 +1,83 @@
+package life.ljs.digest.adapter.x;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microsoft.playwright.Browser;
+import com.microsoft.playwright.BrowserContext;
+import com.microsoft.playwright.BrowserType;
+import com.microsoft.playwright.Playwright;
+import life.ljs.digest.domain.port.StreamingTimelinePort;
+import life.ljs.digest.domain.port.TweetBatchSink;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * Offline stand-in for {@link PlaywrightTimelineAdapter}: scrapes a recorded HAR
+ * through a local Chromium with the same {@link TimelineScraper} settings, so the
+ * scroll / extraction path can be exercised and profiled without hitting X.
+ */
+@Component
+@Profile("replay")
+public class ReplayTimelineAdapter implements StreamingTimelinePort {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplayTimelineAdapter.class);
+
+    private final String harPath;
+    private final String url;
+    private final double speed;
+    private final boolean headless;
+    private final TimelineScraper scraper;
+    private final ObjectMapper objectMapper;
+
+    private volatile ScrollMetrics lastScrollMetrics;
+
+    public ReplayTimelineAdapter(
+            @Value("${twitter.replay.har:}") String harPath,
+            @Value("${twitter.replay.url:https://x.com/home}") String url,
+            @Value("${twitter.replay.speed:0}") double speed,
+            @Value("${twitter.playwright.headless:true}") boolean headless,
+            TimelineScraper scraper,
+            ObjectMapper objectMapper) {
+        this.harPath = harPath;
+        this.url = url;
+        this.speed = speed;
+        this.headless = headless;
+        this.scraper = scraper;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void streamLatestTweets(String lastSeenTweetId, TweetBatchSink sink) {
+        if (harPath == null || harPath.isBlank() || !Files.exists(Path.of(harPath))) {
+            log.warn("twitter.replay.har is not configured or missing ({}), skipping replay fetch.", harPath);
+            return;
+        }
+        try (Playwright playwright = Playwright
+                .create(new Playwright.CreateOptions().setEnv(Map.of("PLAYWRIGHT_SKIP_BROWSER_DOWNLOAD", "1")))) {
+            HarReplayRouter router = new HarReplayRouter(Path.of(harPath), speed, objectMapper);
+            Browser browser = playwright.chromium().launch(new BrowserType.LaunchOptions().setHeadless(headless));
+            BrowserContext context = browser.newContext();
+            router.install(context);
+
+            long start = System.nanoTime();
+            lastScrollMetrics = scraper.scrape(context.newPage(), "replay", url, lastSeenTweetId, sink);
+            log.info("[replay] Done in {} ms: {} responses served, {} requests not in recording",
+                    (System.nanoTime() - start) / 1_000_000, router.getServed(), router.getMissed());
+        } catch (IOException e) {
+            log.error("Failed to load HAR recording {}", harPath, e);
+        } catch (Exception e) {
+            log.error("Error during replay", e);
+        }
+    }
+
+    public ScrollMetrics getLastScrollMetrics() {
+        return lastScrollMetrics;
+    }
+}
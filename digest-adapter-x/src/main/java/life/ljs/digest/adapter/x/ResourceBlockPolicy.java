@@ -0,0 +1,93 @@
+package life.ljs.digest.adapter.x;
+
+import com.microsoft.playwright.BrowserContext;
+import com.microsoft.playwright.Route;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Aborts requests the scraper never needs: images, video, fonts, avatars and
+ * analytics beacons. Only text and aria-labels are read from the timeline.
+ */
+public class ResourceBlockPolicy {
+
+    private final boolean enabled;
+    private final Set<String> resourceTypes;
+    private final List<String> hosts;
+    private final List<String> urlPatterns;
+
+    public ResourceBlockPolicy(boolean enabled, Set<String> resourceTypes, List<String> hosts, List<String> urlPatterns) {
+        this.enabled = enabled;
+        this.resourceTypes = resourceTypes;
+        this.hosts = hosts;
+        this.urlPatterns = urlPatterns;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Routes every request of the context through this policy. Blocked and loaded
+     * traffic is counted in {@code stats}.
+     */
+    public void install(BrowserContext context, RouteBlockStats stats) {
+        if (!enabled) {
+            return;
+        }
+        context.route("**/*", route -> handle(route, stats));
+        context.onResponse(response -> {
+            String length = response.headers().get("content-length");
+            if (length != null) {
+                try {
+                    stats.recordLoaded(Long.parseLong(length));
+                } catch (NumberFormatException ignored) {
+                    // chunked or malformed, nothing to count
+                }
+            }
+        });
+    }
+
+    /**
+     * @return the reason the request is blocked, or {@code null} to let it through
+     */
+    String blockReason(String resourceType, String url) {
+        if (resourceTypes.contains(resourceType)) {
+            return resourceType;
+        }
+        String host = host(url);
+        for (String blockedHost : hosts) {
+            if (host.equals(blockedHost) || host.endsWith("." + blockedHost)) {
+                return "host";
+            }
+        }
+        for (String pattern : urlPatterns) {
+            if (url.contains(pattern)) {
+                return "url";
+            }
+        }
+        return null;
+    }
+
+    private void handle(Route route, RouteBlockStats stats) {
+        String reason = blockReason(route.request().resourceType(), route.request().url());
+        if (reason != null) {
+            stats.recordBlocked(reason);
+            route.abort("blockedbyclient");
+        } else {
+            route.resume();
+        }
+    }
+
+    private static String host(String url) {
+        try {
+            String host = URI.create(url).getHost();
+            return host != null ? host.toLowerCase(Locale.ROOT) : "";
+        } catch (IllegalArgumentException e) {
+            return "";
+        }
+    }
+}
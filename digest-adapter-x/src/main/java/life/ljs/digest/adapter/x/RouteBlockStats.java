@@ -0,0 +1,54 @@
+package life.ljs.digest.adapter.x;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Requests aborted by {@link ResourceBlockPolicy}, by reason, plus the bytes that
+ * were still loaded. Aborted requests are never fetched, so their size is unknown;
+ * compare {@code loadedBytes} across runs with blocking on and off to see the saving.
+ */
+public class RouteBlockStats {
+
+    private final Map<String, LongAdder> blocked = new ConcurrentHashMap<>();
+    private final AtomicLong loadedBytes = new AtomicLong();
+    private final AtomicLong loadedResponses = new AtomicLong();
+
+    void recordBlocked(String reason) {
+        blocked.computeIfAbsent(reason, k -> new LongAdder()).increment();
+    }
+
+    void recordLoaded(long bytes) {
+        loadedBytes.addAndGet(bytes);
+        loadedResponses.incrementAndGet();
+    }
+
+    public void reset() {
+        blocked.clear();
+        loadedBytes.set(0);
+        loadedResponses.set(0);
+    }
+
+    public long getBlockedRequests() {
+        return blocked.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    public Map<String, Long> getBlockedByReason() {
+        Map<String, Long> result = new TreeMap<>();
+        blocked.forEach((reason, count) -> result.put(reason, count.sum()));
+        return result;
+    }
+
+    public long getLoadedBytes() {
+        return loadedBytes.get();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("blocked=%d %s, loaded=%d responses / %d bytes",
+                getBlockedRequests(), getBlockedByReason(), loadedResponses.get(), getLoadedBytes());
+    }
+}
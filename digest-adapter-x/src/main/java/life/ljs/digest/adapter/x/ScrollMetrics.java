@@ -0,0 +1,95 @@
+package life.ljs.digest.adapter.x;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Per-run scroll statistics: how long each scroll waited and how many new tweets it found.
+ */
+public class ScrollMetrics {
+
+    private final List<Long> waitMillis = new ArrayList<>();
+    private final List<Integer> newTweets = new ArrayList<>();
+    private final List<Long> extractNanos = new ArrayList<>();
+    private int timeouts;
+
+    public void recordDiscovery(int newTweetCount) {
+        newTweets.add(newTweetCount);
+    }
+
+    public void recordExtraction(long nanos) {
+        extractNanos.add(nanos);
+    }
+
+    public void recordWait(long millis, boolean timedOut) {
+        waitMillis.add(millis);
+        if (timedOut) {
+            timeouts++;
+        }
+    }
+
+    public int getScrolls() {
+        return waitMillis.size();
+    }
+
+    public int getTimeouts() {
+        return timeouts;
+    }
+
+    public long getTotalWaitMillis() {
+        return waitMillis.stream().mapToLong(Long::longValue).sum();
+    }
+
+    public long getMaxWaitMillis() {
+        return waitMillis.stream().mapToLong(Long::longValue).max().orElse(0);
+    }
+
+    public long percentileWaitMillis(double percentile) {
+        if (waitMillis.isEmpty()) {
+            return 0;
+        }
+        long[] sorted = waitMillis.stream().mapToLong(Long::longValue).toArray();
+        Arrays.sort(sorted);
+        int idx = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(idx, sorted.length - 1))];
+    }
+
+    public List<Long> getWaitMillis() {
+        return List.copyOf(waitMillis);
+    }
+
+    /**
+     * Time spent reading tweets from the page (or captured responses), per extraction.
+     */
+    public List<Long> getExtractNanos() {
+        return List.copyOf(extractNanos);
+    }
+
+    public int getDiscoveredTweets() {
+        return newTweets.stream().mapToInt(Integer::intValue).sum();
+    }
+
+    /**
+     * Average number of new tweets found over the last {@code window} extractions,
+     * or {@code -1} while fewer than {@code window} extractions have happened.
+     */
+    public double recentDiscoveryRate(int window) {
+        if (window <= 0 || newTweets.size() < window) {
+            return -1;
+        }
+        int sum = 0;
+        for (int i = newTweets.size() - window; i < newTweets.size(); i++) {
+            sum += newTweets.get(i);
+        }
+        return (double) sum / window;
+    }
+
+    @Override
+    public String toString() {
+        double extractMs = extractNanos.stream().mapToLong(Long::longValue).sum() / 1e6;
+        return String.format("scrolls=%d, wait total=%dms p50=%dms p95=%dms max=%dms, timeouts=%d, extract total=%.1fms",
+                getScrolls(), getTotalWaitMillis(), percentileWaitMillis(50), percentileWaitMillis(95),
+                getMaxWaitMillis(), timeouts, extractMs);
+    }
+}
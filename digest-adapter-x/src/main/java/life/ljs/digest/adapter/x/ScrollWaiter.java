@@ -0,0 +1,85 @@
+package life.ljs.digest.adapter.x;
+
+import com.microsoft.playwright.Page;
+import com.microsoft.playwright.TimeoutError;
+
+/**
+ * Scrolls the timeline and returns as soon as new tweet articles are rendered,
+ * instead of sleeping a fixed interval.
+ * <p>
+ * A MutationObserver installed in the page counts added tweet articles; each scroll
+ * waits for that counter to move, bounded by {@code maxWaitMs}.
+ */
+public class ScrollWaiter {
+
+    private static final String INSTALL_SCRIPT = """
+            (selector) => {
+              if (window.__digestArticles !== undefined) return;
+              window.__digestArticles = 0;
+              new MutationObserver(mutations => {
+                for (const m of mutations) {
+                  for (const n of m.addedNodes) {
+                    if (n.nodeType === 1 && (n.matches(selector) || n.querySelector(selector))) {
+                      window.__digestArticles++;
+                    }
+                  }
+                }
+              }).observe(document.body, { childList: true, subtree: true });
+            }
+            """;
+
+    private static final String SCROLL_SCRIPT = """
+            (distance) => {
+              window.scrollBy(0, distance);
+              return window.__digestArticles || 0;
+            }
+            """;
+
+    private static final String NEW_ARTICLES_CONDITION = "(seen) => (window.__digestArticles || 0) > seen";
+
+    private final int scrollDistance;
+    private final int maxWaitMs;
+    private final int settleMs;
+
+    public ScrollWaiter(int scrollDistance, int maxWaitMs, int settleMs) {
+        this.scrollDistance = scrollDistance;
+        this.maxWaitMs = maxWaitMs;
+        this.settleMs = settleMs;
+    }
+
+    /**
+     * Must be called once the timeline has rendered its first articles.
+     */
+    public void install(Page page) {
+        page.evaluate(INSTALL_SCRIPT, TweetExtractor.ARTICLE_SELECTOR);
+    }
+
+    /**
+     * Starts a scroll without waiting, so the caller can do other work while the
+     * browser loads the next page of the timeline.
+     *
+     * @return the article count before scrolling, to pass to {@link #awaitNewArticles}
+     */
+    public Object scroll(Page page) {
+        return page.evaluate(SCROLL_SCRIPT, scrollDistance);
+    }
+
+    /**
+     * Waits until articles were added since {@link #scroll} returned {@code seen}.
+     *
+     * @return whether new articles appeared before the upper bound
+     */
+    public boolean awaitNewArticles(Page page, Object seen) {
+        try {
+            page.waitForFunction(NEW_ARTICLES_CONDITION, seen,
+                    new Page.WaitForFunctionOptions().setTimeout(maxWaitMs));
+        } catch (TimeoutError e) {
+            return false;
+        }
+        if (settleMs > 0) {
+            // Let the rest of the batch render before extracting
+            page.waitForTimeout(settleMs);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,250 @@
+package life.ljs.digest.adapter.x;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import life.ljs.digest.domain.model.LanguageDetector;
+import life.ljs.digest.domain.model.Tweet;
+
+import java.io.IOException;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Streams tweets out of X's timeline GraphQL payloads (HomeTimeline, HomeLatestTimeline, ...).
+ * <p>
+ * Only {@code tweet_results.result} objects are read field by field; everything else
+ * is skipped token by token, so cost scales with payload size and no tree is built.
+ * A retweet's own {@code legacy} is only the RT wrapper (truncated "RT @user:" text,
+ * zero likes, the wrapper's id), so when {@code legacy.retweeted_status_result} is present
+ * the original tweet is reported instead, as the timeline shows it. Quoted tweets nested
+ * inside a result are skipped, matching what the DOM scraper reports for a timeline entry.
+ */
+public class TimelineJsonParser {
+
+    private static final DateTimeFormatter CREATED_AT_FORMAT =
+            DateTimeFormatter.ofPattern("EEE MMM dd HH:mm:ss Z yyyy", Locale.ENGLISH);
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    public List<Tweet> parse(byte[] body) throws IOException {
+        List<Tweet> tweets = new ArrayList<>();
+        try (JsonParser p = jsonFactory.createParser(body)) {
+            JsonToken token;
+            while ((token = p.nextToken()) != null) {
+                if (token == JsonToken.FIELD_NAME && "tweet_results".equals(p.currentName())) {
+                    if (p.nextToken() == JsonToken.START_OBJECT) {
+                        Tweet tweet = readTweetResults(p);
+                        if (tweet != null) {
+                            tweets.add(tweet);
+                        }
+                    }
+                }
+            }
+        }
+        return tweets;
+    }
+
+    private Tweet readTweetResults(JsonParser p) throws IOException {
+        TweetFields fields = null;
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String name = p.currentName();
+            JsonToken value = p.nextToken();
+            if ("result".equals(name) && value == JsonToken.START_OBJECT) {
+                fields = new TweetFields();
+                readResult(p, fields);
+            } else {
+                p.skipChildren();
+            }
+        }
+        return fields != null ? fields.toTweet() : null;
+    }
+
+    private void readResult(JsonParser p, TweetFields f) throws IOException {
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String name = p.currentName();
+            JsonToken value = p.nextToken();
+            switch (name) {
+                case "rest_id" -> f.restId = p.getValueAsString();
+                // TweetWithVisibilityResults wraps the actual tweet one level deeper
+                case "tweet" -> {
+                    if (value == JsonToken.START_OBJECT) {
+                        readResult(p, f);
+                    } else {
+                        p.skipChildren();
+                    }
+                }
+                case "core" -> readUser(p, name, f);
+                case "legacy" -> readLegacy(p, f);
+                case "note_tweet" -> readNoteTweet(p, f);
+                default -> p.skipChildren();
+            }
+        }
+    }
+
+    /**
+     * Picks {@code name} / {@code screen_name} from the author's {@code legacy} or
+     * (newer payloads) {@code core} object, ignoring same-named fields elsewhere.
+     */
+    private void readUser(JsonParser p, String parent, TweetFields f) throws IOException {
+        if (!p.currentToken().isStructStart()) {
+            return;
+        }
+        boolean userFields = "legacy".equals(parent) || "core".equals(parent);
+        JsonToken token;
+        while ((token = p.nextToken()) != JsonToken.END_OBJECT && token != JsonToken.END_ARRAY) {
+            String name = token == JsonToken.FIELD_NAME ? p.currentName() : null;
+            if (name != null) {
+                token = p.nextToken();
+            }
+            if (token.isStructStart()) {
+                readUser(p, name, f);
+            } else if (userFields && "screen_name".equals(name) && f.screenName == null) {
+                f.screenName = p.getValueAsString();
+            } else if (userFields && "name".equals(name) && f.userName == null) {
+                f.userName = p.getValueAsString();
+            }
+        }
+    }
+
+    private void readLegacy(JsonParser p, TweetFields f) throws IOException {
+        if (p.currentToken() != JsonToken.START_OBJECT) {
+            p.skipChildren();
+            return;
+        }
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String name = p.currentName();
+            p.nextToken();
+            switch (name) {
+                case "id_str" -> f.idStr = p.getValueAsString();
+                case "full_text" -> f.fullText = p.getValueAsString();
+                case "created_at" -> f.createdAt = p.getValueAsString();
+                case "favorite_count" -> f.likeCount = p.getValueAsLong();
+                case "retweet_count" -> f.retweetCount = p.getValueAsLong();
+                case "reply_count" -> f.replyCount = p.getValueAsLong();
+                case "lang" -> f.lang = p.getValueAsString();
+                case "retweeted_status_result" -> readRetweeted(p, f);
+                default -> p.skipChildren();
+            }
+        }
+    }
+
+    /**
+     * Reads the original tweet from {@code retweeted_status_result.result}.
+     */
+    private void readRetweeted(JsonParser p, TweetFields f) throws IOException {
+        if (p.currentToken() != JsonToken.START_OBJECT) {
+            p.skipChildren();
+            return;
+        }
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String name = p.currentName();
+            JsonToken value = p.nextToken();
+            if ("result".equals(name) && value == JsonToken.START_OBJECT) {
+                f.retweeted = new TweetFields();
+                readResult(p, f.retweeted);
+            } else {
+                p.skipChildren();
+            }
+        }
+    }
+
+    /**
+     * Long posts carry their untruncated text in {@code note_tweet.note_tweet_results.result.text}.
+     */
+    private void readNoteTweet(JsonParser p, TweetFields f) throws IOException {
+        if (!p.currentToken().isStructStart()) {
+            return;
+        }
+        int depth = 1;
+        while (depth > 0) {
+            JsonToken token = p.nextToken();
+            if (token.isStructStart()) {
+                depth++;
+            } else if (token.isStructEnd()) {
+                depth--;
+            } else if (token == JsonToken.FIELD_NAME && "text".equals(p.currentName())) {
+                if (p.nextToken() == JsonToken.VALUE_STRING && f.noteText == null) {
+                    f.noteText = p.getText();
+                } else {
+                    p.skipChildren();
+                }
+            }
+        }
+    }
+
+    static OffsetDateTime parseCreatedAt(String createdAt, String tweetId) {
+        if (createdAt == null) {
+            return TweetParsing.snowflakeTime(tweetId);
+        }
+        try {
+            return OffsetDateTime.parse(createdAt, CREATED_AT_FORMAT);
+        } catch (DateTimeParseException e) {
+            return TweetParsing.snowflakeTime(tweetId);
+        }
+    }
+
+    static String unescapeHtml(String text) {
+        if (text.indexOf('&') < 0) {
+            return text;
+        }
+        return text.replace("&lt;", "<").replace("&gt;", ">").replace("&amp;", "&");
+    }
+
+    private static final class TweetFields {
+        String restId;
+        String idStr;
+        String fullText;
+        String noteText;
+        String createdAt;
+        String lang;
+        String userName;
+        String screenName;
+        long likeCount;
+        long retweetCount;
+        long replyCount;
+        TweetFields retweeted;
+
+        Tweet toTweet() {
+            if (retweeted != null) {
+                Tweet original = retweeted.toTweet();
+                if (original != null) {
+                    return original;
+                }
+            }
+            String tweetId = idStr != null ? idStr : restId;
+            if (tweetId == null || (fullText == null && noteText == null)) {
+                // Tombstones, unavailable tweets, etc.
+                return null;
+            }
+            String text = unescapeHtml(noteText != null ? noteText : fullText);
+            String handle = screenName != null ? screenName : "i";
+            String author = userName != null
+                    ? (screenName != null ? userName + " @" + screenName : userName)
+                    : (screenName != null ? "@" + screenName : "Unknown");
+            return new Tweet(
+                    tweetId,
+                    author,
+                    text,
+                    parseCreatedAt(createdAt, tweetId),
+                    likeCount,
+                    retweetCount,
+                    replyCount,
+                    "https://x.com/" + handle + "/status/" + tweetId,
+                    isUndetermined(lang) ? LanguageDetector.detect(text) : lang);
+        }
+
+        /**
+         * X reports "und" when it could not tell, "zxx" for no linguistic content and q-codes
+         * ("qme", "qht", "qam", ...) for media/hashtag/mention-only tweets.
+         */
+        private static boolean isUndetermined(String lang) {
+            return lang == null || lang.isEmpty() || lang.equals("und") || lang.equals("zxx")
+                    || (lang.length() == 3 && lang.charAt(0) == 'q');
+        }
+    }
+}
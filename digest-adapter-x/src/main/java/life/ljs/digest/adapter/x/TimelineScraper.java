@@ -0,0 +1,207 @@
+package life.ljs.digest.adapter.x;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microsoft.playwright.Page;
+import com.microsoft.playwright.TimeoutError;
+import life.ljs.digest.domain.model.Tweet;
+import life.ljs.digest.domain.model.TweetId;
+import life.ljs.digest.domain.model.TweetIdSet;
+import life.ljs.digest.domain.port.TweetBatchSink;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Opens one timeline page and scrolls it, pushing new tweets to a sink per scroll.
+ * <p>
+ * Stateless apart from configuration, so one instance serves every source and
+ * thread; each call only touches the page it is given. Shared by the live and the
+ * replay adapter so both scroll with the same settings.
+ */
+@Component
+@Profile({"playwright", "replay"})
+public class TimelineScraper {
+
+    private static final Logger log = LoggerFactory.getLogger(TimelineScraper.class);
+
+    private final int timeoutMs;
+    private final int maxScrolls;
+    private final TweetExtractor extractor;
+    private final boolean graphQlMode;
+    private final TimelineJsonParser timelineJsonParser = new TimelineJsonParser();
+    private final ScrollWaiter scrollWaiter;
+    private final int rateWindow;
+    private final double minNewPerScroll;
+    private final int watermarkOvershoot;
+
+    public TimelineScraper(
+            @Value("${twitter.playwright.timeout:30000}") int timeoutMs,
+            @Value("${twitter.playwright.max-scrolls:10}") int maxScrolls,
+            @Value("${twitter.playwright.extraction:evaluate}") String extraction,
+            @Value("${twitter.playwright.fetch-mode:dom}") String fetchMode,
+            @Value("${twitter.playwright.scroll.distance:2000}") int scrollDistance,
+            @Value("${twitter.playwright.scroll.max-wait-ms:3000}") int scrollMaxWaitMs,
+            @Value("${twitter.playwright.scroll.settle-ms:200}") int scrollSettleMs,
+            @Value("${twitter.playwright.scroll.rate-window:3}") int rateWindow,
+            @Value("${twitter.playwright.scroll.min-new-per-scroll:1}") double minNewPerScroll,
+            @Value("${twitter.playwright.watermark-overshoot:3}") int watermarkOvershoot,
+            ObjectMapper objectMapper) {
+        this.timeoutMs = timeoutMs;
+        this.maxScrolls = maxScrolls;
+        this.extractor = "element".equalsIgnoreCase(extraction)
+                ? new ElementHandleTweetExtractor()
+                : new EvaluateTweetExtractor(objectMapper);
+        this.graphQlMode = "graphql".equalsIgnoreCase(fetchMode);
+        this.scrollWaiter = new ScrollWaiter(scrollDistance, scrollMaxWaitMs, scrollSettleMs);
+        this.rateWindow = rateWindow;
+        this.minNewPerScroll = minNewPerScroll;
+        this.watermarkOvershoot = watermarkOvershoot;
+        log.info("Using {} fetch mode with '{}' tweet extraction", graphQlMode ? "graphql" : "dom", extractor.name());
+    }
+
+    public TweetExtractor getExtractor() {
+        return extractor;
+    }
+
+    public boolean isGraphQlMode() {
+        return graphQlMode;
+    }
+
+    /**
+     * Navigates {@code page} to {@code url} and scrolls until a stop rule fires.
+     *
+     * @return per-scroll metrics, or {@code null} if the timeline never rendered
+     */
+    public ScrollMetrics scrape(Page page, String name, String url, String lastSeenTweetId, TweetBatchSink sink) {
+        page.setDefaultTimeout(timeoutMs);
+
+        GraphQlTimelineCapture capture = null;
+        if (graphQlMode) {
+            capture = new GraphQlTimelineCapture(timelineJsonParser);
+            capture.attach(page);
+        }
+
+        log.info("[{}] Navigating to {}...", name, url);
+        page.navigate(url);
+
+        // Wait for timeline to load (look for a tweet article)
+        try {
+            page.waitForSelector(TweetExtractor.ARTICLE_SELECTOR,
+                    new Page.WaitForSelectorOptions().setTimeout(timeoutMs));
+        } catch (TimeoutError e) {
+            log.error("[{}] Timeout waiting for timeline to load. Check login status or network.", name);
+            // Maybe take screenshot?
+            return null;
+        }
+
+        // Ensure "For You" is selected (usually default, but good to check if possible,
+        // skipping for simplicity now)
+
+        // Tweets at or below the watermark were already handed out by a previous run
+        TweetId watermark = TweetId.tryParse(lastSeenTweetId);
+        TweetIdSet seenBeforeIds = new TweetIdSet();
+
+        scrollWaiter.install(page);
+        ScrollMetrics metrics = new ScrollMetrics();
+        TweetIdSet emittedIds = new TweetIdSet(maxScrolls * 32);
+        Set<String> emittedNonNumericIds = new HashSet<>();
+        for (int i = 0; i < maxScrolls; i++) {
+            long extractStart = System.nanoTime();
+            List<Tweet> batch = scrapeBatch(page, capture);
+            metrics.recordExtraction(System.nanoTime() - extractStart);
+            List<Tweet> fresh = new ArrayList<>();
+            List<Tweet> observed = new ArrayList<>();
+            for (Tweet tweet : batch) {
+                TweetId id = tweet.getId();
+                if (id == null) {
+                    if (emittedNonNumericIds.add(tweet.getTweetId())) {
+                        fresh.add(tweet);
+                    }
+                } else if (watermark != null && !id.isNewerThan(watermark)) {
+                    // Not handed out again, but their current counts feed the engagement history
+                    if (seenBeforeIds.add(id)) {
+                        observed.add(tweet);
+                    }
+                } else if (emittedIds.add(id)) {
+                    fresh.add(tweet);
+                } else {
+                    // Re-sighting after a scroll: same tweet, possibly newer counts
+                    observed.add(tweet);
+                }
+            }
+            metrics.recordDiscovery(fresh.size());
+
+            log.debug("[{}] Scroll {}: Found {} tweets (Total unique: {}, at or below watermark: {})",
+                    name, i + 1, batch.size(), emittedIds.size() + emittedNonNumericIds.size(),
+                    seenBeforeIds.size());
+
+            boolean stop = i == maxScrolls - 1;
+            double discoveryRate = metrics.recentDiscoveryRate(rateWindow);
+            if (seenBeforeIds.size() > watermarkOvershoot) {
+                // The timeline has scrolled past what the previous run already covered
+                log.debug("[{}] Passed lastSeenTweetId {} by {} tweets, stopping scroll.",
+                        name, lastSeenTweetId, seenBeforeIds.size());
+                stop = true;
+            } else if (discoveryRate >= 0 && discoveryRate < minNewPerScroll) {
+                // Stop once the last scrolls stopped turning up enough new tweets
+                log.debug("[{}] Only {} new tweets per scroll over the last {} scrolls, stopping scroll.",
+                        name, discoveryRate, rateWindow);
+                stop = true;
+            }
+
+            // Kick off the next scroll first so the consumer's work overlaps with the browser loading
+            Object seenArticles = stop ? null : scrollWaiter.scroll(page);
+            if (!fresh.isEmpty()) {
+                sink.accept(fresh);
+            }
+            if (!observed.isEmpty()) {
+                sink.observe(observed);
+            }
+            if (stop) {
+                break;
+            }
+            if (sink.isCancelled()) {
+                log.info("[{}] Fetch cancelled by consumer after {} scrolls", name, i + 1);
+                break;
+            }
+
+            long waitStart = System.nanoTime();
+            boolean loaded = scrollWaiter.awaitNewArticles(page, seenArticles);
+            metrics.recordWait((System.nanoTime() - waitStart) / 1_000_000, !loaded);
+        }
+
+        log.info("[{}] Scroll metrics: {}", name, metrics);
+        if (!seenBeforeIds.isEmpty()) {
+            log.info("[{}] Dropped {} tweets at or below lastSeenTweetId {}", name, seenBeforeIds.size(),
+                    lastSeenTweetId);
+        }
+        if (capture != null) {
+            log.info("[{}] Captured {} timeline responses ({} bytes)",
+                    name, capture.getResponseCount(), capture.getPayloadBytes());
+            capture.detach();
+        }
+        return metrics;
+    }
+
+    /**
+     * In graphql mode, tweets come from the intercepted timeline responses; the DOM
+     * extractor is only used while no such response has been captured.
+     */
+    private List<Tweet> scrapeBatch(Page page, GraphQlTimelineCapture capture) {
+        if (capture != null) {
+            List<Tweet> batch = capture.drain();
+            if (capture.getResponseCount() > 0) {
+                return batch;
+            }
+            log.debug("No timeline GraphQL response captured yet, falling back to DOM extraction");
+        }
+        return extractor.extract(page);
+    }
+}
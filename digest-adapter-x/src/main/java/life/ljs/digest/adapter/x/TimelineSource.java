@@ -0,0 +1,48 @@
+package life.ljs.digest.adapter.x;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One timeline to scrape: the home timeline, an X List, ... optionally with its own
+ * cookie identity.
+ *
+ * @param name        label used in logs and metrics
+ * @param url         timeline page to open
+ * @param cookiesPath cookies.json of the account to use
+ */
+public record TimelineSource(String name, String url, String cookiesPath) {
+
+    public static final String HOME_URL = "https://x.com/home";
+
+    /**
+     * Parses {@code twitter.playwright.sources}: entries separated by {@code ;}, each
+     * {@code name|url} or {@code name|url|cookies-path}. A bare X List ID is expanded
+     * to its URL. An empty spec means the home timeline only.
+     */
+    public static List<TimelineSource> parseAll(String spec, String defaultCookiesPath) {
+        List<TimelineSource> sources = new ArrayList<>();
+        if (spec != null) {
+            for (String entry : spec.split(";")) {
+                if (entry.isBlank()) {
+                    continue;
+                }
+                String[] parts = entry.trim().split("\\|");
+                if (parts.length < 2) {
+                    throw new IllegalArgumentException("Invalid timeline source '" + entry
+                            + "', expected name|url or name|url|cookies-path");
+                }
+                String url = parts[1].trim();
+                if (url.chars().allMatch(Character::isDigit)) {
+                    url = "https://x.com/i/lists/" + url;
+                }
+                String cookies = parts.length > 2 && !parts[2].isBlank() ? parts[2].trim() : defaultCookiesPath;
+                sources.add(new TimelineSource(parts[0].trim(), url, cookies));
+            }
+        }
+        if (sources.isEmpty()) {
+            sources.add(new TimelineSource("home", HOME_URL, defaultCookiesPath));
+        }
+        return sources;
+    }
+}
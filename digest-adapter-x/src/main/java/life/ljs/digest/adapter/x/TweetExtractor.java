@@ -0,0 +1,21 @@
+package life.ljs.digest.adapter.x;
+
+import com.microsoft.playwright.Page;
+import life.ljs.digest.domain.model.Tweet;
+
+import java.util.List;
+
+/**
+ * Turns the tweet articles currently rendered on a timeline page into {@link Tweet}s.
+ */
+public interface TweetExtractor {
+
+    String ARTICLE_SELECTOR = "article[data-testid='tweet']";
+
+    /**
+     * Name used by the {@code twitter.playwright.extraction} property and in benchmarks.
+     */
+    String name();
+
+    List<Tweet> extract(Page page);
+}
@@ -0,0 +1,146 @@
+package life.ljs.digest.adapter.x;
+
+import life.ljs.digest.domain.model.LanguageDetector;
+import life.ljs.digest.domain.model.Tweet;
+import life.ljs.digest.domain.model.TweetId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+/**
+ * Parsing rules shared by every {@link TweetExtractor}, so all strategies turn the
+ * same DOM into identical {@link Tweet}s.
+ */
+final class TweetParsing {
+
+    private static final Logger log = LoggerFactory.getLogger(TweetParsing.class);
+
+    private TweetParsing() {
+    }
+
+    static Tweet toTweet(String tweetId, String href, String authorName, String text, OffsetDateTime createdAt,
+                         long likeCount, long retweetCount, long replyCount) {
+        // The DOM carries no language, detect it locally; null when the text is too short to tell
+        String lang = LanguageDetector.detect(text);
+        if (createdAt == null) {
+            createdAt = snowflakeTime(tweetId);
+        }
+
+        return new Tweet(
+                tweetId,
+                authorName,
+                text,
+                createdAt,
+                likeCount,
+                retweetCount,
+                replyCount,
+                "https://x.com" + href,
+                lang);
+    }
+
+    static String extractTweetId(String href) {
+        // href example: /user/status/123456
+        if (href == null)
+            return null;
+        int idx = href.indexOf("/status/");
+        if (idx >= 0) {
+            String sub = href.substring(idx + 8);
+            int end = sub.indexOf("/"); // Remove potential trailing params or routes
+            if (end > 0)
+                return sub.substring(0, end);
+            return sub;
+        }
+        return null;
+    }
+
+    /**
+     * Creation time embedded in the snowflake ID, or now for non-snowflake IDs.
+     */
+    static OffsetDateTime snowflakeTime(String tweetId) {
+        TweetId id = TweetId.tryParse(tweetId);
+        OffsetDateTime createdAt = id != null ? id.createdAt() : null;
+        return createdAt != null ? createdAt : OffsetDateTime.now();
+    }
+
+    /**
+     * @return the parsed time, or {@code null} so {@link #toTweet} falls back to the ID's timestamp
+     */
+    static OffsetDateTime parseTime(String timeStr) {
+        if (timeStr == null) {
+            return null;
+        }
+        try {
+            return OffsetDateTime.parse(timeStr);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Picks an engagement count the same way for every strategy: the button's
+     * aria-label first, then the button's span text, then any action group whose
+     * aria-label mentions the stat type.
+     */
+    static long resolveStat(String type, String buttonAriaLabel, String buttonSpanText, List<String> groupAriaLabels) {
+        if (buttonAriaLabel != null) {
+            log.trace("Found {} aria-label: {}", type, buttonAriaLabel);
+            // aria-label format: "123 Likes", "45 Retweets", "67 Replies"
+            long count = parseCount(firstWord(buttonAriaLabel));
+            if (count > 0) {
+                return count;
+            }
+        }
+        if (buttonSpanText != null && !buttonSpanText.isEmpty()) {
+            log.trace("Found {} span text: {}", type, buttonSpanText);
+            long count = parseCount(buttonSpanText.trim());
+            if (count > 0) {
+                return count;
+            }
+        }
+        if (groupAriaLabels != null) {
+            for (String ariaLabel : groupAriaLabels) {
+                if (ariaLabel != null && ariaLabel.toLowerCase().contains(type)) {
+                    log.trace("Found {} in group aria-label: {}", type, ariaLabel);
+                    long count = parseCount(firstWord(ariaLabel));
+                    if (count > 0) {
+                        return count;
+                    }
+                }
+            }
+        }
+        return 0;
+    }
+
+    private static String firstWord(String label) {
+        String[] parts = label.split(" ");
+        return parts.length > 0 ? parts[0] : null;
+    }
+
+    static long parseCount(String str) {
+        if (str == null || str.isEmpty()) {
+            return 0;
+        }
+
+        try {
+            // Remove commas and spaces
+            str = str.replace(",", "").replace(" ", "").trim();
+
+            // Handle K, M suffixes
+            if (str.endsWith("K") || str.endsWith("k")) {
+                return (long) (Double.parseDouble(str.substring(0, str.length() - 1)) * 1000);
+            }
+            if (str.endsWith("M") || str.endsWith("m")) {
+                return (long) (Double.parseDouble(str.substring(0, str.length() - 1)) * 1000000);
+            }
+
+            // Try to parse as long
+            return Long.parseLong(str);
+        } catch (NumberFormatException e) {
+            log.trace("Failed to parse count from: {}", str);
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package life.ljs.digest.adapter.x;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microsoft.playwright.Browser;
+import com.microsoft.playwright.BrowserContext;
+import com.microsoft.playwright.BrowserType;
+import com.microsoft.playwright.Page;
+import com.microsoft.playwright.Playwright;
+import com.microsoft.playwright.Route;
+import life.ljs.digest.domain.model.Tweet;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Compares the {@link TweetExtractor} strategies on saved timeline HTML, fully offline.
+ * <p>
+ * Save fixtures from a logged-in timeline (e.g. {@code page.content()} after a few
+ * scrolls) and run:
+ * <pre>
+ * mvn -q -pl digest-adapter-x -am install -DskipTests
+ * mvn -q -pl digest-adapter-x test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp "digest-adapter-x/target/test-classes:digest-adapter-x/target/classes:$(cat digest-adapter-x/target/cp.txt)" \
+ *      life.ljs.digest.adapter.x.ExtractionBenchmark &lt;fixture.html|dir&gt;... [--iterations=N]
+ * </pre>
+ * Page scripts and all network requests are disabled, so only extraction is measured.
+ * Every strategy's output is checked against the per-element baseline.
+ */
+public class ExtractionBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        int iterations = 20;
+        List<Path> fixtures = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith("--iterations=")) {
+                iterations = Integer.parseInt(arg.substring("--iterations=".length()));
+            } else {
+                fixtures.addAll(listFixtures(Path.of(arg)));
+            }
+        }
+        if (fixtures.isEmpty()) {
+            System.err.println("Usage: ExtractionBenchmark <fixture.html|dir>... [--iterations=N]");
+            System.exit(1);
+        }
+
+        List<TweetExtractor> extractors = List.of(
+                new ElementHandleTweetExtractor(),
+                new EvaluateTweetExtractor(new ObjectMapper()));
+
+        try (Playwright playwright = Playwright
+                .create(new Playwright.CreateOptions().setEnv(Map.of("PLAYWRIGHT_SKIP_BROWSER_DOWNLOAD", "1")))) {
+            Browser browser = playwright.chromium().launch(new BrowserType.LaunchOptions().setHeadless(true));
+            BrowserContext context = browser.newContext(new Browser.NewContextOptions().setJavaScriptEnabled(false));
+            context.route("**/*", Route::abort);
+            Page page = context.newPage();
+
+            long[] totalNanos = new long[extractors.size()];
+            long[] totalTweets = new long[extractors.size()];
+            for (Path fixture : fixtures) {
+                page.setContent(Files.readString(fixture));
+
+                List<Tweet> baseline = extractors.get(0).extract(page);
+                for (int e = 0; e < extractors.size(); e++) {
+                    TweetExtractor extractor = extractors.get(e);
+                    List<Tweet> result = extractor.extract(page); // warm-up + correctness check
+                    if (!sameTweets(baseline, result)) {
+                        System.out.printf("MISMATCH %s on %s%n", extractor.name(), fixture);
+                    }
+                    long start = System.nanoTime();
+                    for (int i = 0; i < iterations; i++) {
+                        totalTweets[e] += extractor.extract(page).size();
+                    }
+                    totalNanos[e] += System.nanoTime() - start;
+                }
+            }
+
+            int pages = fixtures.size() * iterations;
+            System.out.printf("%d fixtures x %d iterations%n", fixtures.size(), iterations);
+            for (int e = 0; e < extractors.size(); e++) {
+                double ms = totalNanos[e] / 1e6;
+                System.out.printf("%-10s %8.2f ms/page %10.0f tweets/s%n",
+                        extractors.get(e).name(), ms / pages, totalTweets[e] / (ms / 1000));
+            }
+        }
+    }
+
+    private static List<Path> listFixtures(Path path) throws IOException {
+        if (!Files.isDirectory(path)) {
+            return List.of(path);
+        }
+        try (Stream<Path> files = Files.list(path)) {
+            return files.filter(p -> p.toString().endsWith(".html")).sorted().toList();
+        }
+    }
+
+    private static boolean sameTweets(List<Tweet> expected, List<Tweet> actual) {
+        if (expected.size() != actual.size()) {
+            return false;
+        }
+        for (int i = 0; i < expected.size(); i++) {
+            Tweet a = expected.get(i);
+            Tweet b = actual.get(i);
+            boolean same = Objects.equals(a.getTweetId(), b.getTweetId())
+                    && Objects.equals(a.getAuthor(), b.getAuthor())
+                    && Objects.equals(a.getText(), b.getText())
+                    && Objects.equals(a.getUrl(), b.getUrl())
+                    && Objects.equals(a.getLanguage(), b.getLanguage())
+                    && a.getLikeCount() == b.getLikeCount()
+                    && a.getRetweetCount() == b.getRetweetCount()
+                    && a.getReplyCount() == b.getReplyCount();
+            if (!same) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,166 @@
+package life.ljs.digest.adapter.x;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microsoft.playwright.Browser;
+import com.microsoft.playwright.BrowserContext;
+import com.microsoft.playwright.BrowserType;
+import com.microsoft.playwright.Page;
+import com.microsoft.playwright.Playwright;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * End-to-end scraper throughput on recorded timelines, fully offline.
+ * <p>
+ * With {@code --har}, each strategy (per-element DOM, single-evaluate DOM, GraphQL
+ * capture) scrolls the replayed timeline through {@link TimelineScraper}, and the
+ * report shows tweets/s plus per-scroll extraction and wait latency. With
+ * {@code --graphql}, saved timeline GraphQL responses are run through
+ * {@link TimelineJsonParser} alone.
+ * <pre>
+ * mvn -q -pl digest-adapter-x -am install -DskipTests
+ * mvn -q -pl digest-adapter-x test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp "digest-adapter-x/target/test-classes:digest-adapter-x/target/classes:$(cat digest-adapter-x/target/cp.txt)" \
+ *      life.ljs.digest.adapter.x.ReplayBenchmark --har=timeline.har [--runs=N] [--speed=X]
+ *      [--url=https://x.com/home] [--max-scrolls=N] [--graphql=&lt;response.json|dir&gt;]
+ * </pre>
+ * {@code --speed=0} (default) serves responses immediately; {@code 1} replays the recorded
+ * timings, {@code 10} ten times faster.
+ */
+public class ReplayBenchmark {
+
+    private static final String[][] STRATEGIES = {
+            {"element", "dom"},
+            {"evaluate", "dom"},
+            {"evaluate", "graphql"},
+    };
+
+    public static void main(String[] args) throws IOException {
+        Path har = null;
+        List<Path> graphQlFiles = new ArrayList<>();
+        int runs = 3;
+        double speed = 0;
+        int maxScrolls = 10;
+        String url = "https://x.com/home";
+        for (String arg : args) {
+            if (arg.startsWith("--har=")) {
+                har = Path.of(arg.substring("--har=".length()));
+            } else if (arg.startsWith("--graphql=")) {
+                graphQlFiles.addAll(listJson(Path.of(arg.substring("--graphql=".length()))));
+            } else if (arg.startsWith("--runs=")) {
+                runs = Integer.parseInt(arg.substring("--runs=".length()));
+            } else if (arg.startsWith("--speed=")) {
+                speed = Double.parseDouble(arg.substring("--speed=".length()));
+            } else if (arg.startsWith("--max-scrolls=")) {
+                maxScrolls = Integer.parseInt(arg.substring("--max-scrolls=".length()));
+            } else if (arg.startsWith("--url=")) {
+                url = arg.substring("--url=".length());
+            }
+        }
+        if (har == null && graphQlFiles.isEmpty()) {
+            System.err.println("Usage: ReplayBenchmark --har=<file.har> | --graphql=<response.json|dir> "
+                    + "[--runs=N] [--speed=X] [--max-scrolls=N] [--url=URL]");
+            System.exit(1);
+        }
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        if (har != null) {
+            benchmarkReplay(har, url, speed, maxScrolls, runs, objectMapper);
+        }
+        if (!graphQlFiles.isEmpty()) {
+            benchmarkJsonParser(graphQlFiles, runs);
+        }
+    }
+
+    private static void benchmarkReplay(Path har, String url, double speed, int maxScrolls, int runs,
+                                        ObjectMapper objectMapper) throws IOException {
+        HarReplayRouter router = new HarReplayRouter(har, speed, objectMapper);
+        System.out.printf("Replaying %s, %d runs per strategy, speed %s%n", har, runs,
+                speed > 0 ? speed + "x" : "unthrottled");
+        try (Playwright playwright = Playwright
+                .create(new Playwright.CreateOptions().setEnv(Map.of("PLAYWRIGHT_SKIP_BROWSER_DOWNLOAD", "1")))) {
+            Browser browser = playwright.chromium().launch(new BrowserType.LaunchOptions().setHeadless(true));
+            for (String[] strategy : STRATEGIES) {
+                // Rate-based stop disabled so every strategy scrolls the same distance
+                TimelineScraper scraper = new TimelineScraper(30_000, maxScrolls, strategy[0], strategy[1],
+                        2000, 3000, 200, maxScrolls, 0, Integer.MAX_VALUE, objectMapper);
+                AtomicLong tweets = new AtomicLong();
+                List<Long> extractNanos = new ArrayList<>();
+                List<Long> waitMillis = new ArrayList<>();
+                long wallNanos = 0;
+                for (int run = 0; run < runs; run++) {
+                    router.reset();
+                    BrowserContext context = browser.newContext();
+                    router.install(context);
+                    Page page = context.newPage();
+                    long start = System.nanoTime();
+                    ScrollMetrics metrics = scraper.scrape(page, "bench", url, null,
+                            batch -> tweets.addAndGet(batch.size()));
+                    wallNanos += System.nanoTime() - start;
+                    context.close();
+                    if (metrics == null) {
+                        System.out.printf("%s/%s: timeline did not render in run %d%n", strategy[0], strategy[1],
+                                run + 1);
+                        continue;
+                    }
+                    extractNanos.addAll(metrics.getExtractNanos());
+                    waitMillis.addAll(metrics.getWaitMillis());
+                }
+                double wallMs = wallNanos / 1e6;
+                System.out.printf("%-8s %-8s %8.0f tweets/s  %4d scrolls  extract p50=%6.2fms p95=%6.2fms"
+                                + "  wait p50=%5dms p95=%5dms%n",
+                        strategy[0], strategy[1], tweets.get() / (wallMs / 1000), extractNanos.size(),
+                        percentile(extractNanos, 50) / 1e6, percentile(extractNanos, 95) / 1e6,
+                        percentile(waitMillis, 50), percentile(waitMillis, 95));
+            }
+        }
+    }
+
+    private static void benchmarkJsonParser(List<Path> files, int runs) throws IOException {
+        TimelineJsonParser parser = new TimelineJsonParser();
+        List<byte[]> bodies = new ArrayList<>();
+        for (Path file : files) {
+            bodies.add(Files.readAllBytes(file));
+        }
+        for (byte[] body : bodies) {
+            parser.parse(body); // warm-up
+        }
+        long bytes = 0;
+        long tweets = 0;
+        long start = System.nanoTime();
+        for (int run = 0; run < runs; run++) {
+            for (byte[] body : bodies) {
+                tweets += parser.parse(body).size();
+                bytes += body.length;
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("graphql-json %d responses x %d runs: %.0f tweets/s, %.1f MB/s%n",
+                bodies.size(), runs, tweets / seconds, bytes / seconds / (1024 * 1024));
+    }
+
+    private static long percentile(List<Long> values, int percentile) {
+        if (values.isEmpty()) {
+            return 0;
+        }
+        List<Long> sorted = values.stream().sorted().toList();
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.size()) - 1;
+        return sorted.get(Math.max(0, Math.min(index, sorted.size() - 1)));
+    }
+
+    private static List<Path> listJson(Path path) throws IOException {
+        if (!Files.isDirectory(path)) {
+            return List.of(path);
+        }
+        try (Stream<Path> files = Files.list(path)) {
+            return files.filter(p -> p.toString().endsWith(".json")).sorted().toList();
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package life.ljs.digest.app.adapter.fake;
 
+import life.ljs.digest.domain.model.KeywordMatcher;
 import life.ljs.digest.domain.model.TopicCluster;
 import life.ljs.digest.domain.model.Tweet;
 import life.ljs.digest.domain.port.LlmPort;
@@ -13,6 +14,17 @@ import java.util.List;
 @Profile("fake")
 public class FakeLlmAdapter implements LlmPort {
 
+    private static final int TOPIC_AI = 0;
+    private static final int TOPIC_BUSINESS = 1;
+    private static final int TOPIC_CRYPTO = 2;
+    private static final int TOPIC_TUTORIAL = 3;
+    private static final KeywordMatcher TOPICS = KeywordMatcher.builder()
+            .addAll(List.of("ai", "llm", "gpt", "gemini", "claude", "模型", "prompt", "提示词"), TOPIC_AI)
+            .addAll(List.of("创业", "增长", "粉丝", "business", "startup", "growth", "用户"), TOPIC_BUSINESS)
+            .addAll(List.of("crypto", "eth", "btc", "rollup", "l2", "defi", "web3"), TOPIC_CRYPTO)
+            .addAll(List.of("教程", "tutorial", "如何", "how to", "指南", "guide"), TOPIC_TUTORIAL)
+            .build();
+
     @Override
     public String summarizeTweet(Tweet tweet) {
         String text = tweet.getText();
@@ -38,15 +50,17 @@ public class FakeLlmAdapter implements LlmPort {
         List<Tweet> other = new ArrayList<>();
 
         for (Tweet t : tweets) {
-            String lower = t.getText().toLowerCase();
+            // 取命中的编号最小的主题，与依次判断的优先级一致
+            long topics = TOPICS.matchedGroups(t.getText());
+            int topic = topics == 0 ? -1 : Long.numberOfTrailingZeros(topics);
 
-            if (containsAny(lower, "ai", "llm", "gpt", "gemini", "claude", "模型", "prompt", "提示词")) {
+            if (topic == TOPIC_AI) {
                 aiTech.add(t);
-            } else if (containsAny(lower, "创业", "增长", "粉丝", "business", "startup", "growth", "用户")) {
+            } else if (topic == TOPIC_BUSINESS) {
                 businessGrowth.add(t);
-            } else if (containsAny(lower, "crypto", "eth", "btc", "rollup", "l2", "defi", "web3")) {
+            } else if (topic == TOPIC_CRYPTO) {
                 crypto.add(t);
-            } else if (containsAny(lower, "教程", "tutorial", "如何", "how to", "指南", "guide")) {
+            } else if (topic == TOPIC_TUTORIAL) {
                 tutorial.add(t);
             } else {
                 other.add(t);
@@ -121,15 +135,6 @@ public class FakeLlmAdapter implements LlmPort {
         return sb.toString();
     }
 
-    private boolean containsAny(String text, String... keywords) {
-        for (String keyword : keywords) {
-            if (text.contains(keyword)) {
-                return true;
-            }
-        }
-        return false;
-    }
-
     private String stripEmoji(String text) {
         return text.replaceAll("[\\p{So}\\p{Sk}]", "").trim();
     }
@@ -1,6 +1,7 @@
 package life.ljs.digest.app.adapter.fake;
 
 import life.ljs.digest.domain.model.Tweet;
+import life.ljs.digest.domain.model.TweetId;
 import life.ljs.digest.domain.port.TimelinePort;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
@@ -8,7 +9,6 @@ import org.springframework.stereotype.Component;
 import java.time.OffsetDateTime;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.UUID;
 
 @Component
 @Profile("fake")
@@ -16,35 +16,43 @@ public class FakeTimelineAdapter implements TimelinePort {
     @Override
     public List<Tweet> fetchLatestTweets(String lastSeenTweetId) {
         List<Tweet> tweets = new ArrayList<>();
+        OffsetDateTime now = OffsetDateTime.now();
 
         tweets.add(new Tweet(
-                UUID.randomUUID().toString(),
+                fakeId(now.minusMinutes(5), 1),
                 "vitalik",
                 "Soma thoughts on rollup decentralization and L2 security",
-                OffsetDateTime.now().minusMinutes(5),
+                now.minusMinutes(5),
                 1200, 300, 210,
                 "https://x.com/vitalik/status/xxx1",
                 "en"
         ));
 
         tweets.add(new Tweet(
-                UUID.randomUUID().toString(),
+                fakeId(now.minusMinutes(10), 2),
                "ai_researcher",
                "New paper: Efficient long-context transformers with sparse routing.",
-               OffsetDateTime.now().minusMinutes(10),
+               now.minusMinutes(10),
                800, 150, 90,
                "https://x.com/ai_researcher/status/xxx2",
                "en"
         ));
         tweets.add(new Tweet(
-                UUID.randomUUID().toString(),
+                fakeId(now.minusMinutes(1), 3),
                 "random_shiller",
                 "BUY NOW!!! 1000x gem, limited offer, insane discount!!!",
-                OffsetDateTime.now().minusMinutes(1),
+                now.minusMinutes(1),
                 2, 1, 0,
                 "https://x.com/shiller/status/xxx3",
                 "en"
         ));
         return tweets;
     }
+
+    /**
+     * 与发布时间一致的snowflake ID，保证lastSeenTweetId按数值比较时有意义
+     */
+    private static String fakeId(OffsetDateTime createdAt, int sequence) {
+        return TweetId.fromTimestamp(createdAt.toInstant().toEpochMilli(), sequence).toString();
+    }
 }
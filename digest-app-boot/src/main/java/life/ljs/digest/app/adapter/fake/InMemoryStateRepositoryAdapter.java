@@ -1,19 +1,28 @@
 package life.ljs.digest.app.adapter.fake;
 
 import life.ljs.digest.domain.port.StateRepositoryPort;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 @Component
+@Profile("fake")
 public class InMemoryStateRepositoryAdapter implements StateRepositoryPort {
-    private String lastSeenTwitterId;
+    private final Map<String, String> state = new ConcurrentHashMap<>();
 
     @Override
-    public String loadLastSeenTweetId() {
-        return lastSeenTwitterId;
+    public String load(String key) {
+        return state.get(key);
     }
 
     @Override
-    public void saveLastSeenTweetId(String tweetId) {
-        this.lastSeenTwitterId = tweetId;
+    public void save(String key, String value) {
+        if (value == null) {
+            state.remove(key);
+        } else {
+            state.put(key, value);
+        }
     }
 }
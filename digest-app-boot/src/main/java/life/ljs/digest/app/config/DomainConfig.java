@@ -1,16 +1,28 @@
 package life.ljs.digest.app.config;
 
 import life.ljs.digest.domain.policy.*;
+import life.ljs.digest.domain.port.EngagementHistoryPort;
 import life.ljs.digest.domain.port.LlmPort;
+import life.ljs.digest.domain.port.NearDuplicateIndexPort;
+import life.ljs.digest.domain.port.PreferenceRepositoryPort;
+import life.ljs.digest.domain.port.SeenTweetFilterPort;
 import life.ljs.digest.domain.port.StateRepositoryPort;
 import life.ljs.digest.domain.port.TimelinePort;
+import life.ljs.digest.domain.port.TweetStorePort;
 import life.ljs.digest.domain.service.DigestBuildService;
 import life.ljs.digest.domain.service.FetchTweetService;
 import life.ljs.digest.domain.service.FilterService;
+import life.ljs.digest.domain.service.NearDuplicateService;
 import life.ljs.digest.domain.service.RankingService;
+import life.ljs.digest.domain.service.SeenTweetService;
+import life.ljs.digest.infra.persistence.CachingLlmPort;
+import life.ljs.digest.infra.persistence.LlmSummaryCache;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
 import java.util.List;
 
 
@@ -19,37 +31,86 @@ public class DomainConfig {
     // ===== Policy 层Bean ======
 
     @Bean
-    public EngagementScorePolicy engagementScorePolicy() {
+    public EngagementScorePolicy engagementScorePolicy(
+            ObjectProvider<EngagementHistoryPort> engagementHistoryPort,
+            @Value("${digest.ranking.score-policy:velocity}") String scorePolicy,
+            @Value("${digest.ranking.half-life-hours:6}") double halfLifeHours,
+            @Value("${digest.ranking.min-interval-minutes:30}") long minIntervalMinutes) {
+        // fake profile下没有互动量历史，按绝对互动量排序
+        EngagementHistoryPort history = engagementHistoryPort.getIfAvailable();
+        if ("velocity".equals(scorePolicy) && history != null) {
+            return new VelocityEngagementScorePolicy(history, halfLifeHours, minIntervalMinutes);
+        }
         return new DefaultEngagementScorePolicy();
     }
 
     @Bean
-    public SpamDetectPolicy spamDetectPolicy() {
-        return new SimpleSpamDetectPolicy();
+    public SpamDetectPolicy spamDetectPolicy(
+            @Value("${digest.spam.tag-ratio:0.6}") double tagRatio,
+            @Value("${digest.spam.tag-ratio-score:0.6}") double tagRatioScore,
+            @Value("${digest.spam.repeated-run:10}") int repeatedRun,
+            @Value("${digest.spam.repeated-run-score:0.5}") double repeatedRunScore,
+            @Value("${digest.spam.emoji-density:0.5}") double emojiDensity,
+            @Value("${digest.spam.emoji-density-score:0.6}") double emojiDensityScore,
+            @Value("${digest.spam.url-only-score:0.5}") double urlOnlyScore,
+            @Value("${digest.spam.threshold:1.0}") double threshold) {
+        return new SimpleSpamDetectPolicy(new SimpleSpamDetectPolicy.Scores(tagRatio, tagRatioScore,
+                repeatedRun, repeatedRunScore, emojiDensity, emojiDensityScore, urlOnlyScore, threshold));
     }
 
     @Bean
-    public AdDetectPolicy adDetectPolicy() {
-        return new SimpleAdDetectPolicy();
+    public AdDetectPolicy adDetectPolicy(ObjectProvider<PreferenceRepositoryPort> preferenceRepositoryPort) {
+        return new SimpleAdDetectPolicy(preferenceRepositoryPort.getIfAvailable());
     }
 
     // ===== Domain Service 层 Bean =====
     @Bean
     public FetchTweetService fetchTweetService(TimelinePort timelinePort,
-                                               StateRepositoryPort stateRepositoryPort) {
-        return new FetchTweetService(timelinePort, stateRepositoryPort);
+                                               StateRepositoryPort stateRepositoryPort,
+                                               ObjectProvider<TweetStorePort> tweetStorePort,
+                                               ObjectProvider<EngagementHistoryPort> engagementHistoryPort,
+                                               ObjectProvider<SeenTweetFilterPort> seenTweetFilterPort,
+                                               @Value("${digest.store.reprocess-hours:24}") long reprocessHours) {
+        // fake profile下没有本地推文存储；没有已处理过滤器时分不出哪些入库的tweets处理过，不重新处理
+        Duration reprocessWindow = seenTweetFilterPort.getIfAvailable() != null && reprocessHours > 0
+                ? Duration.ofHours(reprocessHours) : null;
+        return new FetchTweetService(timelinePort, stateRepositoryPort, tweetStorePort.getIfAvailable(),
+                engagementHistoryPort.getIfAvailable(), reprocessWindow);
+    }
+    @Bean
+    public SeenTweetService seenTweetService(ObjectProvider<SeenTweetFilterPort> seenTweetFilterPort) {
+        return new SeenTweetService(seenTweetFilterPort.getIfAvailable());
     }
     @Bean
     public FilterService filterService(SpamDetectPolicy spamDetectPolicy,
-                                       AdDetectPolicy adDetectPolicy) {
-        return new FilterService(spamDetectPolicy, adDetectPolicy, List.of("en", "zh"));
+                                       AdDetectPolicy adDetectPolicy,
+                                       ObjectProvider<PreferenceRepositoryPort> preferenceRepositoryPort,
+                                       ObjectProvider<TweetFilter> extraFilters,
+                                       @Value("${digest.filter.languages:en,zh}") List<String> allowedLanguages,
+                                       @Value("${digest.filter.parallel-threshold:5000}") int parallelThreshold) {
+        // 其他模块声明的TweetFilter Bean追加到过滤链上
+        return new FilterService(spamDetectPolicy, adDetectPolicy, allowedLanguages,
+                preferenceRepositoryPort.getIfAvailable(), extraFilters.orderedStream().toList(), parallelThreshold);
+    }
+    @Bean
+    public NearDuplicateService nearDuplicateService(ObjectProvider<NearDuplicateIndexPort> nearDuplicateIndexPort,
+                                                     @Value("${digest.dedup.min-similarity:0.7}") double minSimilarity) {
+        // fake profile下没有跨运行的签名索引，只合并本次运行内的近似重复
+        return new NearDuplicateService(nearDuplicateIndexPort.getIfAvailable(), minSimilarity);
     }
     @Bean
-    public RankingService rankingService(EngagementScorePolicy engagementScorePolicy) {
-        return new RankingService(engagementScorePolicy, 25);
+    public RankingService rankingService(EngagementScorePolicy engagementScorePolicy,
+                                         ObjectProvider<PreferenceRepositoryPort> preferenceRepositoryPort) {
+        return new RankingService(engagementScorePolicy, 25, preferenceRepositoryPort.getIfAvailable());
     }
     @Bean
-    public DigestBuildService digestBuildService(LlmPort llmPort) {
+    public DigestBuildService digestBuildService(LlmPort llmPort,
+                                                 ObjectProvider<LlmSummaryCache> llmSummaryCache,
+                                                 @Value("${digest.llm-cache.enabled:true}") boolean cacheEnabled) {
+        LlmSummaryCache cache = llmSummaryCache.getIfAvailable();
+        if (cacheEnabled && cache != null) {
+            llmPort = new CachingLlmPort(llmPort, cache);
+        }
         return new DigestBuildService(llmPort);
     }
 }
@@ -1,73 +1,248 @@
 package life.ljs.digest.app.scheduler;
 
 import life.ljs.digest.domain.model.DigestBatch;
+import life.ljs.digest.domain.model.DigestRun;
 import life.ljs.digest.domain.model.Tweet;
+import life.ljs.digest.domain.model.Watermarks;
 import life.ljs.digest.domain.port.DiscordPort;
+import life.ljs.digest.domain.port.RunJournalPort;
+import life.ljs.digest.domain.port.TweetBatchSink;
 import life.ljs.digest.domain.service.DigestBuildService;
 import life.ljs.digest.domain.service.FetchTweetService;
+import life.ljs.digest.domain.service.FilterChain;
 import life.ljs.digest.domain.service.FilterService;
+import life.ljs.digest.domain.service.NearDuplicateService;
 import life.ljs.digest.domain.service.RankingService;
+import life.ljs.digest.domain.service.SeenTweetService;
+import life.ljs.digest.domain.service.TopKAccumulator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
 import java.time.OffsetDateTime;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * 定时生成Digest：拉取 -> 过滤 -> 合并近似重复 -> 排序 -> 摘要 -> 聚类 -> 总览 -> 推送
+ * <p>
+ * 过滤后的tweets边拉取边进入 {@link TopKAccumulator}，设置了拉取截止时间时到点就停止滚动，用已有的结果继续。
+ * 拉取时不保留全部原始/过滤后的tweets，运行日志里保存水位线、Top K候选和通过了跨运行去重的推文ID，
+ * 从日志恢复的运行结束时把这些ID记为已处理
+ * <p>
+ * 配置了RunJournalPort时每个阶段完成后都会保存进度，进程退出或运行失败后，
+ * 启动时（以及下一次定时运行前）从最近完成的阶段继续；lastSeenTweetId推送成功后才提交，
+ * 中途失败不会丢掉已拉取的tweets
+ */
 @Component
 public class DigestScheduleTask {
     private static final Logger log = LoggerFactory.getLogger(DigestScheduleTask.class);
 
     private final FetchTweetService fetchTweetService;
+    private final SeenTweetService seenTweetService;
     private final FilterService filterService;
+    private final NearDuplicateService nearDuplicateService;
     private final RankingService rankingService;
     private final DigestBuildService digestBuildService;
     private final DiscordPort discordPort;
+    private final RunJournalPort runJournalPort;
+    private final int maxAttempts;
+    private final Duration fetchDeadline;
 
     public DigestScheduleTask(FetchTweetService fetchTweetService,
+                              SeenTweetService seenTweetService,
                               FilterService filterService,
+                              NearDuplicateService nearDuplicateService,
                               RankingService rankingService,
                               DigestBuildService digestBuildService,
-                              DiscordPort discordPort) {
+                              DiscordPort discordPort,
+                              ObjectProvider<RunJournalPort> runJournalPort,
+                              @Value("${digest.journal.max-attempts:3}") int maxAttempts,
+                              @Value("${digest.fetch.deadline-seconds:0}") long fetchDeadlineSeconds) {
         this.fetchTweetService = fetchTweetService;
+        this.seenTweetService = seenTweetService;
         this.filterService = filterService;
+        this.nearDuplicateService = nearDuplicateService;
         this.rankingService = rankingService;
         this.digestBuildService = digestBuildService;
         this.discordPort = discordPort;
+        // fake profile下没有运行日志，每次运行从头开始
+        this.runJournalPort = runJournalPort.getIfAvailable();
+        this.maxAttempts = maxAttempts;
+        // 0表示不限时，滚动到水位线或没有新内容为止
+        this.fetchDeadline = fetchDeadlineSeconds > 0 ? Duration.ofSeconds(fetchDeadlineSeconds) : null;
     }
 
 
     @Scheduled(cron = "0 0 0/2 * * ?")
-    public void runDigest() {
+    public synchronized void runDigest() {
+        // 先把上次没完成的运行做完，提交它的lastSeenTweetId，本次才不会重复拉取
+        resumeIncompleteRuns();
+
         log.info("开始执行一次 Digest 任务 …");
 
         OffsetDateTime start = OffsetDateTime.now().minusMinutes(30);
         OffsetDateTime end = OffsetDateTime.now();
+        DigestRun run = DigestRun.start(start, end);
+        checkpoint(run);
+        execute(run);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        try {
+            resumeIncompleteRuns();
+        } catch (RuntimeException e) {
+            // 不影响启动，下一次定时运行前会再尝试
+            log.error("恢复未完成的运行失败", e);
+        }
+    }
+
+    public synchronized void resumeIncompleteRuns() {
+        if (runJournalPort == null) {
+            return;
+        }
+        DigestRun run;
+        while ((run = runJournalPort.loadIncomplete()) != null) {
+            if (run.getAttempts() >= maxAttempts) {
+                // lastSeenTweetId没有提交，这些tweets下次运行会重新拉取
+                log.warn("运行 {} 已失败 {} 次，放弃（停在阶段 {}）", run.getRunId(), run.getAttempts(), run.getStage());
+                runJournalPort.complete(run);
+                continue;
+            }
+            run.recordAttempt();
+            checkpoint(run);
+            log.info("从阶段 {} 继续未完成的运行 {}（第 {} 次）", run.getStage(), run.getRunId(), run.getAttempts());
+            execute(run);
+        }
+    }
+
+    private void execute(DigestRun run) {
+        // 1. 拉取新的 tweets，2. 边拉取边丢弃之前处理过的、过滤垃圾 & 广告，并更新当前的 Top K 候选
+        SeenTweetService.Run seenStage = null;
+        TopKAccumulator topK = null;
+        if (run.isBefore(DigestRun.Stage.FILTERED)) {
+            topK = rankingService.startRun(null, fetchDeadline);
+            TweetBatchSink filterStage = filterService.filtering(topK);
+            seenStage = seenTweetService.startRun(filterStage);
+            int fetched;
+            if (run.isBefore(DigestRun.Stage.RAW)) {
+                AtomicInteger fetchedCount = new AtomicInteger();
+                SeenTweetService.Run fetchSeenStage = seenStage;
+                Watermarks watermarks = fetchTweetService.fetchNewTweetsUncommitted(new TweetBatchSink() {
+                    @Override
+                    public void accept(List<Tweet> batch) {
+                        fetchedCount.addAndGet(batch.size());
+                        fetchSeenStage.accept(batch);
+                    }
 
-        // 1. 拉取新的 tweets
-        List<Tweet> rawTweets = fetchTweetService.fetchNewTweets();
-        log.info("从时间线拉取到 {} 条原始 tweets", rawTweets.size());
+                    @Override
+                    public void observe(List<Tweet> tweets) {
+                        fetchSeenStage.observe(tweets);
+                    }
 
-        // 2. 过滤垃圾 & 广告
-        List<Tweet> filtered = filterService.filter(rawTweets);
-        log.info("过滤后剩余 {} 条有效 tweets", filtered.size());
+                    @Override
+                    public boolean isCancelled() {
+                        return fetchSeenStage.isCancelled();
+                    }
+                });
+                if (topK.isDeadlineReached()) {
+                    log.info("拉取已到截止时间（{} 秒），停止滚动", fetchDeadline.toSeconds());
+                }
+                fetched = fetchedCount.get();
+                run.fetched(List.of(), watermarks);
+            } else {
+                // 旧版本的运行日志停在RAW阶段时保存了原始tweets
+                fetched = run.getRawTweets().size();
+                seenStage.accept(run.getRawTweets());
+            }
+            log.info("从时间线拉取到 {} 条原始 tweets", fetched);
+            log.info("丢弃 {} 条之前已处理的 tweets（估算误报率 {}）", seenStage.getDropped(),
+                    String.format("%.5f", seenTweetService.estimatedFalsePositiveRate()));
+            log.info("过滤后剩余 {} 条有效 tweets，保留 Top {} 条候选", topK.getOffered(), topK.size());
+            for (FilterChain.Stats stats : filterService.stats()) {
+                log.info("过滤器 {}：累计检查 {} 条，丢弃 {} 条（{}%），平均 {} ns/条", stats.name(), stats.evaluated(),
+                        stats.rejected(), String.format("%.1f", stats.rejectionRate() * 100),
+                        String.format("%.0f", stats.avgNanos()));
+            }
+            // 拉取和过滤是同时完成的，一起保存
+            run.filtered(topK.snapshot(), seenStage.getPassedIds());
+            checkpoint(run);
+        }
 
-        if (filtered.isEmpty()) {
+        if (run.getFilteredTweets().isEmpty()) {
+            finish(run, seenStage);
             log.info("本次没有可以用来生成 Digest 的内容，跳过。");
             return;
         }
 
-        // 3. 排序选出 Top25
-        List<Tweet> topTweets = rankingService.selectTopTweets(filtered);
-        log.info("选出 Top {} 条用于 Digest", topTweets.size());
+        // 3. 合并近似重复（只保留互动量最高的一条，之前推送过的丢弃），排序选出 Top25
+        if (run.isBefore(DigestRun.Stage.RANKED)) {
+            List<Tweet> candidates = run.getFilteredTweets();
+            List<Tweet> distinct = nearDuplicateService.collapse(candidates);
+            log.info("合并 {} 条近似重复的 tweets", candidates.size() - distinct.size());
+            run.ranked(rankingService.selectTopTweets(distinct));
+            checkpoint(run);
+            log.info("选出 Top {} 条用于 Digest", run.getRankedTweets().size());
+        }
 
-        // 4. 用 LLM 构建 DigestBatch
-        DigestBatch batch = digestBuildService.buildDigest(topTweets, start, end);
+        // 4. 用 LLM 构建 DigestBatch，每条摘要后保存一次，中断后已生成的不再重复调用
+        List<Tweet> topTweets = run.getRankedTweets();
+        if (run.isBefore(DigestRun.Stage.SUMMARIZED)) {
+            digestBuildService.summarize(topTweets, tweet -> checkpoint(run));
+            run.summarized();
+            checkpoint(run);
+        }
+        if (run.isBefore(DigestRun.Stage.CLUSTERED)) {
+            run.clustered(digestBuildService.cluster(topTweets));
+            checkpoint(run);
+        }
+        if (run.isBefore(DigestRun.Stage.OVERVIEW)) {
+            run.overviewed(digestBuildService.overview(run.getClusters(), topTweets));
+            checkpoint(run);
+        }
 
-        // 5. 推送到 Discord（现在先打印日志）
-        discordPort.pushDigest(batch);
+        // 5. 推送到 Discord
+        if (run.isBefore(DigestRun.Stage.PUSHED)) {
+            DigestBatch batch = digestBuildService.assemble(topTweets, run.getClusters(), run.getOverview(),
+                    run.getWindowStart(), run.getWindowEnd());
+            discordPort.pushDigest(batch);
+            run.pushed();
+            checkpoint(run);
+        }
+        finish(run, seenStage);
 
         log.info("本次 Digest 任务执行完毕。");
     }
+
+    /**
+     * 运行结束：提交lastSeenTweetId、记录已处理的tweets和已推送内容的指纹，然后删除运行日志
+     * @param seenStage 从日志恢复且已过了过滤阶段时为null
+     */
+    private void finish(DigestRun run, SeenTweetService.Run seenStage) {
+        fetchTweetService.commitWatermark(run.getWatermarks());
+        if (seenStage != null) {
+            seenStage.commit();
+        } else {
+            // 旧版本的运行日志只有原始tweets
+            seenTweetService.markSeen(run.getRawTweets());
+            seenTweetService.markSeenIds(run.getPassedIds());
+        }
+        nearDuplicateService.remember(run.getRankedTweets());
+        if (runJournalPort != null) {
+            runJournalPort.complete(run);
+        }
+    }
+
+    private void checkpoint(DigestRun run) {
+        if (runJournalPort != null) {
+            runJournalPort.save(run);
+        }
+    }
 }
@@ -0,0 +1,187 @@
+package life.ljs.digest.domain.model;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * 一次Digest运行的进度和各阶段产出，用于运行中断后从最近完成的阶段继续
+ * <p>
+ * 阶段按顺序推进：拉取 -> 过滤 -> 排序 -> 摘要 -> 聚类 -> 总览 -> 推送，
+ * 拉取得到的新lastSeenTweetId（全局的和各来源的）保存在watermarks中，推送成功后才提交
+ */
+public class DigestRun {
+
+    public enum Stage {
+        STARTED,
+        RAW,
+        FILTERED,
+        RANKED,
+        SUMMARIZED,
+        CLUSTERED,
+        OVERVIEW,
+        PUSHED
+    }
+
+    private static final DateTimeFormatter RUN_ID_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'");
+
+    private final String runId;
+    private final OffsetDateTime windowStart;
+    private final OffsetDateTime windowEnd;
+    private Stage stage = Stage.STARTED;
+    private int attempts = 1;
+
+    private Watermarks watermarks = Watermarks.none();
+    private List<Tweet> rawTweets = List.of();
+    private List<Tweet> filteredTweets = List.of();
+    private List<TweetId> passedIds = List.of();
+    private List<Tweet> rankedTweets = List.of();
+    private List<TopicCluster> clusters = List.of();
+    private String overview;
+
+    public DigestRun(String runId, OffsetDateTime windowStart, OffsetDateTime windowEnd) {
+        this.runId = runId;
+        this.windowStart = windowStart;
+        this.windowEnd = windowEnd;
+    }
+
+    /**
+     * 新开一次运行，runId取当前UTC时间，字典序即时间顺序
+     */
+    public static DigestRun start(OffsetDateTime windowStart, OffsetDateTime windowEnd) {
+        String runId = OffsetDateTime.now(ZoneOffset.UTC).format(RUN_ID_FORMAT);
+        return new DigestRun(runId, windowStart, windowEnd);
+    }
+
+    /**
+     * @return 当前阶段是否还没到达stage，即stage还需要执行
+     */
+    public boolean isBefore(Stage stage) {
+        return this.stage.compareTo(stage) < 0;
+    }
+
+    public void fetched(List<Tweet> rawTweets, Watermarks watermarks) {
+        this.rawTweets = rawTweets;
+        this.watermarks = watermarks;
+        this.stage = Stage.RAW;
+    }
+
+    public void filtered(List<Tweet> filteredTweets) {
+        filtered(filteredTweets, List.of());
+    }
+
+    /**
+     * @param filteredTweets
+     * @param passedIds 通过了跨运行去重的推文ID，运行结束时记为已处理
+     */
+    public void filtered(List<Tweet> filteredTweets, List<TweetId> passedIds) {
+        this.filteredTweets = filteredTweets;
+        this.passedIds = passedIds;
+        this.stage = Stage.FILTERED;
+    }
+
+    public void ranked(List<Tweet> rankedTweets) {
+        this.rankedTweets = rankedTweets;
+        this.stage = Stage.RANKED;
+    }
+
+    /**
+     * 摘要直接写在rankedTweets上
+     */
+    public void summarized() {
+        this.stage = Stage.SUMMARIZED;
+    }
+
+    public void clustered(List<TopicCluster> clusters) {
+        this.clusters = clusters;
+        this.stage = Stage.CLUSTERED;
+    }
+
+    public void overviewed(String overview) {
+        this.overview = overview;
+        this.stage = Stage.OVERVIEW;
+    }
+
+    public void pushed() {
+        this.stage = Stage.PUSHED;
+    }
+
+    public void recordAttempt() {
+        attempts++;
+    }
+
+    /**
+     * 从日志恢复时使用
+     */
+    public void restore(Stage stage, int attempts, Watermarks watermarks, List<Tweet> rawTweets,
+                        List<Tweet> filteredTweets, List<TweetId> passedIds, List<Tweet> rankedTweets,
+                        List<TopicCluster> clusters, String overview) {
+        this.stage = stage;
+        this.attempts = attempts;
+        this.watermarks = watermarks;
+        this.rawTweets = rawTweets;
+        this.filteredTweets = filteredTweets;
+        this.passedIds = passedIds;
+        this.rankedTweets = rankedTweets;
+        this.clusters = clusters;
+        this.overview = overview;
+    }
+
+    public String getRunId() {
+        return runId;
+    }
+
+    public OffsetDateTime getWindowStart() {
+        return windowStart;
+    }
+
+    public OffsetDateTime getWindowEnd() {
+        return windowEnd;
+    }
+
+    public Stage getStage() {
+        return stage;
+    }
+
+    /**
+     * @return 已经开始执行的次数（含首次）
+     */
+    public int getAttempts() {
+        return attempts;
+    }
+
+    /**
+     * @return 本次拉取到的最新推文ID（全局的和各来源的）
+     */
+    public Watermarks getWatermarks() {
+        return watermarks;
+    }
+
+    public List<Tweet> getRawTweets() {
+        return rawTweets;
+    }
+
+    public List<Tweet> getFilteredTweets() {
+        return filteredTweets;
+    }
+
+    /**
+     * @return 本次通过了跨运行去重的推文ID（拉取到的、之前没处理过的）
+     */
+    public List<TweetId> getPassedIds() {
+        return passedIds;
+    }
+
+    public List<Tweet> getRankedTweets() {
+        return rankedTweets;
+    }
+
+    public List<TopicCluster> getClusters() {
+        return clusters;
+    }
+
+    public String getOverview() {
+        return overview;
+    }
+}
@@ -0,0 +1,45 @@
+package life.ljs.digest.domain.model;
+
+/**
+ * 某一时刻观察到的一条推文的互动量
+ */
+public final class EngagementSnapshot {
+
+    private final long observedAtMillis;
+    private final long likeCount;
+    private final long retweetCount;
+    private final long replyCount;
+
+    public EngagementSnapshot(long observedAtMillis, long likeCount, long retweetCount, long replyCount) {
+        this.observedAtMillis = observedAtMillis;
+        this.likeCount = likeCount;
+        this.retweetCount = retweetCount;
+        this.replyCount = replyCount;
+    }
+
+    public long getObservedAtMillis() {
+        return observedAtMillis;
+    }
+
+    public long getLikeCount() {
+        return likeCount;
+    }
+
+    public long getRetweetCount() {
+        return retweetCount;
+    }
+
+    public long getReplyCount() {
+        return replyCount;
+    }
+
+    @Override
+    public String toString() {
+        return "EngagementSnapshot{" +
+                "observedAtMillis=" + observedAtMillis +
+                ", likeCount=" + likeCount +
+                ", retweetCount=" + retweetCount +
+                ", replyCount=" + replyCount +
+                '}';
+    }
+}
@@ -0,0 +1,439 @@
+package life.ljs.digest.domain.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 编译好的多关键词匹配器（Aho-Corasick自动机），一次扫描同时查找所有关键词，忽略大小写
+ * <p>
+ * 按UTF-16字符逐个转移，中日韩关键词和英文一样处理；不做分词，"sale"也会匹配"wholesale"，
+ * 与 {@code String.contains} 的语义一致。
+ * <p>
+ * 构建时把关键词里出现过的字符编号为字符类，并预先算好每个字符（含大写形式）所属的类，
+ * 扫描时一次查表即完成转小写和归类；不在任何关键词里的字符直接回到根状态。
+ * 状态数 x 字符类数不大时展开成稠密的状态转移表（DFA），每个字符一次数组访问；
+ * 关键词很多时改用开放寻址的goto表加失败指针。扫描过程不分配对象。
+ * 构建后不可变，可在多线程间共享。
+ */
+public final class KeywordMatcher {
+
+    private static final long EMPTY = -1L;
+    /**
+     * 稠密转移表最多的格子数（int），约8MB
+     */
+    private static final int MAX_DENSE_CELLS = 1 << 21;
+    private static final KeywordMatcher EMPTY_MATCHER = builder().build();
+
+    private final String[] keywords;
+    private final int[] groups;
+
+    // 字符 -> 字符类，按高8位分页，没有关键词字符的页为null；类0表示不在任何关键词里
+    private final char[][] classPages = new char[256][];
+    private final int classes;
+
+    // 稠密转移表：delta[state * classes + class]，太大时为null
+    private final int[] delta;
+    // 稀疏goto表：key = state * classes + class
+    private final long[] edgeKeys;
+    private final int[] edgeTargets;
+
+    private final int[] fail;
+    private final boolean[] matches;     // 该状态或其失败链上有关键词结束
+    private final long[] groupMasks;     // 该状态及其失败链上结束的关键词所属分组
+    private final int[] outputStart;     // 在该状态结束的关键词，outputs[outputStart[s] .. outputStart[s + 1])
+    private final int[] outputs;
+    private final int[] outputLink;      // 失败链上下一个有关键词结束的状态，没有时为-1
+
+    private KeywordMatcher(Builder builder) {
+        this.keywords = builder.keywords.toArray(new String[0]);
+        this.groups = builder.groups.stream().mapToInt(Integer::intValue).toArray();
+
+        // 1. 字符类：关键词里的每个不同字符一个类，所有转小写后等于它的字符都归到这个类
+        Map<Character, Integer> alphabet = new HashMap<>();
+        for (String keyword : keywords) {
+            for (int i = 0; i < keyword.length(); i++) {
+                alphabet.putIfAbsent(keyword.charAt(i), alphabet.size() + 1);
+            }
+        }
+        this.classes = alphabet.size() + 1;
+        if (!alphabet.isEmpty()) {
+            for (int c = 0; c <= Character.MAX_VALUE; c++) {
+                Integer cls = alphabet.get(Character.toLowerCase((char) c));
+                if (cls != null) {
+                    char[] page = classPages[c >>> 8];
+                    if (page == null) {
+                        page = new char[256];
+                        classPages[c >>> 8] = page;
+                    }
+                    page[c & 0xFF] = (char) cls.intValue();
+                }
+            }
+        }
+
+        // 2. 建trie
+        List<int[]> children = new ArrayList<>(); // 每个状态的 [class, target] 对，扁平存放
+        List<List<Integer>> ends = new ArrayList<>();
+        children.add(new int[0]);
+        ends.add(new ArrayList<>());
+        int edgeCount = 0;
+        for (int k = 0; k < keywords.length; k++) {
+            String keyword = keywords[k];
+            int state = 0;
+            for (int i = 0; i < keyword.length(); i++) {
+                int cls = alphabet.get(keyword.charAt(i));
+                int next = child(children.get(state), cls);
+                if (next < 0) {
+                    next = children.size();
+                    children.add(new int[0]);
+                    ends.add(new ArrayList<>());
+                    int[] edges = children.get(state);
+                    int[] grown = Arrays.copyOf(edges, edges.length + 2);
+                    grown[edges.length] = cls;
+                    grown[edges.length + 1] = next;
+                    children.set(state, grown);
+                    edgeCount++;
+                }
+                state = next;
+            }
+            ends.get(state).add(k);
+        }
+
+        int states = children.size();
+        if ((long) states * classes <= MAX_DENSE_CELLS) {
+            this.delta = new int[states * classes];
+            this.edgeKeys = null;
+            this.edgeTargets = null;
+        } else {
+            this.delta = null;
+            int capacity = TweetIdSet.tableSizeFor(edgeCount);
+            this.edgeKeys = new long[capacity];
+            this.edgeTargets = new int[capacity];
+            Arrays.fill(edgeKeys, EMPTY);
+            for (int s = 0; s < states; s++) {
+                int[] edges = children.get(s);
+                for (int e = 0; e < edges.length; e += 2) {
+                    putEdge(s, edges[e], edges[e + 1]);
+                }
+            }
+        }
+
+        // 3. 按BFS顺序求失败指针（稠密时同时填转移表），并沿失败链合并输出
+        this.fail = new int[states];
+        this.matches = new boolean[states];
+        this.groupMasks = new long[states];
+        this.outputStart = new int[states + 1];
+        this.outputLink = new int[states];
+        int[] queue = new int[states];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = 0;
+        while (head < tail) {
+            int s = queue[head++];
+            List<Integer> own = ends.get(s);
+            int f = fail[s];
+            long mask = 0;
+            for (int k : own) {
+                mask |= 1L << groups[k];
+            }
+            if (s != 0) {
+                matches[s] = !own.isEmpty() || matches[f];
+                groupMasks[s] = mask | groupMasks[f];
+                outputLink[s] = !ends.get(f).isEmpty() ? f : outputLink[f];
+            } else {
+                outputLink[s] = -1;
+            }
+            if (delta != null && s != 0) {
+                // 没有直接子节点的字符类沿用失败状态的转移，失败状态更浅，已经填好
+                System.arraycopy(delta, f * classes, delta, s * classes, classes);
+            }
+            int[] edges = children.get(s);
+            for (int e = 0; e < edges.length; e += 2) {
+                int cls = edges[e];
+                int child = edges[e + 1];
+                fail[child] = s == 0 ? 0 : transition(f, cls);
+                queue[tail++] = child;
+            }
+            if (delta != null) {
+                for (int e = 0; e < edges.length; e += 2) {
+                    delta[s * classes + edges[e]] = edges[e + 1];
+                }
+            }
+        }
+
+        int total = 0;
+        for (List<Integer> own : ends) {
+            total += own.size();
+        }
+        this.outputs = new int[total];
+        int pos = 0;
+        for (int s = 0; s < states; s++) {
+            outputStart[s] = pos;
+            for (int k : ends.get(s)) {
+                outputs[pos++] = k;
+            }
+        }
+        outputStart[states] = pos;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @param keywords 空白和重复（忽略大小写）的关键词会被忽略
+     */
+    public static KeywordMatcher of(Collection<String> keywords) {
+        Builder builder = builder();
+        keywords.forEach(builder::add);
+        return builder.build();
+    }
+
+    public static KeywordMatcher empty() {
+        return EMPTY_MATCHER;
+    }
+
+    /**
+     * @return 关键词个数
+     */
+    public int size() {
+        return keywords.length;
+    }
+
+    public boolean isEmpty() {
+        return keywords.length == 0;
+    }
+
+    /**
+     * @return 第index个关键词（已转小写）
+     */
+    public String keyword(int index) {
+        return keywords[index];
+    }
+
+    public int group(int index) {
+        return groups[index];
+    }
+
+    /**
+     * @return text中是否出现任一关键词
+     */
+    public boolean containsAny(CharSequence text) {
+        if (text == null || keywords.length == 0) {
+            return false;
+        }
+        int state = 0;
+        for (int i = 0, n = text.length(); i < n; i++) {
+            state = next(state, text.charAt(i));
+            if (matches[state]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return text中出现的关键词所属分组的位图，第g位对应分组g
+     */
+    public long matchedGroups(CharSequence text) {
+        if (text == null || keywords.length == 0) {
+            return 0;
+        }
+        long mask = 0;
+        int state = 0;
+        for (int i = 0, n = text.length(); i < n; i++) {
+            state = next(state, text.charAt(i));
+            mask |= groupMasks[state];
+        }
+        return mask;
+    }
+
+    /**
+     * text中命中的关键词对应权重的最大值，一次扫描，不分配对象
+     * @param text
+     * @param weights 按关键词下标的权重
+     * @param floor 结果的下限，没有命中时返回它
+     * @return
+     */
+    public double maxWeight(CharSequence text, double[] weights, double floor) {
+        if (text == null || keywords.length == 0) {
+            return floor;
+        }
+        double max = floor;
+        int state = 0;
+        for (int i = 0, n = text.length(); i < n; i++) {
+            state = next(state, text.charAt(i));
+            if (!matches[state]) {
+                continue;
+            }
+            for (int s = outputStart[state + 1] > outputStart[state] ? state : outputLink[state];
+                 s >= 0; s = outputLink[s]) {
+                for (int o = outputStart[s]; o < outputStart[s + 1]; o++) {
+                    max = Math.max(max, weights[outputs[o]]);
+                }
+            }
+        }
+        return max;
+    }
+
+    /**
+     * 按出现位置依次回调每一次命中（同一关键词出现多次会回调多次）
+     * @param text
+     * @param handler 返回false时停止扫描
+     */
+    public void forEachMatch(CharSequence text, MatchHandler handler) {
+        if (text == null || keywords.length == 0) {
+            return;
+        }
+        int state = 0;
+        for (int i = 0, n = text.length(); i < n; i++) {
+            state = next(state, text.charAt(i));
+            if (!matches[state]) {
+                continue;
+            }
+            for (int s = outputStart[state + 1] > outputStart[state] ? state : outputLink[state];
+                 s >= 0; s = outputLink[s]) {
+                for (int o = outputStart[s]; o < outputStart[s + 1]; o++) {
+                    if (!handler.onMatch(outputs[o], i + 1)) {
+                        return;
+                    }
+                }
+            }
+        }
+    }
+
+    @FunctionalInterface
+    public interface MatchHandler {
+        /**
+         * @param keywordIndex 命中的关键词下标
+         * @param end 命中位置的结束下标（不含）
+         * @return 是否继续扫描
+         */
+        boolean onMatch(int keywordIndex, int end);
+    }
+
+    private int next(int state, char c) {
+        char[] page = classPages[c >>> 8];
+        int cls = page == null ? 0 : page[c & 0xFF];
+        if (cls == 0) {
+            return 0;
+        }
+        return transition(state, cls);
+    }
+
+    private int transition(int state, int cls) {
+        if (delta != null) {
+            return delta[state * classes + cls];
+        }
+        while (true) {
+            int next = edge(state, cls);
+            if (next >= 0) {
+                return next;
+            }
+            if (state == 0) {
+                return 0;
+            }
+            state = fail[state];
+        }
+    }
+
+    private int edge(int state, int cls) {
+        long key = (long) state * classes + cls;
+        int mask = edgeKeys.length - 1;
+        int i = TweetIdMap.mix(key) & mask;
+        while (edgeKeys[i] != EMPTY) {
+            if (edgeKeys[i] == key) {
+                return edgeTargets[i];
+            }
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void putEdge(int state, int cls, int target) {
+        long key = (long) state * classes + cls;
+        int mask = edgeKeys.length - 1;
+        int i = TweetIdMap.mix(key) & mask;
+        while (edgeKeys[i] != EMPTY) {
+            i = (i + 1) & mask;
+        }
+        edgeKeys[i] = key;
+        edgeTargets[i] = target;
+    }
+
+    private static int child(int[] edges, int cls) {
+        for (int e = 0; e < edges.length; e += 2) {
+            if (edges[e] == cls) {
+                return edges[e + 1];
+            }
+        }
+        return -1;
+    }
+
+    public static final class Builder {
+        private final List<String> keywords = new ArrayList<>();
+        private final List<Integer> groups = new ArrayList<>();
+        private final Set<String> seen = new HashSet<>();
+
+        private Builder() {
+        }
+
+        public Builder add(String keyword) {
+            return add(keyword, 0);
+        }
+
+        /**
+         * @param keyword 空白的忽略；忽略大小写后重复的只保留第一次
+         * @param group 分组编号 0~63，用于 {@link KeywordMatcher#matchedGroups}
+         */
+        public Builder add(String keyword, int group) {
+            if (group < 0 || group > 63) {
+                throw new IllegalArgumentException("Group must be between 0 and 63: " + group);
+            }
+            if (keyword == null || keyword.isBlank()) {
+                return this;
+            }
+            String lower = toLowerCase(keyword.strip());
+            if (seen.add(lower)) {
+                keywords.add(lower);
+                groups.add(group);
+            }
+            return this;
+        }
+
+        public Builder addAll(Collection<String> keywords, int group) {
+            for (String keyword : keywords) {
+                add(keyword, group);
+            }
+            return this;
+        }
+
+        /**
+         * @return 已加入的关键词个数（不含被忽略的），即下一个关键词的下标
+         */
+        public int size() {
+            return keywords.size();
+        }
+
+        public KeywordMatcher build() {
+            return new KeywordMatcher(this);
+        }
+
+        /**
+         * 与扫描时逐字符的 {@link Character#toLowerCase(char)} 保持一致（不用String.toLowerCase，
+         * 它会按locale处理且可能改变长度）
+         */
+        private static String toLowerCase(String s) {
+            char[] chars = s.toCharArray();
+            for (int i = 0; i < chars.length; i++) {
+                chars[i] = Character.toLowerCase(chars[i]);
+            }
+            return new String(chars);
+        }
+    }
+}
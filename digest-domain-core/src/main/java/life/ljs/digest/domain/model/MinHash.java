@@ -0,0 +1,140 @@
+package life.ljs.digest.domain.model;
+
+import java.util.Arrays;
+
+/**
+ * 推文文本的MinHash签名，两个签名相同位置取值相等的比例估计两段文本shingle集合的Jaccard相似度
+ * <p>
+ * 文本先归一化：转小写，跳过链接，字母和数字以外的字符（标点、空白、emoji）都视为一个分隔符；
+ * 然后取相邻3个码点作为shingle。按码点而不是按词切分，中文不需要分词；
+ * "RT @xx:"前缀、改几个字、换链接只影响少数shingle。
+ * <p>
+ * 用单次哈希的MinHash（one permutation hashing）：每个shingle只哈希一次，按高位分到 {@link #SIZE} 个桶里各取最小值，
+ * 空桶从右侧最近的非空桶借值（rotation densification），计算量与文本长度成正比。
+ */
+public final class MinHash {
+
+    /**
+     * 签名长度
+     */
+    public static final int SIZE = 32;
+
+    private static final int BUCKET_SHIFT = 64 - Integer.numberOfTrailingZeros(SIZE);
+    private static final int EMPTY = -1;
+    private static final int SEPARATOR = ' ';
+
+    private MinHash() {
+    }
+
+    /**
+     * @param text
+     * @return 长度为 {@link #SIZE} 的签名；没有任何字母或数字时返回null，表示无法比较
+     */
+    public static int[] signature(String text) {
+        if (text == null) {
+            return null;
+        }
+        int[] signature = new int[SIZE];
+        Arrays.fill(signature, EMPTY);
+        int shingles = 0;
+        // 最近的3个码点，c0最新；-1表示还没有
+        int c2 = -1;
+        int c1 = -1;
+        int c0 = -1;
+        boolean wordStart = true;
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            int cp = text.codePointAt(i);
+            int next = i + Character.charCount(cp);
+            if (wordStart && cp == 'h' && (text.startsWith("http://", i) || text.startsWith("https://", i))) {
+                while (next < length && !Character.isWhitespace(text.charAt(next))) {
+                    next++;
+                }
+                cp = SEPARATOR;
+            } else if (Character.isLetterOrDigit(cp)) {
+                cp = Character.toLowerCase(cp);
+            } else {
+                cp = SEPARATOR;
+            }
+            wordStart = Character.isWhitespace(text.charAt(next - 1));
+            i = next;
+
+            if (cp == SEPARATOR && (c0 == SEPARATOR || c0 == -1)) {
+                continue; // 连续的分隔符只算一个，开头的分隔符忽略
+            }
+            c2 = c1;
+            c1 = c0;
+            c0 = cp;
+            if (c2 != -1) {
+                put(signature, shingleHash(c2, c1, c0));
+                shingles++;
+            }
+        }
+        if (shingles == 0) {
+            // 不足3个码点：整段作为一个shingle
+            if (c0 == -1) {
+                return null;
+            }
+            put(signature, shingleHash(-1, c1, c0));
+        }
+
+        for (int b = 0; b < SIZE; b++) {
+            if (signature[b] == EMPTY) {
+                int offset = 1;
+                while (signature[(b + offset) % SIZE] == EMPTY || isBorrowed(signature, (b + offset) % SIZE)) {
+                    offset++;
+                }
+                // 借来的值按距离打散，避免不同空桶借到同一个值时被当成相同
+                signature[b] = borrowed(signature[(b + offset) % SIZE], offset);
+            }
+        }
+        return signature;
+    }
+
+    /**
+     * @return 估计的Jaccard相似度，0 ~ 1
+     */
+    public static double similarity(int[] a, int[] b) {
+        return (double) matches(a, 0, b, 0) / SIZE;
+    }
+
+    /**
+     * a[aOffset ..)和b[bOffset ..)的 {@link #SIZE} 个值中相等的个数
+     */
+    static int matches(int[] a, int aOffset, int[] b, int bOffset) {
+        int equal = 0;
+        for (int i = 0; i < SIZE; i++) {
+            if (a[aOffset + i] == b[bOffset + i]) {
+                equal++;
+            }
+        }
+        return equal;
+    }
+
+    private static void put(int[] signature, long hash) {
+        int bucket = (int) (hash >>> BUCKET_SHIFT);
+        int value = (int) hash & Integer.MAX_VALUE;
+        if (signature[bucket] == EMPTY || value < signature[bucket]) {
+            signature[bucket] = value;
+        }
+    }
+
+    // 借来的值最高位为1，与直接取得的值（非负）区分开
+    private static boolean isBorrowed(int[] signature, int bucket) {
+        return signature[bucket] < EMPTY;
+    }
+
+    private static int borrowed(int value, int offset) {
+        int v = (value * 0x9E3779B1 + offset * 0x85EBCA6B) | Integer.MIN_VALUE;
+        return v != EMPTY ? v : EMPTY - 1;
+    }
+
+    private static long shingleHash(int c2, int c1, int c0) {
+        long h = ((long) c2 * 0x9E3779B97F4A7C15L) ^ ((long) c1 * 0xC2B2AE3D27D4EB4FL) ^ c0;
+        // splitmix64的finalizer，让各位接近独立
+        h = (h ^ (h >>> 30)) * 0xBF58476D1CE4E5B9L;
+        h = (h ^ (h >>> 27)) * 0x94D049BB133111EBL;
+        return h ^ (h >>> 31);
+    }
+}
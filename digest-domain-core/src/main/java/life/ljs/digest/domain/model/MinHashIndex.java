@@ -0,0 +1,181 @@
+package life.ljs.digest.domain.model;
+
+import java.util.Arrays;
+
+/**
+ * MinHash签名的分段LSH索引，查找相似度不低于阈值的已有签名
+ * <p>
+ * {@link MinHash#SIZE} 个值分成 {@value #BANDS} 段、每段 {@value #ROWS} 个，任意一段完全相同的条目才作为候选，
+ * 再用完整签名计算相似度确认。相似度为s的两条文本成为候选的概率是 1-(1-s^4)^8：
+ * s=0.8时约98%，s=0.5时约40%，s=0.3时约6%，所以每次查找只比较少数候选，几万条时也不需要逐条扫描。
+ * <p>
+ * 段的哈希值用开放寻址表映射到桶，桶内条目用数组串成链表。
+ * 每个条目带一个long的键（推文ID或调用方自定义的序号）和时间，{@link #expireBefore(long)} 按时间淘汰，
+ * 用于跨运行的滚动窗口。非线程安全。
+ */
+public final class MinHashIndex {
+
+    private static final int BANDS = 8;
+    private static final int ROWS = MinHash.SIZE / BANDS;
+    private static final long EMPTY = 0L;
+
+    // 段哈希 -> 链表头
+    private long[] bucketKeys;
+    private int[] bucketHeads;
+    private int buckets;
+
+    // 条目，链表指针为next[slot * BANDS + band]
+    private int[] next;
+    private int[] signatures;
+    private long[] keys;
+    private long[] times;
+    private int size;
+
+    public MinHashIndex() {
+        this(64);
+    }
+
+    public MinHashIndex(int expectedSize) {
+        int capacity = Math.max(16, expectedSize);
+        next = new int[capacity * BANDS];
+        signatures = new int[capacity * MinHash.SIZE];
+        keys = new long[capacity];
+        times = new long[capacity];
+        bucketKeys = new long[TweetIdSet.tableSizeFor(capacity * BANDS)];
+        bucketHeads = new int[bucketKeys.length];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param key 推文ID或调用方自定义的序号
+     * @param signature {@link MinHash#signature(String)} 的结果
+     * @param timeMillis 用于 {@link #expireBefore(long)}
+     * @return 条目的位置，供 {@link #key(int)} 等读取
+     */
+    public int add(long key, int[] signature, long timeMillis) {
+        if (size == keys.length) {
+            grow(size * 2);
+        }
+        if ((buckets + BANDS) * 2 > bucketKeys.length) {
+            rebuildBuckets(bucketKeys.length * 2);
+        }
+        int slot = size++;
+        keys[slot] = key;
+        times[slot] = timeMillis;
+        System.arraycopy(signature, 0, signatures, slot * MinHash.SIZE, MinHash.SIZE);
+        link(slot);
+        return slot;
+    }
+
+    /**
+     * 查找与signature相似度不低于minSimilarity的条目，有多个时取最相似的，相似度相同取最早加入的
+     * @param signature
+     * @param minSimilarity
+     * @return 条目的位置，没有时返回-1
+     */
+    public int findNear(int[] signature, double minSimilarity) {
+        int minMatches = (int) Math.ceil(minSimilarity * MinHash.SIZE);
+        int best = -1;
+        int bestMatches = minMatches - 1;
+        for (int band = 0; band < BANDS; band++) {
+            int bucket = find(bandKey(signature, 0, band));
+            if (bucketKeys[bucket] == EMPTY) {
+                continue;
+            }
+            // 同一条目可能在多个段命中，重复比较不影响结果
+            for (int slot = bucketHeads[bucket]; slot >= 0; slot = next[slot * BANDS + band]) {
+                int matches = MinHash.matches(signature, 0, signatures, slot * MinHash.SIZE);
+                if (matches > bestMatches || (matches == bestMatches && slot < best)) {
+                    best = slot;
+                    bestMatches = matches;
+                }
+            }
+        }
+        return best;
+    }
+
+    public long key(int slot) {
+        return keys[slot];
+    }
+
+    public long timeMillis(int slot) {
+        return times[slot];
+    }
+
+    public int[] signature(int slot) {
+        return Arrays.copyOfRange(signatures, slot * MinHash.SIZE, (slot + 1) * MinHash.SIZE);
+    }
+
+    /**
+     * 删除时间早于cutoffMillis的条目，其余条目按原顺序重建索引，位置会变化
+     * @return 删除的条数
+     */
+    public int expireBefore(long cutoffMillis) {
+        int kept = 0;
+        for (int slot = 0; slot < size; slot++) {
+            if (times[slot] >= cutoffMillis) {
+                keys[kept] = keys[slot];
+                times[kept] = times[slot];
+                System.arraycopy(signatures, slot * MinHash.SIZE, signatures, kept * MinHash.SIZE, MinHash.SIZE);
+                kept++;
+            }
+        }
+        int removed = size - kept;
+        if (removed > 0) {
+            size = kept;
+            rebuildBuckets(bucketKeys.length);
+        }
+        return removed;
+    }
+
+    private void link(int slot) {
+        for (int band = 0; band < BANDS; band++) {
+            long bandKey = bandKey(signatures, slot * MinHash.SIZE, band);
+            int bucket = find(bandKey);
+            if (bucketKeys[bucket] == EMPTY) {
+                bucketKeys[bucket] = bandKey;
+                bucketHeads[bucket] = -1;
+                buckets++;
+            }
+            next[slot * BANDS + band] = bucketHeads[bucket];
+            bucketHeads[bucket] = slot;
+        }
+    }
+
+    private int find(long bandKey) {
+        int mask = bucketKeys.length - 1;
+        int i = TweetIdMap.mix(bandKey) & mask;
+        while (bucketKeys[i] != EMPTY && bucketKeys[i] != bandKey) {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    private void rebuildBuckets(int capacity) {
+        bucketKeys = new long[capacity];
+        bucketHeads = new int[capacity];
+        buckets = 0;
+        for (int slot = 0; slot < size; slot++) {
+            link(slot);
+        }
+    }
+
+    private void grow(int capacity) {
+        next = Arrays.copyOf(next, capacity * BANDS);
+        signatures = Arrays.copyOf(signatures, capacity * MinHash.SIZE);
+        keys = Arrays.copyOf(keys, capacity);
+        times = Arrays.copyOf(times, capacity);
+    }
+
+    private static long bandKey(int[] signature, int offset, int band) {
+        long h = band;
+        for (int row = 0; row < ROWS; row++) {
+            h = h * 0x9E3779B97F4A7C15L + signature[offset + band * ROWS + row];
+        }
+        h ^= h >>> 31;
+        return h != EMPTY ? h : 1;
+    }
+}
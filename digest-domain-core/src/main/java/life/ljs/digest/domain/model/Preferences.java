@@ -0,0 +1,163 @@
+package life.ljs.digest.domain.model;
+
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 用户偏好的不可变快照：喜欢/屏蔽的作者、加权的主题、屏蔽的关键词、广告关键词
+ * <p>
+ * 作者按去掉@、转小写后的handle放在哈希集合里（推文的handle优先从status链接取，其次取author里@后面的部分），主题和屏蔽词各编译成一个 {@link KeywordMatcher}，
+ * 每条推文的判断都是一次哈希查找或一次文本扫描。
+ */
+public final class Preferences {
+
+    private static final Preferences EMPTY = new Preferences(Set.of(), Set.of(), Map.of(), Set.of(), Set.of(), 1.0);
+
+    private final Set<String> likedAuthors;
+    private final Set<String> mutedAuthors;
+    private final KeywordMatcher boostedTopics;
+    private final double[] topicWeights; // 按boostedTopics的关键词下标
+    private final KeywordMatcher blockedKeywords;
+    private final KeywordMatcher adKeywords;
+    private final double likedAuthorBoost;
+
+    /**
+     * @param likedAuthors 作者handle，可带@，忽略大小写
+     * @param mutedAuthors 同上
+     * @param boostedTopics 主题关键词 -> 评分倍数
+     * @param blockedKeywords 出现即丢弃的关键词
+     * @param adKeywords 广告关键词，为空时使用广告检测策略内置的
+     * @param likedAuthorBoost 喜欢的作者的评分倍数
+     */
+    public Preferences(Set<String> likedAuthors,
+                       Set<String> mutedAuthors,
+                       Map<String, Double> boostedTopics,
+                       Set<String> blockedKeywords,
+                       Set<String> adKeywords,
+                       double likedAuthorBoost) {
+        this.likedAuthors = normalizeAuthors(likedAuthors);
+        this.mutedAuthors = normalizeAuthors(mutedAuthors);
+        KeywordMatcher.Builder topics = KeywordMatcher.builder();
+        double[] weights = new double[boostedTopics.size()];
+        for (Map.Entry<String, Double> entry : boostedTopics.entrySet()) {
+            int before = topics.size();
+            topics.add(entry.getKey());
+            if (topics.size() > before) {
+                weights[before] = entry.getValue();
+            }
+        }
+        this.boostedTopics = topics.build();
+        this.topicWeights = weights;
+        this.blockedKeywords = KeywordMatcher.of(blockedKeywords);
+        this.adKeywords = KeywordMatcher.of(adKeywords);
+        this.likedAuthorBoost = likedAuthorBoost;
+    }
+
+    public static Preferences empty() {
+        return EMPTY;
+    }
+
+    public boolean isLikedAuthor(Tweet tweet) {
+        return !likedAuthors.isEmpty() && likedAuthors.contains(handleOf(tweet));
+    }
+
+    public boolean isMutedAuthor(Tweet tweet) {
+        return !mutedAuthors.isEmpty() && mutedAuthors.contains(handleOf(tweet));
+    }
+
+    public boolean containsBlockedKeyword(Tweet tweet) {
+        return blockedKeywords.containsAny(tweet.getText());
+    }
+
+    /**
+     * @return 配置的广告关键词，没有配置时为空
+     */
+    public KeywordMatcher adKeywords() {
+        return adKeywords;
+    }
+
+    /**
+     * @return 排序评分的倍数：喜欢的作者乘likedAuthorBoost，再乘命中主题里最大的权重；都不命中为1
+     */
+    public double boost(Tweet tweet) {
+        double boost = isLikedAuthor(tweet) ? likedAuthorBoost : 1.0;
+        if (boostedTopics.isEmpty()) {
+            return boost;
+        }
+        return boost * boostedTopics.maxWeight(tweet.getText(), topicWeights, 1.0);
+    }
+
+    public int likedAuthorCount() {
+        return likedAuthors.size();
+    }
+
+    public int mutedAuthorCount() {
+        return mutedAuthors.size();
+    }
+
+    public int boostedTopicCount() {
+        return boostedTopics.size();
+    }
+
+    public int blockedKeywordCount() {
+        return blockedKeywords.size();
+    }
+
+    private static Set<String> normalizeAuthors(Set<String> authors) {
+        Set<String> normalized = new HashSet<>(authors.size() * 2);
+        for (String author : authors) {
+            String handle = normalizeAuthor(author);
+            if (handle != null && !handle.isEmpty()) {
+                normalized.add(handle);
+            }
+        }
+        return Set.copyOf(normalized);
+    }
+
+    private static String normalizeAuthor(String author) {
+        if (author == null) {
+            return null;
+        }
+        String handle = author.strip();
+        if (handle.startsWith("@")) {
+            handle = handle.substring(1);
+        }
+        return handle.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 推文作者的handle（小写）：url形如 {@code https://x.com/<handle>/status/<id>} 时取链接里的，
+     * 否则取author里最后一个@之后的部分（"Name @handle"），都没有时取整个author
+     */
+    static String handleOf(Tweet tweet) {
+        String url = tweet.getUrl();
+        if (url != null) {
+            int status = url.indexOf("/status/");
+            if (status > 0) {
+                int start = url.lastIndexOf('/', status - 1) + 1;
+                if (start > 0 && start < status) {
+                    return url.substring(start, status).toLowerCase(Locale.ROOT);
+                }
+            }
+        }
+        String author = tweet.getAuthor();
+        if (author == null) {
+            return null;
+        }
+        int at = author.lastIndexOf('@');
+        if (at < 0) {
+            return normalizeAuthor(author);
+        }
+        int end = at + 1;
+        while (end < author.length() && isHandleChar(author.charAt(end))) {
+            end++;
+        }
+        return author.substring(at + 1, end).toLowerCase(Locale.ROOT);
+    }
+
+    private static boolean isHandleChar(char c) {
+        return c == '_' || (c >= '0' && c <= '9') || (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+}
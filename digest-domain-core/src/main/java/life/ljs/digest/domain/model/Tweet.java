@@ -9,6 +9,7 @@ import java.util.Objects;
 public class Tweet {
 
     private final String tweetId;
+    private final TweetId id; // 数字ID，非数字（如测试数据）时为null
     private final String author;
     private final String text;
     private final OffsetDateTime createdAt;
@@ -29,6 +30,13 @@ public class Tweet {
         return tweetId;
     }
 
+    /**
+     * @return 数字形式的推文ID，tweetId不是数字时返回null
+     */
+    public TweetId getId() {
+        return id;
+    }
+
     public String getAuthor() {
         return author;
     }
@@ -87,6 +95,7 @@ public class Tweet {
             String url,
             String language) {
         this.tweetId = tweetId;
+        this.id = TweetId.tryParse(tweetId);
         this.author = author;
         this.text = text;
         this.createdAt = createdAt;
@@ -118,11 +127,14 @@ public class Tweet {
         if (o == null || getClass() != o.getClass())
             return false;
         Tweet tweet = (Tweet) o;
+        if (id != null && tweet.id != null) {
+            return id.value() == tweet.id.value();
+        }
         return Objects.equals(tweetId, tweet.tweetId);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hashCode(tweetId);
+        return id != null ? id.hashCode() : Objects.hashCode(tweetId);
     }
 }
@@ -0,0 +1,129 @@
+package life.ljs.digest.domain.model;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * 推文ID：X的snowflake ID，按long存储
+ * 数值顺序即发布时间顺序（字符串比较会把"999"排在"1000"之后）
+ */
+public final class TweetId implements Comparable<TweetId> {
+
+    /**
+     * snowflake时间戳的起点（2010-11-04T01:42:54.657Z）
+     */
+    public static final long TWITTER_EPOCH_MILLIS = 1288834974657L;
+
+    /**
+     * 第一条snowflake推文的ID，更早的推文ID是自增序号，不含时间戳
+     */
+    public static final long FIRST_SNOWFLAKE = 29700859247L;
+
+    private static final int TIMESTAMP_SHIFT = 22;
+
+    private final long value;
+
+    private TweetId(long value) {
+        this.value = value;
+    }
+
+    public static TweetId of(long value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Tweet ID must not be negative: " + value);
+        }
+        return new TweetId(value);
+    }
+
+    /**
+     * @param tweetId 十进制字符串
+     * @return 解析失败时抛出IllegalArgumentException
+     */
+    public static TweetId parse(String tweetId) {
+        TweetId id = tryParse(tweetId);
+        if (id == null) {
+            throw new IllegalArgumentException("Not a numeric tweet ID: " + tweetId);
+        }
+        return id;
+    }
+
+    /**
+     * 不抛异常的解析，逐字符扫描，避免NumberFormatException的开销
+     * @param tweetId 十进制字符串
+     * @return 为空、非数字或溢出时返回null
+     */
+    public static TweetId tryParse(String tweetId) {
+        if (tweetId == null || tweetId.isEmpty() || tweetId.length() > 19) {
+            return null;
+        }
+        long value = 0;
+        for (int i = 0; i < tweetId.length(); i++) {
+            int digit = tweetId.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return null;
+            }
+            value = value * 10 + digit;
+            if (value < 0) {
+                return null;
+            }
+        }
+        return new TweetId(value);
+    }
+
+    /**
+     * 按时间戳构造snowflake ID，用于测试数据等需要与发布时间一致的ID的场景
+     * @param epochMillis 发布时间
+     * @param sequence 同一毫秒内的序号（低22位）
+     * @return
+     */
+    public static TweetId fromTimestamp(long epochMillis, int sequence) {
+        return of(((epochMillis - TWITTER_EPOCH_MILLIS) << TIMESTAMP_SHIFT) | (sequence & 0x3FFFFF));
+    }
+
+    public long value() {
+        return value;
+    }
+
+    public boolean isSnowflake() {
+        return value >= FIRST_SNOWFLAKE;
+    }
+
+    /**
+     * @return ID中的发布时间（毫秒），非snowflake ID返回-1
+     */
+    public long timestampMillis() {
+        return isSnowflake() ? (value >>> TIMESTAMP_SHIFT) + TWITTER_EPOCH_MILLIS : -1;
+    }
+
+    /**
+     * @return ID中的发布时间（UTC），非snowflake ID返回null
+     */
+    public OffsetDateTime createdAt() {
+        long millis = timestampMillis();
+        return millis < 0 ? null : Instant.ofEpochMilli(millis).atOffset(ZoneOffset.UTC);
+    }
+
+    public boolean isNewerThan(TweetId other) {
+        return other == null || value > other.value;
+    }
+
+    @Override
+    public int compareTo(TweetId other) {
+        return Long.compare(value, other.value);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof TweetId other && value == other.value);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(value);
+    }
+
+    @Override
+    public String toString() {
+        return Long.toString(value);
+    }
+}
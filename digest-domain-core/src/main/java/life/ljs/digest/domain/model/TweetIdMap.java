@@ -0,0 +1,187 @@
+package life.ljs.digest.domain.model;
+
+import java.util.Arrays;
+import java.util.function.LongFunction;
+
+/**
+ * 以long推文ID为键的哈希表（开放寻址，线性探测），键不装箱
+ * 非线程安全
+ * @param <V> 值类型
+ */
+public final class TweetIdMap<V> {
+
+    private static final long EMPTY = -1L;
+
+    private long[] keys;
+    private Object[] values;
+    private int size;
+
+    public TweetIdMap() {
+        this(64);
+    }
+
+    public TweetIdMap(int expectedSize) {
+        int capacity = TweetIdSet.tableSizeFor(expectedSize);
+        keys = newKeys(capacity);
+        values = new Object[capacity];
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(long id) {
+        int i = indexOf(id);
+        return i < 0 ? null : (V) values[i];
+    }
+
+    public V get(TweetId id) {
+        return id == null ? null : get(id.value());
+    }
+
+    public boolean containsKey(long id) {
+        return indexOf(id) >= 0;
+    }
+
+    /**
+     * @return 原来的值，没有时返回null
+     */
+    @SuppressWarnings("unchecked")
+    public V put(long id, V value) {
+        TweetIdSet.checkId(id);
+        if ((size + 1) * 2 > keys.length) {
+            rehash(keys.length * 2);
+        }
+        int mask = keys.length - 1;
+        int i = mix(id) & mask;
+        while (keys[i] != EMPTY) {
+            if (keys[i] == id) {
+                V old = (V) values[i];
+                values[i] = value;
+                return old;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = id;
+        values[i] = value;
+        size++;
+        return null;
+    }
+
+    public V put(TweetId id, V value) {
+        return put(id.value(), value);
+    }
+
+    /**
+     * 删除后把同一探测链上后面的键往前移，不留墓碑
+     * @return 原来的值，没有时返回null
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(long id) {
+        int i = indexOf(id);
+        if (i < 0) {
+            return null;
+        }
+        V old = (V) values[i];
+        int mask = keys.length - 1;
+        int gap = i;
+        int j = i;
+        while (true) {
+            j = (j + 1) & mask;
+            if (keys[j] == EMPTY) {
+                break;
+            }
+            // j的理想位置不在(gap, j]之间时才能挪到gap
+            int home = mix(keys[j]) & mask;
+            if (((j - home) & mask) >= ((j - gap) & mask)) {
+                keys[gap] = keys[j];
+                values[gap] = values[j];
+                gap = j;
+            }
+        }
+        keys[gap] = EMPTY;
+        values[gap] = null;
+        size--;
+        return old;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V computeIfAbsent(long id, LongFunction<V> factory) {
+        int i = indexOf(id);
+        if (i >= 0) {
+            return (V) values[i];
+        }
+        V value = factory.apply(id);
+        put(id, value);
+        return value;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * 遍历所有键值对，顺序不确定
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(Entry<V> action) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY) {
+                action.accept(keys[i], (V) values[i]);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    public interface Entry<V> {
+        void accept(long id, V value);
+    }
+
+    private int indexOf(long id) {
+        if (id < 0) {
+            return -1;
+        }
+        int mask = keys.length - 1;
+        int i = mix(id) & mask;
+        while (keys[i] != EMPTY) {
+            if (keys[i] == id) {
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = newKeys(capacity);
+        values = new Object[capacity];
+        int mask = capacity - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldKeys[j] != EMPTY) {
+                int i = mix(oldKeys[j]) & mask;
+                while (keys[i] != EMPTY) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = oldKeys[j];
+                values[i] = oldValues[j];
+            }
+        }
+    }
+
+    private static long[] newKeys(int capacity) {
+        long[] keys = new long[capacity];
+        Arrays.fill(keys, EMPTY);
+        return keys;
+    }
+
+    /**
+     * snowflake的低位是机器号和序号，分布不均，先打散再取模
+     */
+    static int mix(long id) {
+        long h = id * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,114 @@
+package life.ljs.digest.domain.model;
+
+import java.util.Arrays;
+
+/**
+ * 以long存储推文ID的哈希集合（开放寻址，线性探测）
+ * 去重时不为每个ID创建String/Long对象，适合滚动批次的大量去重
+ * 非线程安全
+ */
+public final class TweetIdSet {
+
+    private static final long EMPTY = -1L;
+
+    private long[] slots;
+    private int size;
+
+    public TweetIdSet() {
+        this(64);
+    }
+
+    public TweetIdSet(int expectedSize) {
+        slots = newSlots(tableSizeFor(expectedSize));
+    }
+
+    /**
+     * @param id 非负的推文ID
+     * @return 集合中原本没有该ID时返回true
+     */
+    public boolean add(long id) {
+        checkId(id);
+        if ((size + 1) * 2 > slots.length) {
+            rehash(slots.length * 2);
+        }
+        int mask = slots.length - 1;
+        int i = TweetIdMap.mix(id) & mask;
+        while (slots[i] != EMPTY) {
+            if (slots[i] == id) {
+                return false;
+            }
+            i = (i + 1) & mask;
+        }
+        slots[i] = id;
+        size++;
+        return true;
+    }
+
+    public boolean add(TweetId id) {
+        return add(id.value());
+    }
+
+    public boolean contains(long id) {
+        if (id < 0) {
+            return false;
+        }
+        int mask = slots.length - 1;
+        int i = TweetIdMap.mix(id) & mask;
+        while (slots[i] != EMPTY) {
+            if (slots[i] == id) {
+                return true;
+            }
+            i = (i + 1) & mask;
+        }
+        return false;
+    }
+
+    public boolean contains(TweetId id) {
+        return id != null && contains(id.value());
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(slots, EMPTY);
+        size = 0;
+    }
+
+    private void rehash(int capacity) {
+        long[] old = slots;
+        slots = newSlots(capacity);
+        int mask = capacity - 1;
+        for (long id : old) {
+            if (id != EMPTY) {
+                int i = TweetIdMap.mix(id) & mask;
+                while (slots[i] != EMPTY) {
+                    i = (i + 1) & mask;
+                }
+                slots[i] = id;
+            }
+        }
+    }
+
+    private static long[] newSlots(int capacity) {
+        long[] slots = new long[capacity];
+        Arrays.fill(slots, EMPTY);
+        return slots;
+    }
+
+    static int tableSizeFor(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize * 2 - 1)) << 1;
+        return Math.max(8, capacity);
+    }
+
+    static void checkId(long id) {
+        if (id < 0) {
+            throw new IllegalArgumentException("Tweet ID must not be negative: " + id);
+        }
+    }
+}
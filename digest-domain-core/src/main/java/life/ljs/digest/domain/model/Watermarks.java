@@ -0,0 +1,44 @@
+package life.ljs.digest.domain.model;
+
+import java.util.Map;
+
+/**
+ * 一次拉取得到的水位线，推送成功后才提交
+ * <p>
+ * 各来源（首页、各个List……）分别记录自己拉取到的最新推文ID：来源之间的推文ID没有先后关系，
+ * 用一个全局的最大ID当水位线会让更新慢的来源停得太早、漏掉内容
+ */
+public final class Watermarks {
+
+    private static final Watermarks NONE = new Watermarks(null, Map.of());
+
+    private final TweetId newest;
+    private final Map<String, TweetId> bySource;
+
+    /**
+     * @param newest 全部来源中最新的推文ID，可为null
+     * @param bySource 来源名 -> 该来源拉取到的最新推文ID，不区分来源的时间线为空
+     */
+    public Watermarks(TweetId newest, Map<String, TweetId> bySource) {
+        this.newest = newest;
+        this.bySource = bySource != null ? Map.copyOf(bySource) : Map.of();
+    }
+
+    public static Watermarks none() {
+        return NONE;
+    }
+
+    /**
+     * @return 全部来源中最新的推文ID，可能为null
+     */
+    public TweetId getNewest() {
+        return newest;
+    }
+
+    /**
+     * @return 来源名 -> 该来源拉取到的最新推文ID
+     */
+    public Map<String, TweetId> getBySource() {
+        return bySource;
+    }
+}
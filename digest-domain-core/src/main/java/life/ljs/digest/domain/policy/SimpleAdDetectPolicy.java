@@ -1,21 +1,48 @@
 package life.ljs.digest.domain.policy;
 
+import life.ljs.digest.domain.model.KeywordMatcher;
+import life.ljs.digest.domain.model.Preferences;
 import life.ljs.digest.domain.model.Tweet;
+import life.ljs.digest.domain.port.PreferenceRepositoryPort;
 
+import java.util.List;
+
+/**
+ * 按关键词判断广告：关键词编译成一个 {@link KeywordMatcher}，每条推文只扫描一次，不复制、不转小写
+ * 偏好里配置了adKeywords时用配置的（随偏好文件热更新），否则用内置的
+ */
 public class SimpleAdDetectPolicy implements AdDetectPolicy {
+
+    static final KeywordMatcher DEFAULT_AD_KEYWORDS = KeywordMatcher.of(List.of(
+            "buy now", "discount", "sale", "limited offer",
+            "promo code", "sponsored"));
+
+    private final PreferenceRepositoryPort preferenceRepositoryPort;
+
+    public SimpleAdDetectPolicy() {
+        this(null);
+    }
+
+    /**
+     * @param preferenceRepositoryPort 可为null；喜欢的作者（白名单）不按关键词判断为广告，
+     *                                 屏蔽的作者（黑名单）在FilterService里已经丢弃
+     */
+    public SimpleAdDetectPolicy(PreferenceRepositoryPort preferenceRepositoryPort) {
+        this.preferenceRepositoryPort = preferenceRepositoryPort;
+    }
+
     @Override
     public boolean isAd(Tweet tweet) {
-        String text = tweet.getText().toLowerCase();
-        String [] adKeywords = {
-                "buy now", "discount", "sale", "limited offer",
-                "promo code", "sponsored"
-        };
-        for (String keyword : adKeywords) {
-            if (text.contains(keyword)) {
-                return true;
+        KeywordMatcher adKeywords = DEFAULT_AD_KEYWORDS;
+        if (preferenceRepositoryPort != null) {
+            Preferences preferences = preferenceRepositoryPort.current();
+            if (preferences.isLikedAuthor(tweet)) {
+                return false;
+            }
+            if (!preferences.adKeywords().isEmpty()) {
+                adKeywords = preferences.adKeywords();
             }
         }
-        //TODO 根据Author白名单/黑名单进一步判断
-        return false;
+        return adKeywords.containsAny(tweet.getText());
     }
 }
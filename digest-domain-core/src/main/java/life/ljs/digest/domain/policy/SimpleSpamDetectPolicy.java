@@ -2,24 +2,162 @@ package life.ljs.digest.domain.policy;
 
 import life.ljs.digest.domain.model.Tweet;
 
+/**
+ * 按码点单次扫描推文文本判断垃圾内容，扫描过程不分配对象
+ * <p>
+ * 以下情况直接判为垃圾：空文本、不足5个字符、去掉#@和空白后没有内容（链接算内容）。
+ * 其余按信号累加分数，达到 {@link Scores#threshold()} 判为垃圾：
+ * <ul>
+ *     <li>只有链接（和#话题/@提及）：图片、视频推文的正文常常只有一个媒体链接，单独不足以判为垃圾</li>
+ *     <li>#话题/@提及占词数的比例过高（只有#话题/@提及时为100%）</li>
+ *     <li>同一字符连续重复过长（"!!!!!!!!!!"、"啊啊啊啊啊啊啊啊啊啊"）</li>
+ *     <li>emoji占非空白字符的比例过高</li>
+ * </ul>
+ */
 public class SimpleSpamDetectPolicy implements SpamDetectPolicy {
 
+    private static final int MIN_LENGTH = 5;
+
+    /**
+     * 各信号的阈值和分数
+     * @param tagRatio #话题/@提及词数 / 总词数 超过该值时计分
+     * @param tagRatioScore
+     * @param repeatedRun 同一字符（不含空白）连续出现达到该次数时计分
+     * @param repeatedRunScore
+     * @param emojiDensity emoji数 / 非空白字符数 超过该值时计分
+     * @param emojiDensityScore
+     * @param urlOnlyScore 除链接外只有#话题/@提及（或什么都没有）时的分数
+     * @param threshold 总分达到该值判为垃圾
+     */
+    public record Scores(double tagRatio, double tagRatioScore,
+                         int repeatedRun, double repeatedRunScore,
+                         double emojiDensity, double emojiDensityScore,
+                         double urlOnlyScore,
+                         double threshold) {
+
+        public static final Scores DEFAULTS = new Scores(0.6, 0.6, 10, 0.5, 0.5, 0.6, 0.5, 1.0);
+    }
+
+    private final Scores scores;
+
+    public SimpleSpamDetectPolicy() {
+        this(Scores.DEFAULTS);
+    }
+
+    public SimpleSpamDetectPolicy(Scores scores) {
+        this.scores = scores;
+    }
+
     @Override
     public boolean isSpam(Tweet tweet) {
         String text = tweet.getText();
-        if (text == null || text.isBlank()) {
+        if (text == null || text.length() < MIN_LENGTH) {
             return true;
         }
 
-        String cleaned = text.replaceAll("[#@\\s]","");
-        if(cleaned.isBlank()){
-            return true;
+        int words = 0;
+        int tagWords = 0;
+        int urlWords = 0;
+        int contentChars = 0;   // 非空白且不是#@的字符
+        int visibleChars = 0;   // 非空白字符，不含emoji的修饰符
+        int emojis = 0;
+        int run = 0;
+        int longestRun = 0;
+        int previous = -1;
+        boolean wordStart = true;
+
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            char c = text.charAt(i);
+            int cp = Character.isHighSurrogate(c) ? text.codePointAt(i) : c;
+            int next = i + Character.charCount(cp);
+            if (isWhitespace(cp)) {
+                wordStart = true;
+                previous = -1;
+                i = next;
+                continue;
+            }
+
+            // 词首：判断是#话题/@提及还是链接，链接整个跳过，不参与字符统计
+            if (wordStart) {
+                wordStart = false;
+                words++;
+                if (cp == 'h' && (text.startsWith("http://", i) || text.startsWith("https://", i))) {
+                    urlWords++;
+                    while (next < length && !isWhitespace(text.charAt(next))) {
+                        next++;
+                    }
+                    previous = -1;
+                    i = next;
+                    continue;
+                }
+                if (cp == '#' || cp == '@') {
+                    tagWords++;
+                }
+            }
+
+            i = next;
+            if (isEmojiModifier(cp)) {
+                continue;
+            }
+            visibleChars++;
+            if (cp != '#' && cp != '@') {
+                contentChars++;
+            }
+            if (isEmoji(cp)) {
+                emojis++;
+            }
+            run = cp == previous ? run + 1 : 1;
+            if (run > longestRun) {
+                longestRun = run;
+            }
+            previous = cp;
         }
 
-        if(text.length() < 5){
+        if (urlWords == 0 && contentChars == 0) {
             return true;
         }
 
-        return false;
+        double score = 0;
+        if (urlWords > 0 && urlWords + tagWords == words) {
+            score += scores.urlOnlyScore();
+        }
+        if (words > 0 && (double) tagWords / words > scores.tagRatio()) {
+            score += scores.tagRatioScore();
+        }
+        if (longestRun >= scores.repeatedRun()) {
+            score += scores.repeatedRunScore();
+        }
+        if (visibleChars > 0 && (double) emojis / visibleChars > scores.emojiDensity()) {
+            score += scores.emojiDensityScore();
+        }
+        return score >= scores.threshold();
+    }
+
+    /**
+     * 与 {@link Character#isWhitespace(int)} 一致，ASCII走快速路径
+     */
+    private static boolean isWhitespace(int cp) {
+        if (cp < 0x80) {
+            return cp == ' ' || (cp >= 0x09 && cp <= 0x0D) || (cp >= 0x1C && cp <= 0x1F);
+        }
+        return Character.isWhitespace(cp);
+    }
+
+    /**
+     * 常见emoji所在的区段：杂项符号与箭头、装饰符号、补充平面的表情/交通/符号等
+     */
+    private static boolean isEmoji(int cp) {
+        return (cp >= 0x1F000 && cp <= 0x1FAFF)
+                || (cp >= 0x2600 && cp <= 0x27BF)
+                || (cp >= 0x2B00 && cp <= 0x2BFF);
+    }
+
+    /**
+     * 变体选择符、零宽连接符和肤色修饰符，组合emoji的一部分，不单独计数
+     */
+    private static boolean isEmojiModifier(int cp) {
+        return cp == 0xFE0F || cp == 0x200D || (cp >= 0x1F3FB && cp <= 0x1F3FF);
     }
 }
@@ -0,0 +1,38 @@
+package life.ljs.digest.domain.policy;
+
+import life.ljs.digest.domain.model.Tweet;
+
+import java.util.function.Predicate;
+
+/**
+ * 过滤链中的一环，{@link life.ljs.digest.domain.service.FilterService} 按运行时统计的耗时和丢弃率调整各环的顺序，
+ * 所以实现不应依赖其他过滤器先执行。可能被多个线程同时调用。
+ */
+public interface TweetFilter {
+
+    /**
+     * 统计和日志里使用的名字
+     * @return
+     */
+    String name();
+
+    /**
+     * @param tweet
+     * @return false时丢弃该tweet，后面的过滤器不再执行
+     */
+    boolean accept(Tweet tweet);
+
+    static TweetFilter of(String name, Predicate<Tweet> accept) {
+        return new TweetFilter() {
+            @Override
+            public String name() {
+                return name;
+            }
+
+            @Override
+            public boolean accept(Tweet tweet) {
+                return accept.test(tweet);
+            }
+        };
+    }
+}
@@ -0,0 +1,78 @@
+package life.ljs.digest.domain.policy;
+
+import life.ljs.digest.domain.model.EngagementSnapshot;
+import life.ljs.digest.domain.model.Tweet;
+import life.ljs.digest.domain.model.TweetId;
+import life.ljs.digest.domain.port.EngagementHistoryPort;
+
+/**
+ * 按互动增速 + 时间衰减评分，让快速上涨的新推文排在早已爆火的旧推文前面
+ * <p>
+ * 互动量按 {@link DefaultEngagementScorePolicy} 的权重加权；
+ * 有之前运行留下的快照时，增速 = 两次观察之间的互动增量 / 间隔小时数，
+ * 没有时退化为发布以来的平均增速 = 当前互动量 / 发布小时数。
+ * 最终评分 = 增速 * 0.5^(发布小时数 / 半衰期)
+ */
+public class VelocityEngagementScorePolicy implements EngagementScorePolicy {
+
+    private static final double MILLIS_PER_HOUR = 3_600_000d;
+    /**
+     * 刚发布几分钟的推文按15分钟算，避免除以接近0的时长把增速放大
+     */
+    private static final double MIN_HOURS = 0.25;
+
+    private final EngagementHistoryPort engagementHistoryPort;
+    private final double halfLifeHours;
+    private final long minIntervalMillis;
+
+    /**
+     * @param engagementHistoryPort
+     * @param halfLifeHours 时间衰减的半衰期
+     * @param minIntervalMinutes 与当前观察相隔不足该时长的快照（即本次拉取刚记录的）不作为基线
+     */
+    public VelocityEngagementScorePolicy(EngagementHistoryPort engagementHistoryPort,
+                                         double halfLifeHours,
+                                         long minIntervalMinutes) {
+        this.engagementHistoryPort = engagementHistoryPort;
+        this.halfLifeHours = halfLifeHours;
+        this.minIntervalMillis = minIntervalMinutes * 60_000L;
+    }
+
+    @Override
+    public double score(Tweet tweet) {
+        long now = System.currentTimeMillis();
+        double engagement = weighted(tweet.getLikeCount(), tweet.getRetweetCount(), tweet.getReplyCount());
+        long postedAt = postedAtMillis(tweet, now);
+        double ageHours = Math.max(MIN_HOURS, (now - postedAt) / MILLIS_PER_HOUR);
+
+        double velocity = engagement / ageHours;
+        TweetId id = tweet.getId();
+        if (id != null) {
+            EngagementSnapshot baseline = engagementHistoryPort.latestBefore(id, now - minIntervalMillis);
+            if (baseline != null && baseline.getObservedAtMillis() >= postedAt) {
+                double hours = Math.max(MIN_HOURS, (now - baseline.getObservedAtMillis()) / MILLIS_PER_HOUR);
+                double before = weighted(baseline.getLikeCount(), baseline.getRetweetCount(),
+                        baseline.getReplyCount());
+                velocity = Math.max(0, engagement - before) / hours;
+            }
+        }
+        return velocity * Math.pow(0.5, ageHours / halfLifeHours);
+    }
+
+    private static double weighted(long likes, long retweets, long replies) {
+        return 0.5 * likes + 1.2 * retweets + 1.5 * replies;
+    }
+
+    /**
+     * 优先用createdAt，缺失时用snowflake ID里的时间戳，都没有时当作刚发布
+     */
+    private static long postedAtMillis(Tweet tweet, long now) {
+        if (tweet.getCreatedAt() != null) {
+            return tweet.getCreatedAt().toInstant().toEpochMilli();
+        }
+        if (tweet.getId() != null && tweet.getId().isSnowflake()) {
+            return tweet.getId().timestampMillis();
+        }
+        return now;
+    }
+}
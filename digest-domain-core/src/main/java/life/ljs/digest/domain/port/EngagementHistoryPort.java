@@ -0,0 +1,29 @@
+package life.ljs.digest.domain.port;
+
+import life.ljs.digest.domain.model.EngagementSnapshot;
+import life.ljs.digest.domain.model.Tweet;
+import life.ljs.digest.domain.model.TweetId;
+
+import java.util.List;
+
+/**
+ * 按推文ID记录每次拉取时的互动量，形成时间序列，用于计算互动增速
+ */
+public interface EngagementHistoryPort {
+
+    /**
+     * 记录一批tweets当前的互动量，没有数字ID的忽略
+     * @param tweets
+     * @param observedAtMillis 观察时间
+     */
+    void record(List<Tweet> tweets, long observedAtMillis);
+
+    /**
+     * 查询观察时间早于beforeMillis的最近一次快照，O(1)
+     * 只检查最近两次快照，都不早于beforeMillis时返回null
+     * @param id
+     * @param beforeMillis
+     * @return 没有记录时返回null
+     */
+    EngagementSnapshot latestBefore(TweetId id, long beforeMillis);
+}
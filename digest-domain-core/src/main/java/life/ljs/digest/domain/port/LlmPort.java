@@ -31,4 +31,12 @@ public interface LlmPort {
      */
     String summarizeBatch(List<TopicCluster> clusters, List<Tweet> top3);
 
+    /**
+     * 决定单条摘要结果的配置（模型、提示词模板等）的标识，作为摘要缓存key的一部分，
+     * 配置变化后旧缓存自然失效
+     * @return null表示摘要结果不可缓存
+     */
+    default String summaryFingerprint() {
+        return null;
+    }
 }
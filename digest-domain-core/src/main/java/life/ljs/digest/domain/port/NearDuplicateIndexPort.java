@@ -0,0 +1,27 @@
+package life.ljs.digest.domain.port;
+
+import life.ljs.digest.domain.model.Tweet;
+import life.ljs.digest.domain.model.TweetId;
+
+import java.util.List;
+
+/**
+ * 跨运行的近似重复索引：记录已经推送过的tweets的MinHash签名，保留一个滚动时间窗口
+ */
+public interface NearDuplicateIndexPort {
+
+    /**
+     * 查找窗口内与签名相似的已记录推文
+     * @param signature {@link life.ljs.digest.domain.model.MinHash#signature(String)} 的结果
+     * @param minSimilarity 估计的Jaccard相似度下限
+     * @return 没有时返回null
+     */
+    TweetId findNear(int[] signature, double minSimilarity);
+
+    /**
+     * 记录一批tweets的签名，没有数字ID或没有文字内容的忽略
+     * @param tweets
+     * @param observedAtMillis
+     */
+    void record(List<Tweet> tweets, long observedAtMillis);
+}
@@ -1,5 +1,16 @@
 package life.ljs.digest.domain.port;
 
+import life.ljs.digest.domain.model.Preferences;
+
+/**
+ * 记录喜欢哪些作者、喜欢哪些主题、屏蔽哪些关键词
+ */
 public interface PreferenceRepositoryPort {
-    // TODO 记录喜欢哪些作者、喜欢哪些主题、屏蔽哪些关键词
+
+    /**
+     * 当前生效的偏好，来源变化后返回新的快照
+     * 调用方在一批处理内应持有同一个快照
+     * @return 没有配置时返回 {@link Preferences#empty()}
+     */
+    Preferences current();
 }
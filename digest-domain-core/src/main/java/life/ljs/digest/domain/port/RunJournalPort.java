@@ -0,0 +1,27 @@
+package life.ljs.digest.domain.port;
+
+import life.ljs.digest.domain.model.DigestRun;
+
+/**
+ * 运行日志：按runId持久化每个阶段的产出，进程退出或运行失败后可以从最近完成的阶段继续
+ */
+public interface RunJournalPort {
+
+    /**
+     * 持久化当前阶段的产出并把该阶段记为已完成
+     * 同一阶段可以重复保存（如摘要进度），后一次覆盖前一次
+     * @param run
+     */
+    void save(DigestRun run);
+
+    /**
+     * @return 最早一次未完成的运行，没有时返回null
+     */
+    DigestRun loadIncomplete();
+
+    /**
+     * 运行已结束（完成或放弃），删除其日志
+     * @param run
+     */
+    void complete(DigestRun run);
+}
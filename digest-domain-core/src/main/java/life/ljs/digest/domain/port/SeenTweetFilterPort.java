@@ -0,0 +1,25 @@
+package life.ljs.digest.domain.port;
+
+import life.ljs.digest.domain.model.TweetId;
+
+import java.util.Collection;
+
+/**
+ * 记录已处理过的推文ID的概率型集合（固定内存，按时间轮换）
+ * mightContain可能误报（把没见过的当成见过），不会漏报
+ */
+public interface SeenTweetFilterPort {
+
+    boolean mightContain(TweetId id);
+
+    /**
+     * 记录一批已处理的ID并持久化
+     * @param ids
+     */
+    void markSeen(Collection<TweetId> ids);
+
+    /**
+     * @return 按当前填充程度估算的误报率
+     */
+    double estimatedFalsePositiveRate();
+}
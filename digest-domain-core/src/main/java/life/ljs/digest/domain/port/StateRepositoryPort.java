@@ -1,19 +1,53 @@
 package life.ljs.digest.domain.port;
 
 /**
- * 记住lastSeenTweetId
+ * 记住lastSeenTweetId等需要跨重启保留的状态
+ * 状态按key存取，不同来源/用途使用不同的key
  */
 public interface StateRepositoryPort {
+
+    /**
+     * 默认时间线的lastSeenTweetId使用的key
+     */
+    String LAST_SEEN_TWEET_ID = "timeline.lastSeenTweetId";
+
+    /**
+     * 某个来源的lastSeenTweetId使用的key
+     * @param source 来源名，为null时即 {@link #LAST_SEEN_TWEET_ID}
+     * @return
+     */
+    static String lastSeenTweetIdKey(String source) {
+        return source == null ? LAST_SEEN_TWEET_ID : LAST_SEEN_TWEET_ID + "." + source;
+    }
+
+    /**
+     * 读取状态
+     * @param key
+     * @return 没有记录时返回null
+     */
+    String load(String key);
+
+    /**
+     * 写入状态，value为null时删除该key
+     * @param key
+     * @param value
+     */
+    void save(String key, String value);
+
     /**
      * 读取上一次的lastSeenTweetId
      * 若没有记录，可以返回 null
      * @return
      */
-    String loadLastSeenTweetId();
+    default String loadLastSeenTweetId() {
+        return load(LAST_SEEN_TWEET_ID);
+    }
 
     /**
      * 更新lastSeenTweetId
      * @param tweetId
      */
-    void saveLastSeenTweetId(String tweetId);
+    default void saveLastSeenTweetId(String tweetId) {
+        save(LAST_SEEN_TWEET_ID, tweetId);
+    }
 }
@@ -0,0 +1,44 @@
+package life.ljs.digest.domain.port;
+
+import life.ljs.digest.domain.model.Tweet;
+import life.ljs.digest.domain.model.TweetId;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * 边滚动边推送tweets的时间线，让过滤、排序与浏览器I/O并行
+ */
+public interface StreamingTimelinePort extends TimelinePort {
+    /**
+     * 拉取时间线上的最新tweets，每滚动一次推送一批
+     * @param lastSeenTweetId 可为空，语义同 {@link TimelinePort#fetchLatestTweets(String)}
+     * @param sink 在拉取线程上被调用，返回后才继续下一次滚动等待
+     */
+    void streamLatestTweets(String lastSeenTweetId, TweetBatchSink sink);
+
+    /**
+     * 有多个来源时每个来源使用自己的lastSeenTweetId，并分别报告拉取到的最新推文ID
+     * <p>
+     * 默认不区分来源：用 {@code lastSeenTweetIds.apply(null)} 拉取，返回空Map
+     * @param lastSeenTweetIds 来源名 -> 该来源的lastSeenTweetId（可为null）
+     * @param sink 同 {@link #streamLatestTweets(String, TweetBatchSink)}
+     * @return 来源名 -> 该来源本次拉取到的最新推文ID，没有拉取到数字ID的来源不在其中
+     */
+    default Map<String, TweetId> streamLatestTweets(Function<String, String> lastSeenTweetIds, TweetBatchSink sink) {
+        streamLatestTweets(lastSeenTweetIds.apply(null), sink);
+        return Map.of();
+    }
+
+    /**
+     * 列表形式：收集全部批次后一次性返回
+     */
+    @Override
+    default List<Tweet> fetchLatestTweets(String lastSeenTweetId) {
+        List<Tweet> tweets = new ArrayList<>();
+        streamLatestTweets(lastSeenTweetId, tweets::addAll);
+        return tweets;
+    }
+}
@@ -0,0 +1,33 @@
+package life.ljs.digest.domain.port;
+
+import life.ljs.digest.domain.model.Tweet;
+
+import java.util.List;
+
+/**
+ * 接收时间线按滚动批次推送的tweets
+ */
+@FunctionalInterface
+public interface TweetBatchSink {
+    /**
+     * 接收一批新tweets（同一次拉取内已去重）
+     * @param batch
+     */
+    void accept(List<Tweet> batch);
+
+    /**
+     * 接收不作为新tweets处理、但本次拉取看到了的tweets（水位线以下的、本次已推送过又出现的），带着当前的互动数，
+     * 用于记录互动量快照和更新已有候选的互动数；默认忽略
+     * @param tweets
+     */
+    default void observe(List<Tweet> tweets) {
+    }
+
+    /**
+     * 消费方是否要求提前结束本次拉取，默认不结束
+     * @return
+     */
+    default boolean isCancelled() {
+        return false;
+    }
+}
@@ -0,0 +1,35 @@
+package life.ljs.digest.domain.port;
+
+import life.ljs.digest.domain.model.Tweet;
+import life.ljs.digest.domain.model.TweetId;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+/**
+ * 本地推文存储：保存每次拉取到的tweets，用于重新处理失败运行拉取到的tweets和历史查询（跨运行去重见SeenTweetService）
+ */
+public interface TweetStorePort {
+
+    /**
+     * 追加一批tweets，已存在的ID会被忽略
+     * @param tweets
+     * @return 实际写入的条数
+     */
+    int append(List<Tweet> tweets);
+
+    boolean contains(TweetId id);
+
+    /**
+     * @param id
+     * @return 不存在（或已过期清理）时返回null
+     */
+    Tweet find(TweetId id);
+
+    /**
+     * 读取存入时间不早于since的tweets，按写入顺序返回
+     * @param since
+     * @return
+     */
+    List<Tweet> findStoredSince(OffsetDateTime since);
+}
@@ -8,6 +8,7 @@ import life.ljs.digest.domain.port.LlmPort;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
+import java.util.function.Consumer;
 import java.time.OffsetDateTime;
 import java.util.stream.Collectors;
 
@@ -24,28 +25,56 @@ public class DigestBuildService {
         if(topTweets == null){
             topTweets = new ArrayList<>();
         }
-        List<Tweet> tweetsWithSummary = topTweets.stream()
-                .map(this::appendSummaryAsSideEffect)
-                .collect(Collectors.toList());
-        List<TopicCluster> clusters = llmPort.clusterTweets(tweetsWithSummary);
-        List<Tweet> top3 = tweetsWithSummary.stream()
-                .sorted(Comparator.comparingLong(Tweet::engagementScore).reversed())
-                .limit(3)
-                .collect(Collectors.toList());
+        summarize(topTweets, tweet -> { });
+        List<TopicCluster> clusters = cluster(topTweets);
+        String overview = overview(clusters, topTweets);
+        return assemble(topTweets, clusters, overview, windowStart, windowEnd);
+    }
+
+    // ===== 分阶段调用，供可恢复的运行逐步保存进度 =====
+
+    /**
+     * 为还没有摘要的tweets逐条生成摘要（已有摘要的跳过，恢复运行时不重复调用）
+     * @param tweets
+     * @param onSummarized 每生成一条后回调
+     */
+    public void summarize(List<Tweet> tweets, Consumer<Tweet> onSummarized) {
+        for (Tweet tweet : tweets) {
+            if (tweet.getSummary() != null) {
+                continue;
+            }
+            llmPort.summarizeTweet(tweet);
+            onSummarized.accept(tweet);
+        }
+    }
+
+    public List<TopicCluster> cluster(List<Tweet> tweetsWithSummary) {
+        return llmPort.clusterTweets(tweetsWithSummary);
+    }
+
+    public String overview(List<TopicCluster> clusters, List<Tweet> tweetsWithSummary) {
+        return llmPort.summarizeBatch(clusters, top3(tweetsWithSummary));
+    }
 
-        String overview = llmPort.summarizeBatch(clusters, top3);
+    public DigestBatch assemble(List<Tweet> tweetsWithSummary,
+                                List<TopicCluster> clusters,
+                                String overview,
+                                OffsetDateTime windowStart,
+                                OffsetDateTime windowEnd) {
         return new DigestBatch(
                 windowStart,
                 windowEnd,
-                top3,
+                top3(tweetsWithSummary),
                 clusters,
                 tweetsWithSummary,
                 overview
         );
     }
 
-    private Tweet appendSummaryAsSideEffect(Tweet tweet) {
-        llmPort.summarizeTweet(tweet);
-        return tweet;
+    private List<Tweet> top3(List<Tweet> tweets) {
+        return tweets.stream()
+                .sorted(Comparator.comparingLong(Tweet::engagementScore).reversed())
+                .limit(3)
+                .collect(Collectors.toList());
     }
 }
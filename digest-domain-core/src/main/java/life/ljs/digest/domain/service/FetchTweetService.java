@@ -1,30 +1,230 @@
 package life.ljs.digest.domain.service;
 
 import life.ljs.digest.domain.model.Tweet;
+import life.ljs.digest.domain.model.TweetId;
+import life.ljs.digest.domain.model.TweetIdSet;
+import life.ljs.digest.domain.model.Watermarks;
+import life.ljs.digest.domain.port.EngagementHistoryPort;
 import life.ljs.digest.domain.port.StateRepositoryPort;
+import life.ljs.digest.domain.port.StreamingTimelinePort;
 import life.ljs.digest.domain.port.TimelinePort;
+import life.ljs.digest.domain.port.TweetStorePort;
+import life.ljs.digest.domain.port.TweetBatchSink;
 
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public class FetchTweetService {
 
     private final TimelinePort timelinePort;
     private final StateRepositoryPort stateRepositoryPort;
+    private final TweetStorePort tweetStorePort;
+    private final EngagementHistoryPort engagementHistoryPort;
+    private final Duration reprocessWindow;
 
     public FetchTweetService(TimelinePort timelinePort, StateRepositoryPort stateRepositoryPort) {
+        this(timelinePort, stateRepositoryPort, null);
+    }
+
+    /**
+     * @param tweetStorePort 可为null；提供时每批新tweets都会入库（历史记录，跨运行去重见SeenTweetService）
+     */
+    public FetchTweetService(TimelinePort timelinePort, StateRepositoryPort stateRepositoryPort,
+                             TweetStorePort tweetStorePort) {
+        this(timelinePort, stateRepositoryPort, tweetStorePort, null);
+    }
+
+    /**
+     * @param tweetStorePort 可为null
+     * @param engagementHistoryPort 可为null；提供时记录每次拉取到的互动量快照
+     */
+    public FetchTweetService(TimelinePort timelinePort, StateRepositoryPort stateRepositoryPort,
+                             TweetStorePort tweetStorePort, EngagementHistoryPort engagementHistoryPort) {
+        this(timelinePort, stateRepositoryPort, tweetStorePort, engagementHistoryPort, null);
+    }
+
+    /**
+     * @param tweetStorePort 可为null
+     * @param engagementHistoryPort 可为null
+     * @param reprocessWindow 可为null；提供了tweetStorePort时，每次拉取后把这段时间内入库的tweets也推送给sink
+     *                        （本次已拉取到的除外），由下游的SeenTweetService丢掉已处理过的，
+     *                        这样失败或放弃的运行拉取到的tweets下次还会被处理
+     */
+    public FetchTweetService(TimelinePort timelinePort, StateRepositoryPort stateRepositoryPort,
+                             TweetStorePort tweetStorePort, EngagementHistoryPort engagementHistoryPort,
+                             Duration reprocessWindow) {
+        this.reprocessWindow = reprocessWindow;
         this.timelinePort = timelinePort;
         this.stateRepositoryPort = stateRepositoryPort;
+        this.tweetStorePort = tweetStorePort;
+        this.engagementHistoryPort = engagementHistoryPort;
     }
 
     public List<Tweet> fetchNewTweets() {
-        String lastSeenTweetId = stateRepositoryPort.loadLastSeenTweetId();
-        List<Tweet> tweets = timelinePort.fetchLatestTweets(lastSeenTweetId);
-
-        //更新lastSeenTweetId:取本次返回中最新一条
-        tweets.stream()
-                .map(Tweet::getTweetId)
-                .max(String::compareTo)
-                .ifPresent(stateRepositoryPort::saveLastSeenTweetId);
+        List<Tweet> tweets = new ArrayList<>();
+        fetchNewTweets(tweets::addAll);
         return tweets;
     }
+
+    /**
+     * 流式拉取：时间线每滚动一次就把新tweets交给sink，
+     * 不支持流式的TimelinePort则整体作为一批推送；跨批次重复的tweet只推送一次
+     * @param sink
+     */
+    public void fetchNewTweets(TweetBatchSink sink) {
+        commitWatermark(fetchNewTweetsUncommitted(sink));
+    }
+
+    /**
+     * 同 {@link #fetchNewTweets(TweetBatchSink)}，但不更新lastSeenTweetId，
+     * 由调用方在下游处理成功后再 {@link #commitWatermark(Watermarks)}
+     * @param sink
+     * @return 本次拉取到的数值最大（最新）的推文ID，以及各来源分别的
+     */
+    public Watermarks fetchNewTweetsUncommitted(TweetBatchSink sink) {
+        NewestIdTracker tracker = new NewestIdTracker(sink, tweetStorePort, engagementHistoryPort);
+
+        Map<String, TweetId> bySource = Map.of();
+        if (timelinePort instanceof StreamingTimelinePort streamingTimelinePort) {
+            bySource = streamingTimelinePort.streamLatestTweets(this::loadLastSeenTweetId, tracker);
+        } else {
+            tracker.accept(timelinePort.fetchLatestTweets(stateRepositoryPort.loadLastSeenTweetId()));
+        }
+        if (tweetStorePort != null && reprocessWindow != null && !reprocessWindow.isZero()) {
+            tracker.replay(tweetStorePort.findStoredSince(OffsetDateTime.now().minus(reprocessWindow)));
+        }
+        return new Watermarks(tracker.newestId, bySource);
+    }
+
+    /**
+     * 更新全局的和各来源的lastSeenTweetId，每个key分别只前进不后退
+     * @param watermarks 可为null
+     */
+    public void commitWatermark(Watermarks watermarks) {
+        if (watermarks == null) {
+            return;
+        }
+        commitWatermark(StateRepositoryPort.LAST_SEEN_TWEET_ID, watermarks.getNewest());
+        watermarks.getBySource().forEach((source, newestId) ->
+                commitWatermark(StateRepositoryPort.lastSeenTweetIdKey(source), newestId));
+    }
+
+    private void commitWatermark(String key, TweetId newestId) {
+        if (newestId != null && newestId.isNewerThan(TweetId.tryParse(stateRepositoryPort.load(key)))) {
+            stateRepositoryPort.save(key, newestId.toString());
+        }
+    }
+
+    /**
+     * 新加入的来源没有记录，返回null，不借用全局的（那是其他来源的进度）；
+     * 首次拉取滚动到上限为止，重复的由下游的SeenTweetService丢掉
+     * @param source 来源名，为null时为全局的
+     * @return 该来源的lastSeenTweetId
+     */
+    private String loadLastSeenTweetId(String source) {
+        return stateRepositoryPort.load(StateRepositoryPort.lastSeenTweetIdKey(source));
+    }
+
+    /**
+     * 本次运行内去重、入库、记录互动量快照，并记录最大的推文ID
+     * <p>
+     * 水位线以下的tweets只经 {@link #observe(List)} 记录互动量快照，这样之后的运行才有更早的快照可比；
+     * 每个ID每次运行只记录一次，避免同一次拉取的多个快照挤掉上一次运行的。
+     * 本次已交给下游的tweets再次出现时不再记录快照，只把新的互动数交给下游
+     */
+    private static final class NewestIdTracker implements TweetBatchSink {
+        private final TweetBatchSink downstream;
+        private final TweetStorePort tweetStorePort;
+        private final EngagementHistoryPort engagementHistoryPort;
+        private final TweetIdSet seenIds = new TweetIdSet(256);
+        private final TweetIdSet observedIds = new TweetIdSet(256);
+        private final Set<String> seenNonNumericIds = new HashSet<>();
+        private TweetId newestId;
+
+        private NewestIdTracker(TweetBatchSink downstream, TweetStorePort tweetStorePort,
+                                EngagementHistoryPort engagementHistoryPort) {
+            this.downstream = downstream;
+            this.tweetStorePort = tweetStorePort;
+            this.engagementHistoryPort = engagementHistoryPort;
+        }
+
+        @Override
+        public void accept(List<Tweet> batch) {
+            List<Tweet> fresh = new ArrayList<>(batch.size());
+            for (Tweet tweet : batch) {
+                TweetId id = tweet.getId();
+                if (id == null) {
+                    if (seenNonNumericIds.add(tweet.getTweetId())) {
+                        fresh.add(tweet);
+                    }
+                    continue;
+                }
+                if (!seenIds.add(id)) {
+                    continue;
+                }
+                if (id.isNewerThan(newestId)) {
+                    newestId = id;
+                }
+                fresh.add(tweet);
+            }
+            if (tweetStorePort != null && !fresh.isEmpty()) {
+                tweetStorePort.append(fresh);
+            }
+            if (engagementHistoryPort != null && !fresh.isEmpty()) {
+                engagementHistoryPort.record(fresh, System.currentTimeMillis());
+            }
+            if (!fresh.isEmpty()) {
+                downstream.accept(fresh);
+            }
+        }
+
+        @Override
+        public void observe(List<Tweet> tweets) {
+            List<Tweet> unrecorded = new ArrayList<>(tweets.size());
+            List<Tweet> resighted = new ArrayList<>();
+            for (Tweet tweet : tweets) {
+                TweetId id = tweet.getId();
+                if (id == null) {
+                    continue;
+                }
+                if (seenIds.contains(id)) {
+                    resighted.add(tweet);
+                } else if (observedIds.add(id)) {
+                    unrecorded.add(tweet);
+                }
+            }
+            if (engagementHistoryPort != null && !unrecorded.isEmpty()) {
+                engagementHistoryPort.record(unrecorded, System.currentTimeMillis());
+            }
+            if (!resighted.isEmpty()) {
+                downstream.observe(resighted);
+            }
+        }
+
+        /**
+         * 推送之前入库的tweets：只做本次运行内去重，不再入库、不记录互动量快照（互动数是入库时的），也不影响newestId
+         */
+        private void replay(List<Tweet> stored) {
+            List<Tweet> fresh = new ArrayList<>();
+            for (Tweet tweet : stored) {
+                TweetId id = tweet.getId();
+                if (id != null && seenIds.add(id)) {
+                    fresh.add(tweet);
+                }
+            }
+            if (!fresh.isEmpty()) {
+                downstream.accept(fresh);
+            }
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return downstream.isCancelled();
+        }
+    }
 }
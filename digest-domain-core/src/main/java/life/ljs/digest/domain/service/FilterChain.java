@@ -0,0 +1,182 @@
+package life.ljs.digest.domain.service;
+
+import life.ljs.digest.domain.model.Tweet;
+import life.ljs.digest.domain.policy.TweetFilter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 自适应顺序的过滤链：遇到第一个拒绝的过滤器就停止，并按运行时统计不断调整顺序
+ * <p>
+ * 每个过滤器记录检查和丢弃的条数，耗时按1/16抽样计时（nanoTime本身的开销与简单过滤器相当）。
+ * 每处理约 {@value #REORDER_INTERVAL} 条，用这段时间内的统计（指数平滑）估计每个过滤器的单条耗时c和丢弃率p，
+ * 按 c / p 从小到大排序：又便宜又能丢掉很多的先执行，相互独立的过滤器这样排平均总耗时最小。
+ * 从没丢弃过的过滤器排最后，之间保持注册顺序。
+ * <p>
+ * 线程安全：计数用LongAdder，调整顺序时替换整个数组，同一时间只有一个线程在调整。
+ */
+public class FilterChain {
+
+    static final int REORDER_INTERVAL = 1024;
+    private static final int TIMING_SAMPLE_RATE = 16;
+    private static final double SMOOTHING = 0.3;
+
+    private final Stage[] stages;
+    private volatile Stage[] order;
+
+    private final LongAdder processed = new LongAdder();
+    private final AtomicBoolean reordering = new AtomicBoolean();
+    private volatile long nextReorderAt = REORDER_INTERVAL;
+
+    public FilterChain(List<TweetFilter> filters) {
+        this.stages = new Stage[filters.size()];
+        for (int i = 0; i < stages.length; i++) {
+            stages[i] = new Stage(filters.get(i), i);
+        }
+        this.order = stages.clone();
+    }
+
+    /**
+     * @param tweet
+     * @return 所有过滤器都接受时返回true
+     */
+    public boolean accept(Tweet tweet) {
+        processed.increment();
+        boolean timed = ThreadLocalRandom.current().nextInt(TIMING_SAMPLE_RATE) == 0;
+        boolean accepted = true;
+        for (Stage stage : order) {
+            if (!stage.test(tweet, timed)) {
+                accepted = false;
+                break;
+            }
+        }
+        // 只在抽样计时的那些条上检查，避免每条都汇总LongAdder
+        if (timed && processed.sum() >= nextReorderAt) {
+            reorder();
+        }
+        return accepted;
+    }
+
+    /**
+     * @return 每个过滤器启动以来的统计，按当前执行顺序
+     */
+    public List<Stats> stats() {
+        List<Stats> stats = new ArrayList<>(stages.length);
+        for (Stage stage : order) {
+            stats.add(stage.stats());
+        }
+        return stats;
+    }
+
+    private void reorder() {
+        if (!reordering.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            for (Stage stage : stages) {
+                stage.updateEstimates();
+            }
+            Stage[] sorted = stages.clone();
+            Arrays.sort(sorted, Comparator.comparingDouble(Stage::rank).thenComparingInt(s -> s.position));
+            order = sorted;
+            nextReorderAt = processed.sum() + REORDER_INTERVAL;
+        } finally {
+            reordering.set(false);
+        }
+    }
+
+    /**
+     * @param name
+     * @param evaluated 检查的条数
+     * @param rejected 丢弃的条数
+     * @param avgNanos 抽样得到的单条平均耗时
+     */
+    public record Stats(String name, long evaluated, long rejected, double avgNanos) {
+
+        public double rejectionRate() {
+            return evaluated > 0 ? (double) rejected / evaluated : 0;
+        }
+    }
+
+    private static final class Stage {
+        private final TweetFilter filter;
+        private final int position;
+        private final LongAdder evaluated = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private final LongAdder timedCount = new LongAdder();
+        private final LongAdder timedNanos = new LongAdder();
+
+        // 以下只在调整顺序时访问（由reordering保证只有一个线程）
+        private long lastEvaluated;
+        private long lastRejected;
+        private long lastTimedCount;
+        private long lastTimedNanos;
+        private double cost = -1;
+        private double rejection = -1;
+
+        private Stage(TweetFilter filter, int position) {
+            this.filter = filter;
+            this.position = position;
+        }
+
+        private boolean test(Tweet tweet, boolean timed) {
+            boolean accepted;
+            if (timed) {
+                long start = System.nanoTime();
+                accepted = filter.accept(tweet);
+                timedNanos.add(System.nanoTime() - start);
+                timedCount.increment();
+            } else {
+                accepted = filter.accept(tweet);
+            }
+            evaluated.increment();
+            if (!accepted) {
+                rejected.increment();
+            }
+            return accepted;
+        }
+
+        private void updateEstimates() {
+            long evaluatedNow = evaluated.sum();
+            long rejectedNow = rejected.sum();
+            long timedCountNow = timedCount.sum();
+            long timedNanosNow = timedNanos.sum();
+            // 这段时间没轮到的过滤器（前面的都拒绝了）保留原来的估计
+            if (evaluatedNow > lastEvaluated) {
+                double windowRejection = (double) (rejectedNow - lastRejected) / (evaluatedNow - lastEvaluated);
+                rejection = rejection < 0 ? windowRejection : smooth(rejection, windowRejection);
+            }
+            if (timedCountNow > lastTimedCount) {
+                double windowCost = (double) (timedNanosNow - lastTimedNanos) / (timedCountNow - lastTimedCount);
+                cost = cost < 0 ? windowCost : smooth(cost, windowCost);
+            }
+            lastEvaluated = evaluatedNow;
+            lastRejected = rejectedNow;
+            lastTimedCount = timedCountNow;
+            lastTimedNanos = timedNanosNow;
+        }
+
+        private double rank() {
+            if (rejection <= 0) {
+                return Double.POSITIVE_INFINITY;
+            }
+            return Math.max(cost, 0) / rejection;
+        }
+
+        private Stats stats() {
+            long count = timedCount.sum();
+            return new Stats(filter.name(), evaluated.sum(), rejected.sum(),
+                    count > 0 ? (double) timedNanos.sum() / count : 0);
+        }
+
+        private static double smooth(double previous, double current) {
+            return previous + SMOOTHING * (current - previous);
+        }
+    }
+}
@@ -1,38 +1,191 @@
 package life.ljs.digest.domain.service;
 
+import life.ljs.digest.domain.model.Preferences;
 import life.ljs.digest.domain.model.Tweet;
 import life.ljs.digest.domain.policy.AdDetectPolicy;
 import life.ljs.digest.domain.policy.SpamDetectPolicy;
+import life.ljs.digest.domain.policy.TweetFilter;
+import life.ljs.digest.domain.port.PreferenceRepositoryPort;
+import life.ljs.digest.domain.port.TweetBatchSink;
 
+import java.io.Serial;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
+/**
+ * 过滤语言、屏蔽的作者和关键词、垃圾内容、广告，可以追加自定义的 {@link TweetFilter}
+ * <p>
+ * 各过滤器组成 {@link FilterChain}，遇到第一个拒绝的就停止，执行顺序按运行时统计的耗时和丢弃率自动调整，
+ * 增加过滤器时多数tweets仍然在最前面几个便宜的过滤器就被丢掉
+ * <p>
+ * 一批达到parallelThreshold条时（回填、恢复的运行、多个来源合并）拆成小段在ForkJoinPool上并行过滤，
+ * 结果仍按原顺序返回。每条tweet只由一个线程检查，markAsSpam/markAsAd不会并发写同一条，
+ * 任务join之后调用方能看到这些标记；过滤器本身需要线程安全。
+ */
 public class FilterService {
 
-    private final SpamDetectPolicy spamDetectPolicy;
-    private final AdDetectPolicy adDetectPolicy;
+    /**
+     * 并行时每段的条数，太小时任务调度的开销会超过过滤本身
+     */
+    static final int PARALLEL_CHUNK = 1024;
 
-    // 简单语言过滤白名单
-    private final List<String> allowedLanguages;
+    private final FilterChain chain;
+    private final int parallelThreshold;
+    private final ForkJoinPool pool;
 
     public FilterService(SpamDetectPolicy spamDetectPolicy, AdDetectPolicy adDetectPolicy, List<String> allowedLanguages) {
-        this.spamDetectPolicy = spamDetectPolicy;
-        this.adDetectPolicy = adDetectPolicy;
-        this.allowedLanguages = allowedLanguages;
+        this(spamDetectPolicy, adDetectPolicy, allowedLanguages, null);
+    }
+
+    /**
+     * @param preferenceRepositoryPort 可为null；提供时丢弃屏蔽的作者和含屏蔽关键词的tweets
+     */
+    public FilterService(SpamDetectPolicy spamDetectPolicy, AdDetectPolicy adDetectPolicy,
+                         List<String> allowedLanguages, PreferenceRepositoryPort preferenceRepositoryPort) {
+        this(spamDetectPolicy, adDetectPolicy, allowedLanguages, preferenceRepositoryPort, List.of(), 0);
+    }
+
+    /**
+     * @param preferenceRepositoryPort 可为null
+     * @param extraFilters 追加在内置过滤器之后的过滤器，执行顺序之后会按统计调整
+     * @param parallelThreshold 一批达到该条数时在ForkJoinPool.commonPool()上并行过滤，0表示不并行
+     */
+    public FilterService(SpamDetectPolicy spamDetectPolicy, AdDetectPolicy adDetectPolicy,
+                         List<String> allowedLanguages, PreferenceRepositoryPort preferenceRepositoryPort,
+                         List<TweetFilter> extraFilters, int parallelThreshold) {
+        this(buildFilters(spamDetectPolicy, adDetectPolicy, allowedLanguages, preferenceRepositoryPort, extraFilters),
+                parallelThreshold, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param filters 按注册顺序，执行顺序之后会按统计调整
+     * @param parallelThreshold 一批达到该条数时并行过滤，0表示不并行
+     * @param pool 并行过滤使用的线程池
+     */
+    public FilterService(List<TweetFilter> filters, int parallelThreshold, ForkJoinPool pool) {
+        this.chain = new FilterChain(filters);
+        this.parallelThreshold = parallelThreshold;
+        this.pool = pool;
+    }
+
+    private static List<TweetFilter> buildFilters(SpamDetectPolicy spamDetectPolicy, AdDetectPolicy adDetectPolicy,
+                                                  List<String> allowedLanguages,
+                                                  PreferenceRepositoryPort preferenceRepositoryPort,
+                                                  List<TweetFilter> extraFilters) {
+        List<TweetFilter> filters = new ArrayList<>();
+        if (allowedLanguages != null && !allowedLanguages.isEmpty()) {
+            filters.add(TweetFilter.of("language", tweet -> acceptLanguage(tweet, allowedLanguages)));
+        }
+        if (preferenceRepositoryPort != null) {
+            filters.add(TweetFilter.of("preferences",
+                    tweet -> acceptPreferences(tweet, preferenceRepositoryPort.current())));
+        }
+        filters.add(TweetFilter.of("spam", tweet -> notSpam(tweet, spamDetectPolicy)));
+        filters.add(TweetFilter.of("ad", tweet -> notAd(tweet, adDetectPolicy)));
+        filters.addAll(extraFilters);
+        return filters;
     }
 
     public List<Tweet> filter(List<Tweet> tweets) {
-        return tweets.stream()
-                .filter(this::acceptLanguage)
-                .filter(this::notSpam)
-                .filter(this::notAd)
-                .collect(Collectors.toList());
+        int size = tweets.size();
+        // 单核机器上commonPool只有1个线程，拆分只会增加开销
+        if (parallelThreshold <= 0 || size < parallelThreshold || pool.getParallelism() < 2) {
+            return filterSequential(tweets);
+        }
+        boolean[] accepted = new boolean[size];
+        pool.invoke(new FilterTask(chain, tweets, accepted, 0, size));
+        List<Tweet> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            if (accepted[i]) {
+                result.add(tweets.get(i));
+            }
+        }
+        return result;
     }
 
-    private boolean acceptLanguage(Tweet tweet) {
-        if(allowedLanguages == null || allowedLanguages.isEmpty()) {
-            return true;
+    private List<Tweet> filterSequential(List<Tweet> tweets) {
+        List<Tweet> accepted = new ArrayList<>(tweets.size());
+        for (Tweet tweet : tweets) {
+            if (chain.accept(tweet)) {
+                accepted.add(tweet);
+            }
         }
+        return accepted;
+    }
+
+    /**
+     * @return 每个过滤器的检查条数、丢弃条数和平均耗时，按当前执行顺序
+     */
+    public List<FilterChain.Stats> stats() {
+        return chain.stats();
+    }
+
+    /**
+     * 流式过滤：每收到一批就过滤，并把通过的tweets交给下游
+     * @param downstream
+     * @return
+     */
+    public TweetBatchSink filtering(TweetBatchSink downstream) {
+        return new TweetBatchSink() {
+            @Override
+            public void accept(List<Tweet> batch) {
+                List<Tweet> accepted = filter(batch);
+                if (!accepted.isEmpty()) {
+                    downstream.accept(accepted);
+                }
+            }
+
+            // 再次看到的tweets不再过滤，下游只用来更新已通过的
+            @Override
+            public void observe(List<Tweet> tweets) {
+                downstream.observe(tweets);
+            }
+
+            @Override
+            public boolean isCancelled() {
+                return downstream.isCancelled();
+            }
+        };
+    }
+
+    /**
+     * 把 [from, to) 二分到不超过 {@link #PARALLEL_CHUNK} 条，结果写到accepted的对应位置
+     */
+    private static final class FilterTask extends RecursiveAction {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final transient FilterChain chain;
+        private final transient List<Tweet> tweets;
+        private final boolean[] accepted;
+        private final int from;
+        private final int to;
+
+        private FilterTask(FilterChain chain, List<Tweet> tweets, boolean[] accepted, int from, int to) {
+            this.chain = chain;
+            this.tweets = tweets;
+            this.accepted = accepted;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= PARALLEL_CHUNK) {
+                for (int i = from; i < to; i++) {
+                    accepted[i] = chain.accept(tweets.get(i));
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new FilterTask(chain, tweets, accepted, from, mid),
+                    new FilterTask(chain, tweets, accepted, mid, to));
+        }
+    }
+
+    private static boolean acceptLanguage(Tweet tweet, List<String> allowedLanguages) {
         String lang = tweet.getLanguage();
         if(lang == null) {
             return true;
@@ -41,14 +194,19 @@ public class FilterService {
         return allowedLanguages.contains(lower);
     }
 
-    private boolean notSpam(Tweet tweet) {
+    private static boolean acceptPreferences(Tweet tweet, Preferences preferences) {
+        return !preferences.isMutedAuthor(tweet) && !preferences.containsBlockedKeyword(tweet);
+    }
+
+    private static boolean notSpam(Tweet tweet, SpamDetectPolicy spamDetectPolicy) {
         boolean spam = spamDetectPolicy.isSpam(tweet);
         if (spam) {
             tweet.markAsSpam();
         }
         return !spam;
     }
-    private boolean notAd(Tweet tweet) {
+
+    private static boolean notAd(Tweet tweet, AdDetectPolicy adDetectPolicy) {
         boolean ad = adDetectPolicy.isAd(tweet);
         if (ad) {
             tweet.markAsAd();
@@ -0,0 +1,96 @@
+package life.ljs.digest.domain.service;
+
+import life.ljs.digest.domain.model.MinHash;
+import life.ljs.digest.domain.model.MinHashIndex;
+import life.ljs.digest.domain.model.Tweet;
+import life.ljs.digest.domain.policy.DefaultEngagementScorePolicy;
+import life.ljs.digest.domain.policy.EngagementScorePolicy;
+import life.ljs.digest.domain.port.NearDuplicateIndexPort;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 近似重复合并：复制粘贴的推广、引用链、转贴的线程只保留一条，不再占用LLM调用和Digest名额
+ * <p>
+ * 按MinHash签名估计文本的Jaccard相似度，不低于minSimilarity视为近似重复。一次运行内的近似重复合并到互动量最高的一条上；
+ * 配置了 {@link NearDuplicateIndexPort} 时，与之前推送过的tweets近似重复的也丢弃。
+ * 候选查找走 {@link MinHashIndex} 的分段索引，几万条时也不需要两两比较。
+ */
+public class NearDuplicateService {
+
+    private static final EngagementScorePolicy ENGAGEMENT = new DefaultEngagementScorePolicy();
+
+    private final NearDuplicateIndexPort nearDuplicateIndexPort;
+    private final double minSimilarity;
+
+    /**
+     * @param nearDuplicateIndexPort 可为null，只合并本次运行内的近似重复
+     * @param minSimilarity 0 ~ 1，越低合并得越激进
+     */
+    public NearDuplicateService(NearDuplicateIndexPort nearDuplicateIndexPort, double minSimilarity) {
+        if (minSimilarity <= 0 || minSimilarity > 1) {
+            throw new IllegalArgumentException("minSimilarity must be in (0, 1]");
+        }
+        this.nearDuplicateIndexPort = nearDuplicateIndexPort;
+        this.minSimilarity = minSimilarity;
+    }
+
+    /**
+     * 合并近似重复：按互动量从高到低处理，与已保留的或之前推送过的相近就丢弃
+     * @param tweets
+     * @return 保留的tweets，保持原来的顺序
+     */
+    public List<Tweet> collapse(List<Tweet> tweets) {
+        int n = tweets.size();
+        int[][] signatures = new int[n][];
+        double[] engagement = new double[n];
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            Tweet tweet = tweets.get(i);
+            signatures[i] = MinHash.signature(tweet.getText());
+            engagement[i] = ENGAGEMENT.score(tweet);
+            order[i] = i;
+        }
+        // 稳定排序，互动量相同时靠前的优先，结果可重复
+        Arrays.sort(order, Comparator.comparingDouble(i -> -engagement[i]));
+
+        boolean[] keep = new boolean[n];
+        MinHashIndex representatives = new MinHashIndex(n);
+        for (int i : order) {
+            int[] signature = signatures[i];
+            if (signature == null) {
+                keep[i] = true; // 没有文字内容，无法比较
+                continue;
+            }
+            if (representatives.findNear(signature, minSimilarity) >= 0) {
+                continue;
+            }
+            if (nearDuplicateIndexPort != null && nearDuplicateIndexPort.findNear(signature, minSimilarity) != null) {
+                continue;
+            }
+            representatives.add(i, signature, 0);
+            keep[i] = true;
+        }
+
+        List<Tweet> kept = new ArrayList<>(representatives.size());
+        for (int i = 0; i < n; i++) {
+            if (keep[i]) {
+                kept.add(tweets.get(i));
+            }
+        }
+        return kept;
+    }
+
+    /**
+     * 记录已推送的tweets，之后运行中与它们近似重复的会被丢弃
+     * @param delivered
+     */
+    public void remember(List<Tweet> delivered) {
+        if (nearDuplicateIndexPort != null && !delivered.isEmpty()) {
+            nearDuplicateIndexPort.record(delivered, System.currentTimeMillis());
+        }
+    }
+}
@@ -1,24 +1,134 @@
 package life.ljs.digest.domain.service;
 
+import life.ljs.digest.domain.model.Preferences;
 import life.ljs.digest.domain.model.Tweet;
 import life.ljs.digest.domain.policy.EngagementScorePolicy;
+import life.ljs.digest.domain.port.PreferenceRepositoryPort;
+import life.ljs.digest.domain.port.TweetBatchSink;
 
-import java.util.Comparator;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
+/**
+ * 按评分选出前topN条
+ * <p>
+ * 每条只算一次评分，存进double数组；用大小为topN的小顶堆（堆顶是已选中里最差的一条）扫一遍，
+ * 只有比堆顶好的才替换，复杂度O(n log topN)，不对全部候选排序。
+ * 评分相同时输入中靠前的排前面，结果与稳定排序后取前topN一致。
+ */
 public class RankingService {
+    /**
+     * 边拉取边排序时保留的候选是topN的几倍，多出的留给之后合并近似重复
+     */
+    static final int CANDIDATE_FACTOR = 4;
+
     private final EngagementScorePolicy scorePolicy;
     private final int topN;
+    private final PreferenceRepositoryPort preferenceRepositoryPort;
+
     public RankingService(EngagementScorePolicy scorePolicy, int topN) {
+        this(scorePolicy, topN, null);
+    }
+
+    /**
+     * @param preferenceRepositoryPort 可为null；提供时评分乘以喜欢的作者、加权主题的倍数
+     */
+    public RankingService(EngagementScorePolicy scorePolicy, int topN,
+                          PreferenceRepositoryPort preferenceRepositoryPort) {
         this.scorePolicy = scorePolicy;
         this.topN = topN;
+        this.preferenceRepositoryPort = preferenceRepositoryPort;
     }
 
     public List<Tweet> selectTopTweets(List<Tweet> tweets) {
-        return tweets.stream()
-                .sorted(Comparator.comparingDouble(scorePolicy::score).reversed())
-                .limit(topN)
-                .collect(Collectors.toList());
+        Preferences preferences = preferenceRepositoryPort != null
+                ? preferenceRepositoryPort.current() : Preferences.empty();
+        int n = tweets.size();
+        double[] scores = new double[n];
+        for (int i = 0; i < n; i++) {
+            Tweet tweet = tweets.get(i);
+            scores[i] = scorePolicy.score(tweet) * preferences.boost(tweet);
+        }
+        int[] top = selectTop(scores, topN);
+        List<Tweet> result = new ArrayList<>(top.length);
+        for (int index : top) {
+            result.add(tweets.get(index));
+        }
+        return result;
+    }
+
+    /**
+     * 开始一次边拉取边排序的运行，保留评分最高的 topN * {@value #CANDIDATE_FACTOR} 条候选，
+     * 拉取结束（或到截止时间）后对 {@link TopKAccumulator#snapshot()} 合并近似重复再 {@link #selectTopTweets(List)}
+     * @param downstream 可为null；每批tweets原样交给下游
+     * @param budget 可为null；到截止时间后要求拉取端停止滚动
+     * @return
+     */
+    public TopKAccumulator startRun(TweetBatchSink downstream, Duration budget) {
+        Preferences preferences = preferenceRepositoryPort != null
+                ? preferenceRepositoryPort.current() : Preferences.empty();
+        return new TopKAccumulator(scorePolicy, preferences, Math.max(topN, 1) * CANDIDATE_FACTOR, budget, downstream);
+    }
+
+    /**
+     * @param scores
+     * @param limit
+     * @return 评分最高的至多limit个下标，按评分从高到低，评分相同时下标小的在前
+     */
+    static int[] selectTop(double[] scores, int limit) {
+        int k = Math.min(Math.max(limit, 0), scores.length);
+        if (k == 0) {
+            return new int[0];
+        }
+        int[] heap = new int[k];
+        for (int i = 0; i < k; i++) {
+            heap[i] = i;
+        }
+        for (int i = k / 2 - 1; i >= 0; i--) {
+            siftDown(heap, k, i, scores);
+        }
+        for (int i = k; i < scores.length; i++) {
+            // 后来的下标更大，评分相同时不替换
+            if (Double.compare(scores[i], scores[heap[0]]) > 0) {
+                heap[0] = i;
+                siftDown(heap, k, 0, scores);
+            }
+        }
+        // 依次取出堆顶（最差的）放到末尾，得到从好到差的顺序
+        for (int size = k - 1; size > 0; size--) {
+            int worst = heap[0];
+            heap[0] = heap[size];
+            heap[size] = worst;
+            siftDown(heap, size, 0, scores);
+        }
+        return heap;
+    }
+
+    /**
+     * a比b差：评分更低，或评分相同但下标更大
+     */
+    private static boolean worse(int a, int b, double[] scores) {
+        int c = Double.compare(scores[a], scores[b]);
+        return c < 0 || (c == 0 && a > b);
+    }
+
+    private static void siftDown(int[] heap, int size, int i, double[] scores) {
+        int item = heap[i];
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && worse(heap[child + 1], heap[child], scores)) {
+                child++;
+            }
+            if (!worse(heap[child], item, scores)) {
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = item;
     }
 }
@@ -0,0 +1,139 @@
+package life.ljs.digest.domain.service;
+
+import life.ljs.digest.domain.model.Tweet;
+import life.ljs.digest.domain.model.TweetId;
+import life.ljs.digest.domain.port.SeenTweetFilterPort;
+import life.ljs.digest.domain.port.TweetBatchSink;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 跨运行去重：拉取和过滤之间的一环，丢弃之前的Digest已经处理过的tweets
+ * 没有配置SeenTweetFilterPort时直接透传
+ */
+public class SeenTweetService {
+
+    private final SeenTweetFilterPort seenTweetFilterPort;
+
+    /**
+     * @param seenTweetFilterPort 可为null
+     */
+    public SeenTweetService(SeenTweetFilterPort seenTweetFilterPort) {
+        this.seenTweetFilterPort = seenTweetFilterPort;
+    }
+
+    /**
+     * 开始一次运行：返回的Run丢弃已处理过的tweets，其余交给下游；
+     * 本次放行的ID在 {@link Run#commit()} 之后才记为已处理，运行失败时下次还会再处理
+     * @param downstream
+     * @return
+     */
+    public Run startRun(TweetBatchSink downstream) {
+        return new Run(downstream);
+    }
+
+    /**
+     * 直接把一批tweets记为已处理，用于从日志恢复的运行（原来的Run已随进程丢失）
+     * @param tweets
+     */
+    public void markSeen(List<Tweet> tweets) {
+        if (seenTweetFilterPort == null) {
+            return;
+        }
+        List<TweetId> ids = new ArrayList<>(tweets.size());
+        for (Tweet tweet : tweets) {
+            if (tweet.getId() != null) {
+                ids.add(tweet.getId());
+            }
+        }
+        markSeenIds(ids);
+    }
+
+    /**
+     * 同 {@link #markSeen(List)}，用于运行日志里保存的 {@link Run#getPassedIds()}
+     * @param ids
+     */
+    public void markSeenIds(List<TweetId> ids) {
+        if (seenTweetFilterPort != null && !ids.isEmpty()) {
+            seenTweetFilterPort.markSeen(ids);
+        }
+    }
+
+    /**
+     * @return 过滤器当前估算的误报率，未配置时返回0
+     */
+    public double estimatedFalsePositiveRate() {
+        return seenTweetFilterPort != null ? seenTweetFilterPort.estimatedFalsePositiveRate() : 0;
+    }
+
+    public final class Run implements TweetBatchSink {
+        private final TweetBatchSink downstream;
+        private final List<TweetId> passedIds = new ArrayList<>();
+        private int dropped;
+
+        private Run(TweetBatchSink downstream) {
+            this.downstream = downstream;
+        }
+
+        @Override
+        public void accept(List<Tweet> batch) {
+            if (seenTweetFilterPort == null) {
+                downstream.accept(batch);
+                return;
+            }
+            List<Tweet> unseen = new ArrayList<>(batch.size());
+            for (Tweet tweet : batch) {
+                TweetId id = tweet.getId();
+                if (id != null && seenTweetFilterPort.mightContain(id)) {
+                    dropped++;
+                    continue;
+                }
+                if (id != null) {
+                    passedIds.add(id);
+                }
+                unseen.add(tweet);
+            }
+            if (!unseen.isEmpty()) {
+                downstream.accept(unseen);
+            }
+        }
+
+        @Override
+        public void observe(List<Tweet> tweets) {
+            downstream.observe(tweets);
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return downstream.isCancelled();
+        }
+
+        /**
+         * @return 被当作已处理而丢弃的条数（含误报）
+         */
+        public int getDropped() {
+            return dropped;
+        }
+
+        public int getPassed() {
+            return passedIds.size();
+        }
+
+        /**
+         * @return 本次放行的ID，保存到运行日志后，恢复的运行可以用 {@link #markSeenIds(List)} 记为已处理
+         */
+        public List<TweetId> getPassedIds() {
+            return List.copyOf(passedIds);
+        }
+
+        /**
+         * 本次运行完成，把放行的ID记为已处理
+         */
+        public void commit() {
+            if (seenTweetFilterPort != null && !passedIds.isEmpty()) {
+                seenTweetFilterPort.markSeen(passedIds);
+            }
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package life.ljs.digest.domain.service;
+
+import life.ljs.digest.domain.model.Preferences;
+import life.ljs.digest.domain.model.Tweet;
+import life.ljs.digest.domain.model.TweetId;
+import life.ljs.digest.domain.model.TweetIdMap;
+import life.ljs.digest.domain.policy.EngagementScorePolicy;
+import life.ljs.digest.domain.port.TweetBatchSink;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 边拉取边排序：随时间线的每一批tweets更新当前评分最高的K条，任何时候都可以用 {@link #snapshot()} 取出结果
+ * <p>
+ * 用大小为K的小顶堆（堆顶是已选中里最差的一条），加一个推文ID到堆中条目的索引（{@link TweetIdMap}，键不装箱），
+ * 内存只与K有关，与滚动多久无关。
+ * 同一条tweet再次出现（{@link #observe(List)}，互动数更新了）时：还在堆里的替换并重新调整位置；
+ * 已被挤出的不再加入，它之前的评分已经不够进前K条。
+ * 评分相同时先到的排前面，与 {@link RankingService#selectTopTweets(List)} 一致。
+ * <p>
+ * 设置了截止时间时，到时间后 {@link #isCancelled()} 返回true，拉取端据此停止滚动，用已有的结果生成Digest。
+ * 在拉取线程上使用，非线程安全。
+ */
+public class TopKAccumulator implements TweetBatchSink {
+
+    private final EngagementScorePolicy scorePolicy;
+    private final Preferences preferences;
+    private final TweetBatchSink downstream;
+    private final long deadlineNanos;
+    private final boolean hasDeadline;
+
+    private final Entry[] heap;
+    private final TweetIdMap<Entry> entries;
+    private int size;
+    private long offered;
+
+    /**
+     * @param scorePolicy
+     * @param preferences 评分乘以 {@link Preferences#boost(Tweet)}
+     * @param k 保留的条数
+     * @param budget 可为null；从现在起到截止的时间，null或0表示不设截止时间
+     * @param downstream 可为null；每批tweets处理后原样交给下游
+     */
+    public TopKAccumulator(EngagementScorePolicy scorePolicy, Preferences preferences, int k, Duration budget,
+                           TweetBatchSink downstream) {
+        if (k <= 0) {
+            throw new IllegalArgumentException("k must be positive: " + k);
+        }
+        this.scorePolicy = scorePolicy;
+        this.preferences = preferences != null ? preferences : Preferences.empty();
+        this.downstream = downstream;
+        this.hasDeadline = budget != null && !budget.isZero() && !budget.isNegative();
+        this.deadlineNanos = hasDeadline ? System.nanoTime() + budget.toNanos() : 0;
+        this.heap = new Entry[k];
+        this.entries = new TweetIdMap<>(k);
+    }
+
+    @Override
+    public void accept(List<Tweet> batch) {
+        for (Tweet tweet : batch) {
+            offer(tweet);
+        }
+        if (downstream != null) {
+            downstream.accept(batch);
+        }
+    }
+
+    /**
+     * 再次看到的tweets：只更新还在堆里的，不加入新的候选（这里收到的没有经过过滤）
+     */
+    @Override
+    public void observe(List<Tweet> tweets) {
+        for (Tweet tweet : tweets) {
+            Entry entry = entries.get(tweet.getId());
+            if (entry != null) {
+                update(entry, tweet);
+            }
+        }
+        if (downstream != null) {
+            downstream.observe(tweets);
+        }
+    }
+
+    /**
+     * 过了截止时间，或下游要求结束
+     */
+    @Override
+    public boolean isCancelled() {
+        return isDeadlineReached() || (downstream != null && downstream.isCancelled());
+    }
+
+    public boolean isDeadlineReached() {
+        return hasDeadline && System.nanoTime() - deadlineNanos >= 0;
+    }
+
+    /**
+     * @param tweet
+     * @return tweet当前是否在前K条中
+     */
+    public boolean offer(Tweet tweet) {
+        long sequence = offered++;
+        TweetId id = tweet.getId();
+        Entry entry = entries.get(id);
+        if (entry != null) {
+            update(entry, tweet);
+            return true;
+        }
+        double score = score(tweet);
+        if (size < heap.length) {
+            entry = new Entry();
+            entry.position = size++;
+            heap[entry.position] = entry;
+        } else {
+            // 后到的序号更大，评分相同时不替换
+            if (Double.compare(score, heap[0].score) <= 0) {
+                return false;
+            }
+            // 复用被挤出的条目
+            entry = heap[0];
+            if (entry.tweet.getId() != null) {
+                entries.remove(entry.tweet.getId().value());
+            }
+        }
+        entry.tweet = tweet;
+        entry.score = score;
+        entry.sequence = sequence;
+        // 非数字ID不建索引，再次出现时当作新的候选
+        if (id != null) {
+            entries.put(id, entry);
+        }
+        siftDown(siftUp(entry.position));
+        return true;
+    }
+
+    /**
+     * @return 当前的前K条（不足K条时为全部），按评分从高到低
+     */
+    public List<Tweet> snapshot() {
+        Entry[] order = Arrays.copyOf(heap, size);
+        Arrays.sort(order, (a, b) -> worse(a, b) ? 1 : worse(b, a) ? -1 : 0);
+        List<Tweet> result = new ArrayList<>(size);
+        for (Entry entry : order) {
+            result.add(entry.tweet);
+        }
+        return result;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return 累计收到的条数（含重复出现的）
+     */
+    public long getOffered() {
+        return offered;
+    }
+
+    private double score(Tweet tweet) {
+        return scorePolicy.score(tweet) * preferences.boost(tweet);
+    }
+
+    /**
+     * 换成新的互动数，保留最初的先后顺序
+     */
+    private void update(Entry entry, Tweet tweet) {
+        entry.tweet = tweet;
+        entry.score = score(tweet);
+        siftDown(siftUp(entry.position));
+    }
+
+    /**
+     * a比b差：评分更低，或评分相同但来得更晚
+     */
+    private static boolean worse(Entry a, Entry b) {
+        int c = Double.compare(a.score, b.score);
+        return c < 0 || (c == 0 && a.sequence > b.sequence);
+    }
+
+    private int siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!worse(heap[i], heap[parent])) {
+                break;
+            }
+            swap(i, parent);
+            i = parent;
+        }
+        return i;
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) {
+                return;
+            }
+            if (child + 1 < size && worse(heap[child + 1], heap[child])) {
+                child++;
+            }
+            if (!worse(heap[child], heap[i])) {
+                return;
+            }
+            swap(i, child);
+            i = child;
+        }
+    }
+
+    private void swap(int a, int b) {
+        Entry entry = heap[a];
+        heap[a] = heap[b];
+        heap[b] = entry;
+        heap[a].position = a;
+        heap[b].position = b;
+    }
+
+    private static final class Entry {
+        private Tweet tweet;
+        private double score;
+        private long sequence;
+        private int position;
+    }
+}
@@ -0,0 +1,194 @@
+package life.ljs.digest.domain.model;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 对比 {@link KeywordMatcher} 和原来"转小写 + 逐个contains"的写法，用合成的中英文推文，离线运行：
+ * <pre>
+ * mvn -q -pl digest-domain-core test-compile
+ * java -cp digest-domain-core/target/classes:digest-domain-core/target/test-classes \
+ *      life.ljs.digest.domain.model.KeywordMatcherBenchmark [--tweets=N] [--rounds=N]
+ * </pre>
+ * 两个场景：广告判断（是否包含任一关键词）和兜底聚类（按优先级取第一个命中的主题）。
+ * 每轮先校验两种写法结果一致，再分别计时；HotSpot上同时输出每条推文的分配字节数。
+ */
+public class KeywordMatcherBenchmark {
+
+    private static final String[] AD_KEYWORDS = {
+            "buy now", "discount", "sale", "limited offer", "promo code", "sponsored"};
+
+    private static final String[][] TOPICS = {
+            {"ai", "llm", "gpt", "gemini", "claude", "模型", "prompt", "提示词"},
+            {"创业", "增长", "粉丝", "business", "startup", "growth", "用户"},
+            {"crypto", "eth", "btc", "rollup", "l2", "defi", "web3"},
+            {"教程", "tutorial", "如何", "how to", "指南", "guide"}};
+
+    private static final String[] WORDS = {
+            "The", "new", "release", "is", "out", "today", "and", "we", "shipped", "a", "faster", "pipeline",
+            "for", "teams", "who", "care", "about", "latency", "Thread", "below", "with", "numbers",
+            "今天", "我们", "发布", "了", "新版本", "性能", "提升", "明显", "欢迎", "试用", "反馈",
+            "LLM", "Prompt", "模型", "Startup", "增长", "BTC", "Web3", "教程", "Guide", "Sale", "Buy Now"};
+
+    public static void main(String[] args) {
+        int tweets = 100_000;
+        int rounds = 10;
+        for (String arg : args) {
+            if (arg.startsWith("--tweets=")) {
+                tweets = Integer.parseInt(arg.substring("--tweets=".length()));
+            } else if (arg.startsWith("--rounds=")) {
+                rounds = Integer.parseInt(arg.substring("--rounds=".length()));
+            } else {
+                System.err.println("Usage: KeywordMatcherBenchmark [--tweets=N] [--rounds=N]");
+                System.exit(1);
+            }
+        }
+
+        List<String> texts = generate(tweets, new Random(42));
+        KeywordMatcher adMatcher = KeywordMatcher.of(List.of(AD_KEYWORDS));
+        KeywordMatcher.Builder topicBuilder = KeywordMatcher.builder();
+        for (int g = 0; g < TOPICS.length; g++) {
+            topicBuilder.addAll(List.of(TOPICS[g]), g);
+        }
+        KeywordMatcher topicMatcher = topicBuilder.build();
+
+        long[] nanos = new long[4];
+        long[] bytes = new long[4];
+        long sink = 0;
+        for (int round = 0; round <= rounds; round++) {
+            verify(texts, adMatcher, topicMatcher);
+            boolean warmUp = round == 0;
+            sink += measure(nanos, bytes, 0, warmUp, () -> {
+                int hits = 0;
+                for (String text : texts) {
+                    hits += legacyIsAd(text) ? 1 : 0;
+                }
+                return hits;
+            });
+            sink += measure(nanos, bytes, 1, warmUp, () -> {
+                int hits = 0;
+                for (String text : texts) {
+                    hits += adMatcher.containsAny(text) ? 1 : 0;
+                }
+                return hits;
+            });
+            sink += measure(nanos, bytes, 2, warmUp, () -> {
+                int total = 0;
+                for (String text : texts) {
+                    total += legacyTopic(text);
+                }
+                return total;
+            });
+            sink += measure(nanos, bytes, 3, warmUp, () -> {
+                int total = 0;
+                for (String text : texts) {
+                    total += matcherTopic(topicMatcher, text);
+                }
+                return total;
+            });
+        }
+
+        long processed = (long) tweets * rounds;
+        String[] names = {"ad: lowercase + contains", "ad: KeywordMatcher", "topic: lowercase + contains",
+                "topic: KeywordMatcher"};
+        System.out.printf("%d tweets x %d rounds (checksum %d)%n", tweets, rounds, sink);
+        for (int i = 0; i < names.length; i++) {
+            System.out.printf("%-28s %8.1f ns/tweet %10.1f ms/100k %8s B/tweet%n", names[i],
+                    (double) nanos[i] / processed, nanos[i] / 1e6 / processed * 100_000,
+                    bytes[i] < 0 ? "n/a" : String.format("%.1f", (double) bytes[i] / processed));
+        }
+        System.out.printf("speedup: ad %.1fx, topic %.1fx%n",
+                (double) nanos[0] / nanos[1], (double) nanos[2] / nanos[3]);
+    }
+
+    private interface Task {
+        long run();
+    }
+
+    private static long measure(long[] nanos, long[] bytes, int slot, boolean warmUp, Task task) {
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+        long result = task.run();
+        long elapsed = System.nanoTime() - start;
+        long allocatedAfter = allocatedBytes();
+        if (!warmUp) {
+            nanos[slot] += elapsed;
+            bytes[slot] = allocatedBefore < 0 || bytes[slot] < 0 ? -1 : bytes[slot] + allocatedAfter - allocatedBefore;
+        }
+        return result;
+    }
+
+    // ===== 原来的写法 =====
+
+    private static boolean legacyIsAd(String text) {
+        String lower = text.toLowerCase();
+        String[] adKeywords = {
+                "buy now", "discount", "sale", "limited offer",
+                "promo code", "sponsored"
+        };
+        for (String keyword : adKeywords) {
+            if (lower.contains(keyword)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int legacyTopic(String text) {
+        String lower = text.toLowerCase();
+        for (int g = 0; g < TOPICS.length; g++) {
+            for (String keyword : TOPICS[g]) {
+                if (lower.contains(keyword)) {
+                    return g;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private static int matcherTopic(KeywordMatcher matcher, String text) {
+        long groups = matcher.matchedGroups(text);
+        return groups == 0 ? -1 : Long.numberOfTrailingZeros(groups);
+    }
+
+    private static void verify(List<String> texts, KeywordMatcher adMatcher, KeywordMatcher topicMatcher) {
+        for (String text : texts) {
+            if (legacyIsAd(text) != adMatcher.containsAny(text)
+                    || legacyTopic(text) != matcherTopic(topicMatcher, text)) {
+                throw new IllegalStateException("Result mismatch on: " + text);
+            }
+        }
+    }
+
+    private static List<String> generate(int count, Random random) {
+        List<String> texts = new ArrayList<>(count);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            sb.setLength(0);
+            int words = 8 + random.nextInt(40);
+            for (int w = 0; w < words; w++) {
+                // 大部分是普通词，少量关键词，接近真实时间线的命中率
+                String word = random.nextInt(10) == 0
+                        ? WORDS[WORDS.length - 1 - random.nextInt(11)]
+                        : WORDS[random.nextInt(WORDS.length - 11)];
+                sb.append(word).append(word.charAt(0) < 128 ? " " : "");
+            }
+            texts.add(sb.toString());
+        }
+        return texts;
+    }
+
+    /**
+     * @return 当前线程累计分配的字节数，JVM不支持时返回-1
+     */
+    private static long allocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean hotspot && hotspot.isThreadAllocatedMemorySupported()) {
+            return hotspot.getThreadAllocatedBytes(Thread.currentThread().threadId());
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,99 @@
+package life.ljs.digest.domain.service;
+
+import life.ljs.digest.domain.model.Tweet;
+import life.ljs.digest.domain.policy.SimpleAdDetectPolicy;
+import life.ljs.digest.domain.policy.SimpleSpamDetectPolicy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 对比 {@link FilterService} 顺序和并行两种过滤路径，用合成的中英文推文和内置的过滤器，离线运行：
+ * <pre>
+ * mvn -q -pl digest-domain-core test-compile
+ * java -cp digest-domain-core/target/classes:digest-domain-core/target/test-classes \
+ *      life.ljs.digest.domain.service.FilterServiceBenchmark [--sizes=1000,10000,100000] [--rounds=N]
+ * </pre>
+ * 每个批次大小先预热，再交替计时两条路径；每轮校验两者保留的tweets及顺序完全一致。
+ */
+public class FilterServiceBenchmark {
+
+    private static final String[] WORDS = {
+            "The", "new", "release", "is", "out", "today", "and", "we", "shipped", "a", "faster", "pipeline",
+            "for", "teams", "who", "care", "about", "latency", "#ai", "@openai", "https://t.co/abc",
+            "今天", "我们", "发布", "了", "新版本", "性能", "提升", "明显", "欢迎", "试用", "反馈",
+            "sale", "buy now", "!!!!!!!!!!!!", "🔥🔥🔥"};
+
+    private static final String[] LANGUAGES = {"en", "en", "en", "zh", "zh", "ja"};
+
+    public static void main(String[] args) {
+        int[] sizes = {1_000, 10_000, 100_000};
+        int rounds = 10;
+        for (String arg : args) {
+            if (arg.startsWith("--sizes=")) {
+                String[] parts = arg.substring("--sizes=".length()).split(",");
+                sizes = new int[parts.length];
+                for (int i = 0; i < parts.length; i++) {
+                    sizes[i] = Integer.parseInt(parts[i].trim());
+                }
+            } else if (arg.startsWith("--rounds=")) {
+                rounds = Integer.parseInt(arg.substring("--rounds=".length()));
+            } else {
+                System.err.println("Usage: FilterServiceBenchmark [--sizes=N,N,...] [--rounds=N]");
+                System.exit(1);
+            }
+        }
+
+        FilterService sequential = newService(0);
+        FilterService parallel = newService(1);
+        System.out.printf("%d cores, common pool parallelism %d, chunk %d%n",
+                Runtime.getRuntime().availableProcessors(),
+                java.util.concurrent.ForkJoinPool.getCommonPoolParallelism(), FilterService.PARALLEL_CHUNK);
+        for (int size : sizes) {
+            List<Tweet> tweets = generate(size, new Random(42));
+            long[] nanos = new long[2];
+            for (int round = 0; round <= rounds; round++) {
+                // 第0轮预热不计时
+                long start = System.nanoTime();
+                List<Tweet> a = sequential.filter(tweets);
+                long middle = System.nanoTime();
+                List<Tweet> b = parallel.filter(tweets);
+                long end = System.nanoTime();
+                if (!a.equals(b)) {
+                    throw new IllegalStateException("Sequential and parallel results differ for size " + size);
+                }
+                if (round > 0) {
+                    nanos[0] += middle - start;
+                    nanos[1] += end - middle;
+                }
+            }
+            long processed = (long) size * rounds;
+            System.out.printf("%,9d tweets: sequential %7.1f ns/tweet, parallel %7.1f ns/tweet, speedup %.2fx%n",
+                    size, (double) nanos[0] / processed, (double) nanos[1] / processed,
+                    (double) nanos[0] / nanos[1]);
+        }
+    }
+
+    private static FilterService newService(int parallelThreshold) {
+        return new FilterService(new SimpleSpamDetectPolicy(), new SimpleAdDetectPolicy(), List.of("en", "zh"),
+                null, List.of(), parallelThreshold);
+    }
+
+    private static List<Tweet> generate(int count, Random random) {
+        List<Tweet> tweets = new ArrayList<>(count);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            sb.setLength(0);
+            int words = 3 + random.nextInt(40);
+            for (int w = 0; w < words; w++) {
+                String word = WORDS[random.nextInt(WORDS.length)];
+                sb.append(word).append(word.charAt(0) < 128 ? " " : "");
+            }
+            tweets.add(new Tweet(String.valueOf(1_000_000L + i), "Someone @someone", sb.toString(), null,
+                    random.nextInt(500), random.nextInt(50), random.nextInt(20), null,
+                    LANGUAGES[random.nextInt(LANGUAGES.length)]));
+        }
+        return tweets;
+    }
+}
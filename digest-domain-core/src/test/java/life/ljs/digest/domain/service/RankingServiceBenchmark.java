@@ -0,0 +1,109 @@
+package life.ljs.digest.domain.service;
+
+import life.ljs.digest.domain.model.Tweet;
+import life.ljs.digest.domain.policy.DefaultEngagementScorePolicy;
+import life.ljs.digest.domain.policy.EngagementScorePolicy;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 对比 {@link RankingService} 的小顶堆选取、原来的全量排序（比较时重复计算评分）
+ * 和先算好评分再全量排序，用合成的互动数，离线运行：
+ * <pre>
+ * mvn -q -pl digest-domain-core test-compile
+ * java -cp digest-domain-core/target/classes:digest-domain-core/target/test-classes \
+ *      life.ljs.digest.domain.service.RankingServiceBenchmark [--sizes=1000,10000,100000,1000000] [--top=25] [--rounds=N]
+ * </pre>
+ * 每个规模先预热，再交替计时三种做法；每轮校验三者选出的tweets及顺序完全一致。
+ * 互动数取值范围较小，有大量评分相同的tweets，用来检查相同评分时的顺序。
+ */
+public class RankingServiceBenchmark {
+
+    public static void main(String[] args) {
+        int[] sizes = {1_000, 10_000, 100_000, 1_000_000};
+        int top = 25;
+        int rounds = 10;
+        for (String arg : args) {
+            if (arg.startsWith("--sizes=")) {
+                String[] parts = arg.substring("--sizes=".length()).split(",");
+                sizes = new int[parts.length];
+                for (int i = 0; i < parts.length; i++) {
+                    sizes[i] = Integer.parseInt(parts[i].trim());
+                }
+            } else if (arg.startsWith("--top=")) {
+                top = Integer.parseInt(arg.substring("--top=".length()));
+            } else if (arg.startsWith("--rounds=")) {
+                rounds = Integer.parseInt(arg.substring("--rounds=".length()));
+            } else {
+                System.err.println("Usage: RankingServiceBenchmark [--sizes=N,N,...] [--top=N] [--rounds=N]");
+                System.exit(1);
+            }
+        }
+
+        EngagementScorePolicy policy = new DefaultEngagementScorePolicy();
+        RankingService rankingService = new RankingService(policy, top);
+        for (int size : sizes) {
+            List<Tweet> tweets = generate(size, new Random(42));
+            long[] nanos = new long[3];
+            for (int round = 0; round <= rounds; round++) {
+                // 第0轮预热不计时
+                long t0 = System.nanoTime();
+                List<Tweet> a = baselineSort(tweets, policy, top);
+                long t1 = System.nanoTime();
+                List<Tweet> b = presortedScores(tweets, policy, top);
+                long t2 = System.nanoTime();
+                List<Tweet> c = rankingService.selectTopTweets(tweets);
+                long t3 = System.nanoTime();
+                if (!a.equals(b) || !a.equals(c)) {
+                    throw new IllegalStateException("Full sort and heap selection differ for size " + size);
+                }
+                if (round > 0) {
+                    nanos[0] += t1 - t0;
+                    nanos[1] += t2 - t1;
+                    nanos[2] += t3 - t2;
+                }
+            }
+            System.out.printf("%,9d tweets, top %d: baseline sort %8.2f ms, presorted scores %8.2f ms, "
+                            + "heap %8.2f ms, speedup vs baseline %.2fx%n",
+                    size, top, nanos[0] / 1e6 / rounds, nanos[1] / 1e6 / rounds, nanos[2] / 1e6 / rounds,
+                    (double) nanos[0] / nanos[2]);
+        }
+    }
+
+    /**
+     * 原来的做法：比较器每次比较都重新计算两条的评分，全部排序后取前top条
+     */
+    private static List<Tweet> baselineSort(List<Tweet> tweets, EngagementScorePolicy policy, int top) {
+        return tweets.stream()
+                .sorted(Comparator.comparingDouble(policy::score).reversed())
+                .limit(top)
+                .toList();
+    }
+
+    /**
+     * 每条只算一次评分，但仍全部排序，用来区分两项改进各自的收益
+     */
+    private static List<Tweet> presortedScores(List<Tweet> tweets, EngagementScorePolicy policy, int top) {
+        return tweets.stream()
+                .map(tweet -> new Scored(tweet, policy.score(tweet)))
+                .sorted(Comparator.comparingDouble(Scored::score).reversed())
+                .limit(top)
+                .map(Scored::tweet)
+                .toList();
+    }
+
+    private record Scored(Tweet tweet, double score) {
+    }
+
+    private static List<Tweet> generate(int count, Random random) {
+        List<Tweet> tweets = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            tweets.add(new Tweet(String.valueOf(1_000_000L + i), "Someone @someone", "text " + i, null,
+                    random.nextInt(2_000), random.nextInt(200), random.nextInt(100), null, "en"));
+        }
+        return tweets;
+    }
+}
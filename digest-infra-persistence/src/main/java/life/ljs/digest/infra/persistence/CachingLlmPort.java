@@ -0,0 +1,67 @@
+package life.ljs.digest.infra.persistence;
+
+import life.ljs.digest.domain.model.TopicCluster;
+import life.ljs.digest.domain.model.Tweet;
+import life.ljs.digest.domain.port.LlmPort;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+
+/**
+ * 给任意LlmPort加上单条摘要缓存的装饰器：连续多个窗口都在Top里的推文只调用一次大模型。
+ * <p>
+ * 只缓存delegate真正写入了 {@link Tweet#setSummary} 的结果，调用失败时的降级摘要不缓存；
+ * delegate的 {@link LlmPort#summaryFingerprint()} 为null时直接透传。
+ * 聚类和总览依赖整批推文，不缓存。
+ */
+public class CachingLlmPort implements LlmPort {
+
+    private static final Logger log = LoggerFactory.getLogger(CachingLlmPort.class);
+
+    private final LlmPort delegate;
+    private final LlmSummaryCache cache;
+
+    public CachingLlmPort(LlmPort delegate, LlmSummaryCache cache) {
+        this.delegate = delegate;
+        this.cache = cache;
+    }
+
+    @Override
+    public String summarizeTweet(Tweet tweet) {
+        String fingerprint = delegate.summaryFingerprint();
+        if (fingerprint == null || tweet.getText() == null) {
+            return delegate.summarizeTweet(tweet);
+        }
+        String key = LlmSummaryCache.key(fingerprint, tweet.getText());
+        String cached = cache.get(key);
+        if (cached != null) {
+            tweet.setSummary(cached);
+            return cached;
+        }
+        String before = tweet.getSummary();
+        String result = delegate.summarizeTweet(tweet);
+        String summary = tweet.getSummary();
+        if (summary != null && summary != before) {
+            cache.put(key, summary);
+        }
+        return result;
+    }
+
+    @Override
+    public List<TopicCluster> clusterTweets(List<Tweet> tweets) {
+        return delegate.clusterTweets(tweets);
+    }
+
+    @Override
+    public String summarizeBatch(List<TopicCluster> clusters, List<Tweet> top3) {
+        // 每次构建Digest最后调用一次，顺便输出累计命中情况
+        log.info("LLM summary cache: {}", cache);
+        return delegate.summarizeBatch(clusters, top3);
+    }
+
+    @Override
+    public String summaryFingerprint() {
+        return delegate.summaryFingerprint();
+    }
+}
@@ -0,0 +1,132 @@
+package life.ljs.digest.infra.persistence;
+
+import life.ljs.digest.domain.model.EngagementSnapshot;
+
+import java.util.Arrays;
+
+/**
+ * 一条推文的互动量时间序列，按时间顺序追加
+ * <p>
+ * 每个快照存为4个与上一快照的差值（观察时间秒、点赞、转发、回复），zigzag + varint编码在一个byte[]里，
+ * 通常一个快照只占4~8字节。最近两次快照另外以原值缓存，查询不需要解码。
+ * 非线程安全，由调用方加锁。
+ */
+final class EngagementSeries {
+
+    private byte[] data = new byte[16];
+    private int length;
+    private int count;
+
+    // 最近两次快照的原值：[秒, 点赞, 转发, 回复]
+    private final long[] last = new long[4];
+    private final long[] previous = new long[4];
+
+    int count() {
+        return count;
+    }
+
+    long lastObservedAtMillis() {
+        return last[0] * 1000;
+    }
+
+    /**
+     * 追加一次观察，超过maxSnapshots时丢掉最早的快照
+     */
+    void append(long observedAtMillis, long likes, long retweets, long replies, int maxSnapshots) {
+        long seconds = observedAtMillis / 1000;
+        if (count > 0 && seconds < last[0]) {
+            return; // 时钟回拨等乱序观察，丢弃
+        }
+        if (count >= maxSnapshots) {
+            dropOldest();
+        }
+        long[] values = {seconds, likes, retweets, replies};
+        ensureCapacity(length + 4 * 10);
+        for (int i = 0; i < 4; i++) {
+            length = putVarLong(data, length, zigzag(values[i] - (count > 0 ? last[i] : 0)));
+        }
+        System.arraycopy(last, 0, previous, 0, 4);
+        System.arraycopy(values, 0, last, 0, 4);
+        count++;
+    }
+
+    /**
+     * 最近两次快照里早于beforeMillis的较新一个
+     */
+    EngagementSnapshot latestBefore(long beforeMillis) {
+        if (count > 0 && last[0] * 1000 < beforeMillis) {
+            return snapshot(last);
+        }
+        if (count > 1 && previous[0] * 1000 < beforeMillis) {
+            return snapshot(previous);
+        }
+        return null;
+    }
+
+    /**
+     * 按时间顺序解码全部快照，每个为 [观察时间毫秒, 点赞, 转发, 回复]
+     */
+    long[][] decode() {
+        long[][] snapshots = new long[count][];
+        long[] values = new long[4];
+        int[] pos = {0};
+        for (int s = 0; s < count; s++) {
+            for (int i = 0; i < 4; i++) {
+                values[i] += unzigzag(getVarLong(data, pos));
+            }
+            snapshots[s] = new long[]{values[0] * 1000, values[1], values[2], values[3]};
+        }
+        return snapshots;
+    }
+
+    private void dropOldest() {
+        long[][] snapshots = decode();
+        data = new byte[Math.max(16, length)];
+        length = 0;
+        count = 0;
+        for (int s = 1; s < snapshots.length; s++) {
+            long[] v = snapshots[s];
+            append(v[0], v[1], v[2], v[3], Integer.MAX_VALUE);
+        }
+    }
+
+    private static EngagementSnapshot snapshot(long[] values) {
+        return new EngagementSnapshot(values[0] * 1000, values[1], values[2], values[3]);
+    }
+
+    private void ensureCapacity(int required) {
+        if (required > data.length) {
+            data = Arrays.copyOf(data, Math.max(required, data.length * 2));
+        }
+    }
+
+    private static long zigzag(long v) {
+        return (v << 1) ^ (v >> 63);
+    }
+
+    private static long unzigzag(long v) {
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    private static int putVarLong(byte[] buffer, int pos, long v) {
+        while ((v & ~0x7FL) != 0) {
+            buffer[pos++] = (byte) ((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        buffer[pos++] = (byte) v;
+        return pos;
+    }
+
+    private static long getVarLong(byte[] buffer, int[] pos) {
+        long result = 0;
+        int shift = 0;
+        while (true) {
+            byte b = buffer[pos[0]++];
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+            shift += 7;
+        }
+    }
+}
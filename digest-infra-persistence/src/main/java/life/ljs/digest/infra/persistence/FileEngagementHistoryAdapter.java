@@ -0,0 +1,234 @@
+package life.ljs.digest.infra.persistence;
+
+import life.ljs.digest.domain.model.EngagementSnapshot;
+import life.ljs.digest.domain.model.Tweet;
+import life.ljs.digest.domain.model.TweetId;
+import life.ljs.digest.domain.model.TweetIdMap;
+import life.ljs.digest.domain.port.EngagementHistoryPort;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 互动量时间序列的本地存储：内存中每条推文一个 {@link EngagementSeries}（差值编码），
+ * 按ID用 {@link TweetIdMap} 索引，查询O(1)。
+ * <p>
+ * 持久化为追加写的 {@code engagement.log}，每次record一条记录
+ * {@code [int length][int crc32][payload]}，payload为若干个 {@code [long id][long 观察时间][long 点赞][long 转发][long 回复]}；
+ * 启动时重放，遇到残缺记录即停止并截断。日志超过 {@code compact-after-mb} 时按内存中未过期的序列重写；
+ * 每次检查（不论是否重写）后，下一次检查要等日志再长到当前的两倍，检查的开销按追加量摊销。
+ */
+@Component
+@Profile("!fake")
+public class FileEngagementHistoryAdapter implements EngagementHistoryPort, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(FileEngagementHistoryAdapter.class);
+
+    static final String LOG_FILE = "engagement.log";
+    private static final int HEADER_BYTES = 8;
+    private static final int ENTRY_BYTES = 40;
+
+    private final Path logPath;
+    private final long retentionMillis;
+    private final int maxSnapshots;
+    private final long compactAfterBytes;
+
+    private TweetIdMap<EngagementSeries> series = new TweetIdMap<>(4096);
+    private FileChannel channel;
+    private long size;
+    private long nextCompactAt;
+
+    public FileEngagementHistoryAdapter(
+            @Value("${digest.state.dir:./data/state}") String dir,
+            @Value("${digest.engagement.retention-hours:72}") long retentionHours,
+            @Value("${digest.engagement.max-snapshots-per-tweet:32}") int maxSnapshots,
+            @Value("${digest.engagement.compact-after-mb:16}") long compactAfterMb) throws IOException {
+        this.logPath = Path.of(dir).resolve(LOG_FILE);
+        this.retentionMillis = TimeUnit.HOURS.toMillis(retentionHours);
+        this.maxSnapshots = Math.max(2, maxSnapshots);
+        this.compactAfterBytes = compactAfterMb * 1024 * 1024;
+        Files.createDirectories(logPath.getParent());
+        replay();
+    }
+
+    @Override
+    public synchronized void record(List<Tweet> tweets, long observedAtMillis) {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + tweets.size() * ENTRY_BYTES);
+        buffer.position(HEADER_BYTES);
+        for (Tweet tweet : tweets) {
+            TweetId id = tweet.getId();
+            if (id == null) {
+                continue;
+            }
+            buffer.putLong(id.value()).putLong(observedAtMillis)
+                    .putLong(tweet.getLikeCount()).putLong(tweet.getRetweetCount()).putLong(tweet.getReplyCount());
+            apply(id.value(), observedAtMillis, tweet.getLikeCount(), tweet.getRetweetCount(),
+                    tweet.getReplyCount());
+        }
+        if (buffer.position() == HEADER_BYTES) {
+            return;
+        }
+        try {
+            write(channel, buffer);
+            if (size > nextCompactAt) {
+                compact(System.currentTimeMillis());
+            }
+        } catch (IOException e) {
+            // 内存中的序列仍然可用，只是重启后会缺这一次观察
+            log.warn("Failed to append engagement snapshots to {}", logPath, e);
+        }
+    }
+
+    @Override
+    public synchronized EngagementSnapshot latestBefore(TweetId id, long beforeMillis) {
+        EngagementSeries s = series.get(id);
+        return s != null ? s.latestBefore(beforeMillis) : null;
+    }
+
+    @Override
+    public synchronized void destroy() throws IOException {
+        channel.close();
+    }
+
+    private void apply(long id, long observedAtMillis, long likes, long retweets, long replies) {
+        series.computeIfAbsent(id, k -> new EngagementSeries())
+                .append(observedAtMillis, likes, retweets, replies, maxSnapshots);
+    }
+
+    private void replay() throws IOException {
+        channel = FileChannel.open(logPath, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        long fileSize = channel.size();
+        long offset = 0;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        while (offset + HEADER_BYTES <= fileSize) {
+            header.clear();
+            readFully(header, offset);
+            header.flip();
+            int length = header.getInt();
+            int crc = header.getInt();
+            if (length <= 0 || length % ENTRY_BYTES != 0 || offset + HEADER_BYTES + length > fileSize) {
+                break;
+            }
+            ByteBuffer payload = ByteBuffer.allocate(length);
+            readFully(payload, offset + HEADER_BYTES);
+            if (TweetRecordCodec.crc(payload.array(), 0, length) != crc) {
+                break;
+            }
+            payload.flip();
+            while (payload.hasRemaining()) {
+                apply(payload.getLong(), payload.getLong(), payload.getLong(), payload.getLong(), payload.getLong());
+            }
+            offset += HEADER_BYTES + length;
+        }
+        if (offset < fileSize) {
+            log.warn("Truncating {} torn bytes at the end of {}", fileSize - offset, logPath);
+            channel.truncate(offset);
+        }
+        size = offset;
+        compact(System.currentTimeMillis());
+        log.info("Engagement history: {} tweets, {} KB log", series.size(), size / 1024);
+    }
+
+    /**
+     * 丢掉最后观察时间超过保留期的序列，把其余的重写为新日志（临时文件 + rename）
+     */
+    private void compact(long now) throws IOException {
+        // 先推迟下一次检查：没有可丢的序列时不会每批都扫一遍，重写失败也不会每批都重试
+        nextCompactAt = Math.max(compactAfterBytes, size * 2);
+        TweetIdMap<EngagementSeries> kept = new TweetIdMap<>(Math.max(4096, series.size()));
+        long[] entries = {0};
+        series.forEach((id, s) -> {
+            if (now - s.lastObservedAtMillis() < retentionMillis) {
+                kept.put(id, s);
+                entries[0] += s.count();
+            }
+        });
+        long compactedBytes = entries[0] * ENTRY_BYTES + (long) kept.size() * HEADER_BYTES;
+        if (kept.size() == series.size() && compactedBytes * 2 >= size) {
+            return; // 没有过期序列，重写也省不了多少空间
+        }
+
+        Path tmp = logPath.resolveSibling(LOG_FILE + ".tmp");
+        long compactedSize;
+        try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            long[] written = {0};
+            IOException[] failure = {null};
+            kept.forEach((id, s) -> {
+                if (failure[0] != null) {
+                    return;
+                }
+                long[][] snapshots = s.decode();
+                ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + snapshots.length * ENTRY_BYTES);
+                buffer.position(HEADER_BYTES);
+                for (long[] v : snapshots) {
+                    buffer.putLong(id).putLong(v[0]).putLong(v[1]).putLong(v[2]).putLong(v[3]);
+                }
+                try {
+                    written[0] += write(out, written[0], buffer);
+                } catch (IOException e) {
+                    failure[0] = e;
+                }
+            });
+            if (failure[0] != null) {
+                throw failure[0];
+            }
+            out.force(true);
+            compactedSize = written[0];
+        }
+        try {
+            Files.move(tmp, logPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, logPath, StandardCopyOption.REPLACE_EXISTING);
+        }
+        channel.close();
+        channel = FileChannel.open(logPath, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        size = compactedSize;
+        nextCompactAt = Math.max(compactAfterBytes, compactedSize * 2);
+        series = kept;
+    }
+
+    private void write(FileChannel target, ByteBuffer buffer) throws IOException {
+        size += write(target, size, buffer);
+    }
+
+    /**
+     * 填好记录头（长度、CRC）后在position处写出
+     * @return 写出的字节数
+     */
+    private static long write(FileChannel target, long position, ByteBuffer buffer) throws IOException {
+        int length = buffer.position() - HEADER_BYTES;
+        buffer.putInt(0, length);
+        buffer.putInt(4, TweetRecordCodec.crc(buffer.array(), HEADER_BYTES, length));
+        buffer.flip();
+        long written = 0;
+        while (buffer.hasRemaining()) {
+            written += target.write(buffer, position + written);
+        }
+        return written;
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new IOException("Unexpected end of " + logPath);
+            }
+        }
+    }
+}
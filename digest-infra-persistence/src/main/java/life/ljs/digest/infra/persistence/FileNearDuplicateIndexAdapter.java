@@ -0,0 +1,126 @@
+package life.ljs.digest.infra.persistence;
+
+import life.ljs.digest.domain.model.MinHash;
+import life.ljs.digest.domain.model.MinHashIndex;
+import life.ljs.digest.domain.model.Tweet;
+import life.ljs.digest.domain.model.TweetId;
+import life.ljs.digest.domain.port.NearDuplicateIndexPort;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 已推送tweets的MinHash签名，内存中为 {@link MinHashIndex}，超过 {@code window-hours} 的条目淘汰
+ * <p>
+ * 每次record后整体快照到 {@code near-duplicates.bin}（临时文件 + rename）：
+ * {@code [int 条数][条数 x (long id, long 记录时间, int[32] 签名)][int crc32]}，启动时加载，损坏时从空开始。
+ */
+@Component
+@Profile("!fake")
+public class FileNearDuplicateIndexAdapter implements NearDuplicateIndexPort {
+
+    private static final Logger log = LoggerFactory.getLogger(FileNearDuplicateIndexAdapter.class);
+
+    static final String SNAPSHOT_FILE = "near-duplicates.bin";
+    private static final int ENTRY_BYTES = 16 + MinHash.SIZE * 4;
+
+    private final Path snapshotPath;
+    private final long windowMillis;
+    private final MinHashIndex index = new MinHashIndex(1024);
+
+    public FileNearDuplicateIndexAdapter(
+            @Value("${digest.state.dir:./data/state}") String dir,
+            @Value("${digest.dedup.window-hours:72}") long windowHours) throws IOException {
+        this.snapshotPath = Path.of(dir).resolve(SNAPSHOT_FILE);
+        this.windowMillis = TimeUnit.HOURS.toMillis(windowHours);
+        Files.createDirectories(snapshotPath.getParent());
+        load();
+    }
+
+    @Override
+    public synchronized TweetId findNear(int[] signature, double minSimilarity) {
+        int slot = index.findNear(signature, minSimilarity);
+        return slot >= 0 ? TweetId.of(index.key(slot)) : null;
+    }
+
+    @Override
+    public synchronized void record(List<Tweet> tweets, long observedAtMillis) {
+        index.expireBefore(observedAtMillis - windowMillis);
+        for (Tweet tweet : tweets) {
+            int[] signature = MinHash.signature(tweet.getText());
+            if (tweet.getId() != null && signature != null) {
+                index.add(tweet.getId().value(), signature, observedAtMillis);
+            }
+        }
+        try {
+            snapshot();
+        } catch (IOException e) {
+            // 索引仍在内存中生效，下次record时再写
+            log.warn("Failed to snapshot near-duplicate index to {}", snapshotPath, e);
+        }
+    }
+
+    private void load() throws IOException {
+        if (!Files.exists(snapshotPath)) {
+            return;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(snapshotPath));
+        int count = buffer.remaining() >= 8 ? buffer.getInt() : -1;
+        if (count < 0 || buffer.limit() != 4 + (long) count * ENTRY_BYTES + 4
+                || TweetRecordCodec.crc(buffer.array(), 0, 4 + count * ENTRY_BYTES)
+                != buffer.getInt(4 + count * ENTRY_BYTES)) {
+            log.warn("Near-duplicate index: unreadable snapshot {}, starting empty", snapshotPath);
+            return;
+        }
+        int[] signature = new int[MinHash.SIZE];
+        for (int i = 0; i < count; i++) {
+            long id = buffer.getLong();
+            long time = buffer.getLong();
+            buffer.asIntBuffer().get(signature);
+            buffer.position(buffer.position() + MinHash.SIZE * 4);
+            index.add(id, signature, time);
+        }
+        int expired = index.expireBefore(System.currentTimeMillis() - windowMillis);
+        log.info("Near-duplicate index: loaded {} signatures ({} expired)", index.size(), expired);
+    }
+
+    private void snapshot() throws IOException {
+        int count = index.size();
+        ByteBuffer buffer = ByteBuffer.allocate(4 + count * ENTRY_BYTES + 4);
+        buffer.putInt(count);
+        for (int slot = 0; slot < count; slot++) {
+            buffer.putLong(index.key(slot)).putLong(index.timeMillis(slot));
+            buffer.asIntBuffer().put(index.signature(slot));
+            buffer.position(buffer.position() + MinHash.SIZE * 4);
+        }
+        buffer.putInt(TweetRecordCodec.crc(buffer.array(), 0, buffer.position()));
+        buffer.flip();
+
+        Path tmp = snapshotPath.resolveSibling(SNAPSHOT_FILE + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        try {
+            Files.move(tmp, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, snapshotPath, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
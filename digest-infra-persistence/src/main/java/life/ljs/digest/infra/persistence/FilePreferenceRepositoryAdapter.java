@@ -0,0 +1,136 @@
+package life.ljs.digest.infra.persistence;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import life.ljs.digest.domain.model.Preferences;
+import life.ljs.digest.domain.port.PreferenceRepositoryPort;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 从JSON文件读取偏好，文件修改后自动重新加载，不需要重启：
+ * <pre>
+ * {
+ *   "likedAuthors": ["karpathy"],
+ *   "mutedAuthors": ["@somebot"],
+ *   "likedAuthorBoost": 1.5,
+ *   "boostedTopics": {"agent": 1.5, "大模型": 1.3},
+ *   "blockedKeywords": ["airdrop", "空投"],
+ *   "adKeywords": ["buy now", "promo code", "限时优惠"]
+ * }
+ * </pre>
+ * adKeywords不配置时使用广告检测策略内置的关键词。
+ * 调用 {@link #current()} 时最多每 {@code check-interval-seconds} 检查一次文件的修改时间和大小，
+ * 有变化才重新解析并编译成新的 {@link Preferences} 快照；文件不存在时为空偏好，解析失败时保留上一份。
+ */
+@Component
+@Profile("!fake")
+public class FilePreferenceRepositoryAdapter implements PreferenceRepositoryPort {
+
+    private static final Logger log = LoggerFactory.getLogger(FilePreferenceRepositoryAdapter.class);
+
+    private final Path file;
+    private final long checkIntervalNanos;
+    private final ObjectMapper objectMapper;
+
+    private volatile Preferences preferences = Preferences.empty();
+    private volatile long nextCheckNanos;
+    private long loadedModified = Long.MIN_VALUE;
+    private long loadedSize = -1;
+
+    public FilePreferenceRepositoryAdapter(
+            @Value("${digest.preferences.file:./config/preferences.json}") String file,
+            @Value("${digest.preferences.check-interval-seconds:5}") long checkIntervalSeconds,
+            ObjectMapper objectMapper) {
+        this.file = Path.of(file);
+        this.checkIntervalNanos = TimeUnit.SECONDS.toNanos(checkIntervalSeconds);
+        this.objectMapper = objectMapper;
+        reloadIfChanged();
+        nextCheckNanos = System.nanoTime() + checkIntervalNanos;
+    }
+
+    @Override
+    public Preferences current() {
+        if (System.nanoTime() - nextCheckNanos >= 0) {
+            synchronized (this) {
+                if (System.nanoTime() - nextCheckNanos >= 0) {
+                    reloadIfChanged();
+                    nextCheckNanos = System.nanoTime() + checkIntervalNanos;
+                }
+            }
+        }
+        return preferences;
+    }
+
+    private synchronized void reloadIfChanged() {
+        long modified;
+        long size;
+        try {
+            BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+            modified = attrs.lastModifiedTime().toMillis();
+            size = attrs.size();
+        } catch (NoSuchFileException e) {
+            if (loadedSize != -1 || loadedModified == Long.MIN_VALUE) {
+                log.info("Preferences: {} not found, using none", file);
+            }
+            preferences = Preferences.empty();
+            loadedModified = 0;
+            loadedSize = -1;
+            return;
+        } catch (IOException e) {
+            log.warn("Preferences: cannot stat {}, keeping the current ones", file, e);
+            return;
+        }
+        if (modified == loadedModified && size == loadedSize) {
+            return;
+        }
+        try {
+            preferences = parse(objectMapper.readTree(file.toFile()));
+            log.info("Preferences: loaded {} liked / {} muted authors, {} boosted topics, {} blocked / {} ad keywords"
+                            + " from {}", preferences.likedAuthorCount(), preferences.mutedAuthorCount(),
+                    preferences.boostedTopicCount(), preferences.blockedKeywordCount(),
+                    preferences.adKeywords().size(), file);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Preferences: failed to parse {}, keeping the current ones", file, e);
+        }
+        // 解析失败也记下，文件再次修改前不重复报错
+        loadedModified = modified;
+        loadedSize = size;
+    }
+
+    private static Preferences parse(JsonNode root) {
+        Map<String, Double> topics = new LinkedHashMap<>();
+        for (Map.Entry<String, JsonNode> entry : root.path("boostedTopics").properties()) {
+            topics.put(entry.getKey(), entry.getValue().asDouble(1.0));
+        }
+        return new Preferences(
+                strings(root.path("likedAuthors")),
+                strings(root.path("mutedAuthors")),
+                topics,
+                strings(root.path("blockedKeywords")),
+                strings(root.path("adKeywords")),
+                root.path("likedAuthorBoost").asDouble(1.5));
+    }
+
+    private static Set<String> strings(JsonNode array) {
+        Set<String> values = new HashSet<>();
+        for (JsonNode node : array) {
+            values.add(node.asText());
+        }
+        return values;
+    }
+}
@@ -0,0 +1,301 @@
+package life.ljs.digest.infra.persistence;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import life.ljs.digest.domain.model.DigestRun;
+import life.ljs.digest.domain.model.TopicCluster;
+import life.ljs.digest.domain.model.Tweet;
+import life.ljs.digest.domain.model.TweetId;
+import life.ljs.digest.domain.model.Watermarks;
+import life.ljs.digest.domain.port.RunJournalPort;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * 运行日志的文件实现：每次运行一个目录 {@code <dir>/<runId>/}，
+ * 每个阶段的产出一个JSON文件，{@code run.json} 记录已完成的阶段。
+ * <p>
+ * 阶段文件先写（临时文件 + fsync + rename），再更新run.json，run.json是提交点：
+ * 崩溃在两次写之间时，多出来的阶段文件会在恢复后被重新生成覆盖。
+ */
+@Component
+@Profile("!fake")
+public class FileRunJournalAdapter implements RunJournalPort {
+
+    private static final Logger log = LoggerFactory.getLogger(FileRunJournalAdapter.class);
+
+    static final String MANIFEST_FILE = "run.json";
+
+    private final Path dir;
+    private final ObjectMapper objectMapper;
+
+    public FileRunJournalAdapter(@Value("${digest.journal.dir:./data/runs}") String dir,
+                                 ObjectMapper objectMapper) throws IOException {
+        this.dir = Path.of(dir);
+        this.objectMapper = objectMapper;
+        Files.createDirectories(this.dir);
+    }
+
+    @Override
+    public synchronized void save(DigestRun run) {
+        Path runDir = dir.resolve(run.getRunId());
+        try {
+            Files.createDirectories(runDir);
+            switch (run.getStage()) {
+                case RAW -> writeJson(runDir.resolve("raw.json"), writeTweets(run.getRawTweets()));
+                case FILTERED -> {
+                    writeJson(runDir.resolve("passed.json"), writeIds(run.getPassedIds()));
+                    writeJson(runDir.resolve("filtered.json"), writeTweets(run.getFilteredTweets()));
+                }
+                // 摘要写在排序结果上，两个阶段共用一个文件
+                case RANKED, SUMMARIZED -> writeJson(runDir.resolve("ranked.json"),
+                        writeTweets(run.getRankedTweets()));
+                case CLUSTERED -> writeJson(runDir.resolve("clusters.json"), writeClusters(run.getClusters()));
+                default -> {
+                    // STARTED、PUSHED没有产出，OVERVIEW直接写在run.json里
+                }
+            }
+            writeJson(runDir.resolve(MANIFEST_FILE), writeManifest(run));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to journal stage " + run.getStage()
+                    + " of run " + run.getRunId(), e);
+        }
+    }
+
+    @Override
+    public synchronized DigestRun loadIncomplete() {
+        List<Path> runDirs = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, Files::isDirectory)) {
+            stream.forEach(runDirs::add);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to list run journal " + dir, e);
+        }
+        runDirs.sort(Comparator.comparing(p -> p.getFileName().toString()));
+        for (Path runDir : runDirs) {
+            if (!Files.exists(runDir.resolve(MANIFEST_FILE))) {
+                // 第一次save之前就中断了，没有任何产出
+                deleteRecursively(runDir);
+                continue;
+            }
+            try {
+                return readRun(runDir);
+            } catch (IOException | RuntimeException e) {
+                log.warn("Discarding unreadable run journal {}", runDir, e);
+                deleteRecursively(runDir);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public synchronized void complete(DigestRun run) {
+        deleteRecursively(dir.resolve(run.getRunId()));
+    }
+
+    private DigestRun readRun(Path runDir) throws IOException {
+        JsonNode manifest = objectMapper.readTree(runDir.resolve(MANIFEST_FILE).toFile());
+        DigestRun run = new DigestRun(manifest.path("runId").asText(),
+                OffsetDateTime.parse(manifest.path("windowStart").asText()),
+                OffsetDateTime.parse(manifest.path("windowEnd").asText()));
+        DigestRun.Stage stage = DigestRun.Stage.valueOf(manifest.path("stage").asText());
+        TweetId watermark = manifest.hasNonNull("watermark")
+                ? TweetId.tryParse(manifest.get("watermark").asText()) : null;
+        Map<String, TweetId> sourceWatermarks = new HashMap<>();
+        for (Map.Entry<String, JsonNode> entry : manifest.path("sourceWatermarks").properties()) {
+            TweetId id = TweetId.tryParse(entry.getValue().asText());
+            if (id != null) {
+                sourceWatermarks.put(entry.getKey(), id);
+            }
+        }
+
+        List<Tweet> raw = readTweetsIfReached(runDir, "raw.json", stage, DigestRun.Stage.RAW);
+        List<Tweet> filtered = readTweetsIfReached(runDir, "filtered.json", stage, DigestRun.Stage.FILTERED);
+        List<TweetId> passedIds = readIdsIfReached(runDir, "passed.json", stage, DigestRun.Stage.FILTERED);
+        List<Tweet> ranked = readTweetsIfReached(runDir, "ranked.json", stage, DigestRun.Stage.RANKED);
+        List<TopicCluster> clusters = List.of();
+        if (stage.compareTo(DigestRun.Stage.CLUSTERED) >= 0) {
+            clusters = readClusters(objectMapper.readTree(runDir.resolve("clusters.json").toFile()), ranked);
+        }
+        String overview = manifest.hasNonNull("overview") ? manifest.get("overview").asText() : null;
+        run.restore(stage, manifest.path("attempts").asInt(1), new Watermarks(watermark, sourceWatermarks),
+                raw, filtered, passedIds, ranked, clusters, overview);
+        return run;
+    }
+
+    private List<Tweet> readTweetsIfReached(Path runDir, String file,
+                                            DigestRun.Stage stage, DigestRun.Stage required) throws IOException {
+        Path path = runDir.resolve(file);
+        // 阶段没到，或跳过了这个阶段的保存（拉取和过滤一起完成时只保存FILTERED）
+        if (stage.compareTo(required) < 0 || !Files.exists(path)) {
+            return List.of();
+        }
+        return readTweets(objectMapper.readTree(path.toFile()));
+    }
+
+    private List<TweetId> readIdsIfReached(Path runDir, String file,
+                                           DigestRun.Stage stage, DigestRun.Stage required) throws IOException {
+        Path path = runDir.resolve(file);
+        // 旧版本的运行日志没有这个文件
+        if (stage.compareTo(required) < 0 || !Files.exists(path)) {
+            return List.of();
+        }
+        JsonNode array = objectMapper.readTree(path.toFile());
+        List<TweetId> ids = new ArrayList<>(array.size());
+        for (JsonNode node : array) {
+            TweetId id = TweetId.tryParse(node.asText());
+            if (id != null) {
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+
+    private ObjectNode writeManifest(DigestRun run) {
+        ObjectNode node = objectMapper.createObjectNode();
+        node.put("runId", run.getRunId());
+        node.put("windowStart", run.getWindowStart().toString());
+        node.put("windowEnd", run.getWindowEnd().toString());
+        node.put("stage", run.getStage().name());
+        node.put("attempts", run.getAttempts());
+        Watermarks watermarks = run.getWatermarks();
+        node.put("watermark", watermarks.getNewest() != null ? watermarks.getNewest().toString() : null);
+        ObjectNode sourceWatermarks = node.putObject("sourceWatermarks");
+        watermarks.getBySource().forEach((source, id) -> sourceWatermarks.put(source, id.toString()));
+        node.put("overview", run.getOverview());
+        return node;
+    }
+
+    private ArrayNode writeIds(List<TweetId> ids) {
+        ArrayNode array = objectMapper.createArrayNode();
+        for (TweetId id : ids) {
+            array.add(id.toString());
+        }
+        return array;
+    }
+
+    private ArrayNode writeTweets(List<Tweet> tweets) {
+        ArrayNode array = objectMapper.createArrayNode();
+        for (Tweet tweet : tweets) {
+            ObjectNode node = array.addObject();
+            node.put("tweetId", tweet.getTweetId());
+            node.put("author", tweet.getAuthor());
+            node.put("text", tweet.getText());
+            node.put("createdAt", tweet.getCreatedAt() != null ? tweet.getCreatedAt().toString() : null);
+            node.put("likeCount", tweet.getLikeCount());
+            node.put("retweetCount", tweet.getRetweetCount());
+            node.put("replyCount", tweet.getReplyCount());
+            node.put("url", tweet.getUrl());
+            node.put("language", tweet.getLanguage());
+            node.put("summary", tweet.getSummary());
+        }
+        return array;
+    }
+
+    private List<Tweet> readTweets(JsonNode array) {
+        List<Tweet> tweets = new ArrayList<>(array.size());
+        for (JsonNode node : array) {
+            Tweet tweet = new Tweet(
+                    text(node, "tweetId"),
+                    text(node, "author"),
+                    text(node, "text"),
+                    node.hasNonNull("createdAt") ? OffsetDateTime.parse(node.get("createdAt").asText()) : null,
+                    node.path("likeCount").asLong(),
+                    node.path("retweetCount").asLong(),
+                    node.path("replyCount").asLong(),
+                    text(node, "url"),
+                    text(node, "language"));
+            tweet.setSummary(text(node, "summary"));
+            tweets.add(tweet);
+        }
+        return tweets;
+    }
+
+    /**
+     * 聚类只记录推文ID，读取时指回排序结果里的同一批对象
+     */
+    private ArrayNode writeClusters(List<TopicCluster> clusters) {
+        ArrayNode array = objectMapper.createArrayNode();
+        for (TopicCluster cluster : clusters) {
+            ObjectNode node = array.addObject();
+            node.put("topicName", cluster.getTopicName());
+            ArrayNode ids = node.putArray("tweetIds");
+            cluster.getTweets().forEach(tweet -> ids.add(tweet.getTweetId()));
+        }
+        return array;
+    }
+
+    private List<TopicCluster> readClusters(JsonNode array, List<Tweet> ranked) {
+        Map<String, Tweet> byId = new HashMap<>();
+        ranked.forEach(tweet -> byId.put(tweet.getTweetId(), tweet));
+        List<TopicCluster> clusters = new ArrayList<>(array.size());
+        for (JsonNode node : array) {
+            List<Tweet> tweets = new ArrayList<>();
+            for (JsonNode id : node.path("tweetIds")) {
+                Tweet tweet = byId.get(id.asText());
+                if (tweet != null) {
+                    tweets.add(tweet);
+                }
+            }
+            clusters.add(new TopicCluster(text(node, "topicName"), tweets));
+        }
+        return clusters;
+    }
+
+    private static String text(JsonNode node, String field) {
+        return node.hasNonNull(field) ? node.get(field).asText() : null;
+    }
+
+    private void writeJson(Path file, JsonNode node) throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        ByteBuffer bytes = ByteBuffer.wrap(objectMapper.writeValueAsBytes(node));
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+            channel.force(true);
+        }
+        try {
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private void deleteRecursively(Path runDir) {
+        try (Stream<Path> paths = Files.walk(runDir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> {
+                try {
+                    Files.deleteIfExists(path);
+                } catch (IOException e) {
+                    log.warn("Failed to delete {}", path, e);
+                }
+            });
+        } catch (IOException e) {
+            log.warn("Failed to delete run journal {}", runDir, e);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package life.ljs.digest.infra.persistence;
+
+import life.ljs.digest.domain.model.TweetId;
+import life.ljs.digest.domain.port.SeenTweetFilterPort;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 已处理推文的轮换Bloom过滤器，每次markSeen后快照到
+ * {@code seen-tweets.bloom}（临时文件 + rename），启动时重新加载。
+ * <p>
+ * 默认4代、每代48小时，约覆盖最近8天；每代按5万条、0.1%误报率配置时约90KB。
+ */
+@Component
+@Profile("!fake")
+public class FileSeenTweetFilterAdapter implements SeenTweetFilterPort, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(FileSeenTweetFilterAdapter.class);
+
+    static final String SNAPSHOT_FILE = "seen-tweets.bloom";
+
+    private final Path snapshotPath;
+    private final RotatingBloomFilter filter;
+
+    public FileSeenTweetFilterAdapter(
+            @Value("${digest.state.dir:./data/state}") String dir,
+            @Value("${digest.seen.expected-per-generation:50000}") int expectedPerGeneration,
+            @Value("${digest.seen.target-fpp:0.001}") double targetFpp,
+            @Value("${digest.seen.generations:4}") int generations,
+            @Value("${digest.seen.rotation-hours:48}") long rotationHours) throws IOException {
+        this.snapshotPath = Path.of(dir).resolve(SNAPSHOT_FILE);
+        this.filter = new RotatingBloomFilter(expectedPerGeneration, targetFpp, generations,
+                TimeUnit.HOURS.toMillis(rotationHours));
+        Files.createDirectories(snapshotPath.getParent());
+        load();
+    }
+
+    @Override
+    public synchronized boolean mightContain(TweetId id) {
+        return filter.mightContain(id.value(), System.currentTimeMillis());
+    }
+
+    @Override
+    public synchronized void markSeen(Collection<TweetId> ids) {
+        long now = System.currentTimeMillis();
+        for (TweetId id : ids) {
+            filter.put(id.value(), now);
+        }
+        try {
+            snapshot();
+        } catch (IOException e) {
+            // 过滤器仍在内存中生效，下次markSeen或关闭时再写
+            log.warn("Failed to snapshot seen-tweet filter to {}", snapshotPath, e);
+        }
+    }
+
+    @Override
+    public synchronized double estimatedFalsePositiveRate() {
+        return filter.estimatedFalsePositiveRate();
+    }
+
+    @Override
+    public synchronized void destroy() throws IOException {
+        snapshot();
+    }
+
+    private void load() throws IOException {
+        if (!Files.exists(snapshotPath)) {
+            log.info("Seen-tweet filter: starting empty ({} KB)", filter.memoryBytes() / 1024);
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotPath)))) {
+            if (filter.readFrom(in)) {
+                log.info("Seen-tweet filter: loaded {} generations, {} IDs, estimated FPR {}",
+                        filter.generationCount(), filter.insertions(),
+                        String.format("%.5f", filter.estimatedFalsePositiveRate()));
+            } else {
+                log.warn("Seen-tweet filter: snapshot {} was built with different settings, starting empty",
+                        snapshotPath);
+            }
+        } catch (IOException e) {
+            log.warn("Seen-tweet filter: unreadable snapshot {}, starting empty", snapshotPath, e);
+        }
+    }
+
+    private void snapshot() throws IOException {
+        Path tmp = snapshotPath.resolveSibling(SNAPSHOT_FILE + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+            filter.writeTo(out);
+            out.flush();
+            channel.force(true);
+        }
+        try {
+            Files.move(tmp, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, snapshotPath, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
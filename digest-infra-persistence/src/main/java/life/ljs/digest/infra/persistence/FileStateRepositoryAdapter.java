@@ -0,0 +1,254 @@
+package life.ljs.digest.infra.persistence;
+
+import life.ljs.digest.domain.port.StateRepositoryPort;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+
+/**
+ * 本地文件状态存储：快照 + 追加写日志
+ * <p>
+ * 每次写入只向 {@code state.journal} 追加一行（带CRC32校验），可选fsync；
+ * 日志条数超过阈值时把全部状态写入临时文件、fsync后原子rename为 {@code state.snapshot}，再清空日志。
+ * 启动时先读快照再重放日志，进程崩溃留下的半行会因校验失败被丢弃。
+ * 读取只访问内存中的ConcurrentHashMap，不加锁；写入串行。
+ */
+@Component
+@Profile("!fake")
+public class FileStateRepositoryAdapter implements StateRepositoryPort, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(FileStateRepositoryAdapter.class);
+
+    static final String SNAPSHOT_FILE = "state.snapshot";
+    static final String JOURNAL_FILE = "state.journal";
+
+    private final Path dir;
+    private final Path snapshotPath;
+    private final Path journalPath;
+    private final boolean fsync;
+    private final int compactAfter;
+
+    private final Map<String, String> state = new ConcurrentHashMap<>();
+    private FileChannel journal;
+    private int journalEntries;
+
+    public FileStateRepositoryAdapter(
+            @Value("${digest.state.dir:./data/state}") String dir,
+            @Value("${digest.state.fsync:true}") boolean fsync,
+            @Value("${digest.state.compact-after:1000}") int compactAfter) throws IOException {
+        this.dir = Path.of(dir);
+        this.snapshotPath = this.dir.resolve(SNAPSHOT_FILE);
+        this.journalPath = this.dir.resolve(JOURNAL_FILE);
+        this.fsync = fsync;
+        this.compactAfter = Math.max(1, compactAfter);
+
+        Files.createDirectories(this.dir);
+        long start = System.nanoTime();
+        int snapshotEntries = replay(snapshotPath);
+        int replayed = replay(journalPath);
+        // 启动时合并一次，日志从空文件开始，顺便去掉崩溃留下的残缺行
+        compact();
+        log.info("Loaded {} state keys from {} ({} snapshot + {} journal entries) in {} µs",
+                state.size(), this.dir.toAbsolutePath(), snapshotEntries, replayed,
+                (System.nanoTime() - start) / 1_000);
+    }
+
+    @Override
+    public String load(String key) {
+        return state.get(key);
+    }
+
+    @Override
+    public synchronized void save(String key, String value) {
+        if (value == null ? !state.containsKey(key) : value.equals(state.get(key))) {
+            return;
+        }
+        try {
+            journal.write(ByteBuffer.wrap(encode(key, value).getBytes(StandardCharsets.UTF_8)));
+            if (fsync) {
+                journal.force(false);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to append state journal " + journalPath, e);
+        }
+        if (value == null) {
+            state.remove(key);
+        } else {
+            state.put(key, value);
+        }
+        if (++journalEntries >= compactAfter) {
+            try {
+                compact();
+            } catch (IOException e) {
+                // 日志仍然完整，下次写入或重启时再合并
+                log.warn("Failed to compact state journal {}", journalPath, e);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void destroy() throws IOException {
+        if (journal != null) {
+            journal.close();
+            journal = null;
+        }
+    }
+
+    /**
+     * 把当前状态写成新快照并清空日志
+     */
+    private void compact() throws IOException {
+        Path tmp = dir.resolve(SNAPSHOT_FILE + ".tmp");
+        StringBuilder content = new StringBuilder();
+        state.forEach((key, value) -> content.append(encode(key, value)));
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(ByteBuffer.wrap(content.toString().getBytes(StandardCharsets.UTF_8)));
+            channel.force(true);
+        }
+        try {
+            Files.move(tmp, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, snapshotPath, StandardCopyOption.REPLACE_EXISTING);
+        }
+        syncDirectory();
+
+        // 快照落盘后才能清空日志
+        if (journal != null) {
+            journal.close();
+        }
+        journal = FileChannel.open(journalPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        journal.force(true);
+        journalEntries = 0;
+    }
+
+    /**
+     * rename要持久化需要fsync目录；部分平台不支持，忽略即可
+     */
+    private void syncDirectory() {
+        try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            log.trace("Directory fsync not supported for {}", dir, e);
+        }
+    }
+
+    private int replay(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        int entries = 0;
+        int lineNo = 0;
+        // 宽松解码：崩溃截断的多字节字符不应让整个文件读取失败
+        String content = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+        for (String line : content.split("\n")) {
+            lineNo++;
+            if (line.isEmpty()) {
+                continue;
+            }
+            if (!apply(line)) {
+                log.warn("Ignoring corrupt state entry in {} (line {})", file, lineNo);
+                continue;
+            }
+            entries++;
+        }
+        return entries;
+    }
+
+    /**
+     * 行格式：{@code crc32 \t P|D \t key \t value}，key/value中的反斜杠、制表符和换行会被转义
+     */
+    private boolean apply(String line) {
+        int crcEnd = line.indexOf('\t');
+        if (crcEnd < 0) {
+            return false;
+        }
+        String payload = line.substring(crcEnd + 1);
+        if (!Long.toHexString(crc(payload)).equals(line.substring(0, crcEnd))) {
+            return false;
+        }
+        String[] fields = payload.split("\t", -1);
+        if (fields.length != 3) {
+            return false;
+        }
+        String key = unescape(fields[1]);
+        switch (fields[0]) {
+            case "P" -> state.put(key, unescape(fields[2]));
+            case "D" -> state.remove(key);
+            default -> {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static String encode(String key, String value) {
+        String payload = (value == null ? "D" : "P") + '\t' + escape(key) + '\t'
+                + (value == null ? "" : escape(value));
+        return Long.toHexString(crc(payload)) + '\t' + payload + '\n';
+    }
+
+    private static long crc(String payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload.getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+
+    private static String escape(String s) {
+        if (s.indexOf('\\') < 0 && s.indexOf('\t') < 0 && s.indexOf('\n') < 0 && s.indexOf('\r') < 0) {
+            return s;
+        }
+        StringBuilder sb = new StringBuilder(s.length() + 8);
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '\\' -> sb.append("\\\\");
+                case '\t' -> sb.append("\\t");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                default -> sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String unescape(String s) {
+        if (s.indexOf('\\') < 0) {
+            return s;
+        }
+        StringBuilder sb = new StringBuilder(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '\\' && i + 1 < s.length()) {
+                char next = s.charAt(++i);
+                sb.append(switch (next) {
+                    case 't' -> '\t';
+                    case 'n' -> '\n';
+                    case 'r' -> '\r';
+                    default -> next;
+                });
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,240 @@
+package life.ljs.digest.infra.persistence;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * LLM单条摘要的两级缓存，key为 SHA-256(摘要配置标识 + 推文文本)，内容寻址。
+ * <p>
+ * 内存层是按访问顺序淘汰的LRU；磁盘层每个条目一个文件 {@code <dir>/<key前2位>/<key>}，
+ * 写临时文件再rename，进程崩溃不会留下半个条目。文件修改时间即写入时间，
+ * 超过TTL的条目读取时视为未命中并删除；磁盘占用超过上限时按写入时间从旧到新删除。
+ */
+@Component
+@Profile("!fake")
+public class LlmSummaryCache {
+
+    private static final Logger log = LoggerFactory.getLogger(LlmSummaryCache.class);
+
+    private final Path dir;
+    private final int memoryEntries;
+    private final long ttlMillis;
+    private final long maxDiskBytes;
+    private final Map<String, Entry> memory;
+    private long diskBytes = -1; // 首次写入时统计
+
+    private final LongAdder memoryHits = new LongAdder();
+    private final LongAdder diskHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public LlmSummaryCache(@Value("${digest.llm-cache.dir:./data/llm-cache}") String dir,
+                           @Value("${digest.llm-cache.memory-entries:2000}") int memoryEntries,
+                           @Value("${digest.llm-cache.ttl-days:14}") long ttlDays,
+                           @Value("${digest.llm-cache.max-disk-mb:64}") long maxDiskMb) throws IOException {
+        this.dir = Path.of(dir);
+        this.memoryEntries = Math.max(0, memoryEntries);
+        this.ttlMillis = TimeUnit.DAYS.toMillis(ttlDays);
+        this.maxDiskBytes = maxDiskMb * 1024 * 1024;
+        this.memory = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > LlmSummaryCache.this.memoryEntries;
+            }
+        };
+        Files.createDirectories(this.dir);
+    }
+
+    /**
+     * @param fingerprint 由 LlmPort#summaryFingerprint 提供
+     */
+    public static String key(String fingerprint, String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(fingerprint.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(text.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * @return 缓存的摘要，未命中或已过期时返回null
+     */
+    public String get(String key) {
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            Entry entry = memory.get(key);
+            if (entry != null) {
+                if (now - entry.writtenAt < ttlMillis) {
+                    memoryHits.increment();
+                    return entry.summary;
+                }
+                memory.remove(key);
+            }
+        }
+        Path file = fileOf(key);
+        try {
+            long writtenAt = Files.getLastModifiedTime(file).toMillis();
+            if (now - writtenAt >= ttlMillis) {
+                deleteFile(file);
+                misses.increment();
+                return null;
+            }
+            String summary = Files.readString(file, StandardCharsets.UTF_8);
+            synchronized (this) {
+                memory.put(key, new Entry(summary, writtenAt));
+            }
+            diskHits.increment();
+            return summary;
+        } catch (NoSuchFileException e) {
+            misses.increment();
+            return null;
+        } catch (IOException e) {
+            log.warn("Failed to read LLM cache entry {}", file, e);
+            misses.increment();
+            return null;
+        }
+    }
+
+    public void put(String key, String summary) {
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            memory.put(key, new Entry(summary, now));
+        }
+        Path file = fileOf(key);
+        try {
+            Files.createDirectories(file.getParent());
+            Path tmp = file.resolveSibling(key + ".tmp");
+            Files.writeString(tmp, summary, StandardCharsets.UTF_8);
+            try {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+            enforceDiskLimit(Files.size(file));
+        } catch (IOException e) {
+            // 只影响下次进程重启后的命中，内存层仍然有效
+            log.warn("Failed to write LLM cache entry {}", file, e);
+        }
+    }
+
+    public long getMemoryHits() {
+        return memoryHits.sum();
+    }
+
+    public long getDiskHits() {
+        return diskHits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("memoryHits=%d, diskHits=%d, misses=%d, evictions=%d",
+                getMemoryHits(), getDiskHits(), getMisses(), getEvictions());
+    }
+
+    private Path fileOf(String key) {
+        return dir.resolve(key.substring(0, 2)).resolve(key);
+    }
+
+    /**
+     * 磁盘占用只在首次写入时全量统计一次，之后按写入量累加；超限时重新扫描并从最旧的删起，
+     * 删到上限的90%留出余量，避免每次写入都触发扫描
+     */
+    private synchronized void enforceDiskLimit(long written) throws IOException {
+        if (maxDiskBytes <= 0) {
+            return;
+        }
+        if (diskBytes < 0) {
+            diskBytes = listFiles().stream().mapToLong(f -> f.size).sum();
+        } else {
+            diskBytes += written;
+        }
+        if (diskBytes <= maxDiskBytes) {
+            return;
+        }
+        List<CachedFile> files = listFiles();
+        files.sort(Comparator.comparing((CachedFile f) -> f.modified));
+        long total = files.stream().mapToLong(f -> f.size).sum();
+        long target = maxDiskBytes / 10 * 9;
+        int removed = 0;
+        for (CachedFile f : files) {
+            if (total <= target) {
+                break;
+            }
+            deleteFile(f.path);
+            total -= f.size;
+            removed++;
+        }
+        diskBytes = total;
+        log.info("LLM cache: evicted {} entries, {} KB on disk", removed, total / 1024);
+    }
+
+    private List<CachedFile> listFiles() throws IOException {
+        List<CachedFile> files = new ArrayList<>();
+        try (DirectoryStream<Path> shards = Files.newDirectoryStream(dir, Files::isDirectory)) {
+            for (Path shard : shards) {
+                try (DirectoryStream<Path> entries = Files.newDirectoryStream(shard)) {
+                    for (Path entry : entries) {
+                        if (entry.getFileName().toString().endsWith(".tmp")) {
+                            continue;
+                        }
+                        BasicFileAttributes attrs = Files.readAttributes(entry, BasicFileAttributes.class);
+                        files.add(new CachedFile(entry, attrs.size(), attrs.lastModifiedTime()));
+                    }
+                }
+            }
+        }
+        return files;
+    }
+
+    private void deleteFile(Path file) {
+        try {
+            if (Files.deleteIfExists(file)) {
+                evictions.increment();
+            }
+        } catch (IOException e) {
+            log.debug("Failed to delete LLM cache entry {}", file, e);
+        }
+    }
+
+    private record Entry(String summary, long writtenAt) {
+    }
+
+    private record CachedFile(Path path, long size, FileTime modified) {
+    }
+}
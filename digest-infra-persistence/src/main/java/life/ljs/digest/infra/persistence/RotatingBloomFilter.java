@@ -0,0 +1,181 @@
+package life.ljs.digest.infra.persistence;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * 按时间轮换的Bloom过滤器：固定数量的代（generation），写入只进最新一代，查询检查所有代；
+ * 最新一代存在超过轮换周期后丢弃最老的一代、新建一代；停机等原因跨过了多个周期时，每个周期丢弃一代，
+ * 超过 generations 个周期则全部丢弃，不会让超出窗口的ID多留一轮。
+ * 每代大小按期望写入量和目标误报率一次算好，内存固定为 generations * bits / 8 字节。
+ * <p>
+ * 非线程安全，由调用方加锁。
+ */
+final class RotatingBloomFilter {
+
+    private static final int SNAPSHOT_MAGIC = 0x53424C4D; // "SBLM"
+    private static final int SNAPSHOT_VERSION = 1;
+
+    private final int bits;
+    private final int hashes;
+    private final int generations;
+    private final long rotationMillis;
+    private final Deque<Generation> gens = new ArrayDeque<>(); // 头部最新
+
+    RotatingBloomFilter(int expectedPerGeneration, double targetFpp, int generations, long rotationMillis) {
+        int n = Math.max(1, expectedPerGeneration);
+        double p = Math.min(0.5, Math.max(1e-9, targetFpp));
+        long m = (long) Math.ceil(-n * Math.log(p) / (Math.log(2) * Math.log(2)));
+        this.bits = (int) Math.min(Integer.MAX_VALUE - 63, ((m + 63) / 64) * 64);
+        this.hashes = Math.max(1, (int) Math.round((double) bits / n * Math.log(2)));
+        this.generations = Math.max(1, generations);
+        this.rotationMillis = rotationMillis;
+    }
+
+    boolean mightContain(long id, long now) {
+        rotateIfDue(now);
+        long h1 = mix(id);
+        long h2 = mix(h1 ^ 0x632BE59BD9B4E019L) | 1;
+        for (Generation gen : gens) {
+            if (gen.mightContain(h1, h2)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    void put(long id, long now) {
+        rotateIfDue(now);
+        long h1 = mix(id);
+        long h2 = mix(h1 ^ 0x632BE59BD9B4E019L) | 1;
+        gens.peekFirst().put(h1, h2);
+    }
+
+    /**
+     * 每代按置位比例估算自身误报率 (setBits/m)^k，查询误报率为 1 - Π(1 - p_i)
+     */
+    double estimatedFalsePositiveRate() {
+        double miss = 1.0;
+        for (Generation gen : gens) {
+            miss *= 1 - Math.pow((double) gen.setBits / bits, hashes);
+        }
+        return 1 - miss;
+    }
+
+    long insertions() {
+        long total = 0;
+        for (Generation gen : gens) {
+            total += gen.insertions;
+        }
+        return total;
+    }
+
+    int generationCount() {
+        return gens.size();
+    }
+
+    long memoryBytes() {
+        return (long) generations * bits / 8;
+    }
+
+    void writeTo(DataOutputStream out) throws IOException {
+        out.writeInt(SNAPSHOT_MAGIC);
+        out.writeInt(SNAPSHOT_VERSION);
+        out.writeInt(bits);
+        out.writeInt(hashes);
+        out.writeInt(gens.size());
+        for (Generation gen : gens) {
+            out.writeLong(gen.createdAt);
+            out.writeLong(gen.insertions);
+            for (long word : gen.words) {
+                out.writeLong(word);
+            }
+        }
+    }
+
+    /**
+     * @return 参数（位数、哈希数）与当前配置不一致时返回false，过滤器保持为空
+     */
+    boolean readFrom(DataInputStream in) throws IOException {
+        if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION
+                || in.readInt() != bits || in.readInt() != hashes) {
+            return false;
+        }
+        int count = in.readInt();
+        Deque<Generation> loaded = new ArrayDeque<>();
+        for (int g = 0; g < count; g++) {
+            Generation gen = new Generation(in.readLong(), bits);
+            gen.insertions = in.readLong();
+            for (int i = 0; i < gen.words.length; i++) {
+                gen.words[i] = in.readLong();
+                gen.setBits += Long.bitCount(gen.words[i]);
+            }
+            if (loaded.size() < generations) {
+                loaded.addLast(gen);
+            }
+        }
+        gens.clear();
+        gens.addAll(loaded);
+        return true;
+    }
+
+    private void rotateIfDue(long now) {
+        Generation newest = gens.peekFirst();
+        if (newest != null && now - newest.createdAt < rotationMillis) {
+            return;
+        }
+        // 跨过elapsed个周期相当于逐个周期新建了elapsed代（中间的都是空的），旧的代只能留下generations - elapsed个
+        long elapsed = newest != null && rotationMillis > 0 ? (now - newest.createdAt) / rotationMillis : 1;
+        long keep = Math.max(0, generations - Math.max(1, elapsed));
+        while (gens.size() > keep) {
+            gens.removeLast();
+        }
+        gens.addFirst(new Generation(now, bits));
+    }
+
+    /**
+     * snowflake ID低位分布不均，先用SplitMix64打散
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private final class Generation {
+        final long createdAt;
+        final long[] words;
+        long insertions;
+        long setBits;
+
+        Generation(long createdAt, int bits) {
+            this.createdAt = createdAt;
+            this.words = new long[bits / 64];
+        }
+
+        boolean mightContain(long h1, long h2) {
+            for (int i = 0; i < hashes; i++) {
+                int bit = (int) Long.remainderUnsigned(h1 + i * h2, bits);
+                if ((words[bit >>> 6] & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        void put(long h1, long h2) {
+            for (int i = 0; i < hashes; i++) {
+                int bit = (int) Long.remainderUnsigned(h1 + i * h2, bits);
+                long mask = 1L << bit;
+                if ((words[bit >>> 6] & mask) == 0) {
+                    words[bit >>> 6] |= mask;
+                    setBits++;
+                }
+            }
+            insertions++;
+        }
+    }
+}
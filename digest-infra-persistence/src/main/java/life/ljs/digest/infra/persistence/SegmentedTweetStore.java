@@ -0,0 +1,288 @@
+package life.ljs.digest.infra.persistence;
+
+import life.ljs.digest.domain.model.Tweet;
+import life.ljs.digest.domain.model.TweetId;
+import life.ljs.digest.domain.model.TweetIdSet;
+import life.ljs.digest.domain.port.TweetStorePort;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * 分段追加写的本地推文存储
+ * <p>
+ * 写入只追加到活动分段末尾，一批tweets编码后一次写出；活动分段超过
+ * {@code segment-max-mb} 或最早记录超过 {@code segment-max-age-hours} 后封存（写出排序的ID索引并mmap），再新开一个分段。
+ * 查找先查活动分段的内存索引，再从新到旧在各封存分段的映射索引上二分。
+ * 后台线程定期删除最后写入时间早于 {@code retention-days} 的封存分段。
+ * 只保存数字ID的tweets。
+ */
+@Component
+@Profile("!fake")
+public class SegmentedTweetStore implements TweetStorePort, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(SegmentedTweetStore.class);
+
+    private static final Pattern SEGMENT_FILE = Pattern.compile("segment-(\\d{20})\\.log");
+
+    private final Path dir;
+    private final long segmentMaxBytes;
+    private final long segmentMaxAgeMillis;
+    private final long retentionMillis;
+    private final boolean fsync;
+
+    // 读锁：查找/遍历；写锁：追加、封存、删除分段
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final List<TweetLogSegment> sealed = new ArrayList<>(); // 从旧到新
+    private TweetLogSegment active;
+    private final ScheduledExecutorService compactor;
+
+    public SegmentedTweetStore(
+            @Value("${digest.store.dir:./data/tweets}") String dir,
+            @Value("${digest.store.segment-max-mb:64}") long segmentMaxMb,
+            @Value("${digest.store.segment-max-age-hours:24}") long segmentMaxAgeHours,
+            @Value("${digest.store.retention-days:30}") long retentionDays,
+            @Value("${digest.store.compaction-interval-minutes:60}") long compactionIntervalMinutes,
+            @Value("${digest.store.fsync:false}") boolean fsync) throws IOException {
+        this.dir = Path.of(dir);
+        this.segmentMaxBytes = Math.max(1, segmentMaxMb) * 1024 * 1024;
+        this.segmentMaxAgeMillis = TimeUnit.HOURS.toMillis(Math.max(1, segmentMaxAgeHours));
+        this.retentionMillis = TimeUnit.DAYS.toMillis(retentionDays);
+        this.fsync = fsync;
+
+        Files.createDirectories(this.dir);
+        openSegments();
+
+        compactor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "tweet-store-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (retentionDays > 0 && compactionIntervalMinutes > 0) {
+            compactor.scheduleWithFixedDelay(this::compactSafely, 1, compactionIntervalMinutes, TimeUnit.MINUTES);
+        }
+    }
+
+    @Override
+    public int append(List<Tweet> tweets) {
+        lock.writeLock().lock();
+        try {
+            long now = System.currentTimeMillis();
+            List<ByteBuffer> records = new ArrayList<>(tweets.size());
+            long[] ids = new long[tweets.size()];
+            long[] offsets = new long[tweets.size()];
+            TweetIdSet batchIds = new TweetIdSet(tweets.size());
+            int count = 0;
+            long bytes = 0;
+            for (Tweet tweet : tweets) {
+                TweetId id = tweet.getId();
+                if (id == null || containsLocked(id.value()) || !batchIds.add(id)) {
+                    continue;
+                }
+                ByteBuffer record = TweetRecordCodec.encode(tweet, id.value(), now);
+                ids[count] = id.value();
+                offsets[count] = bytes;
+                bytes += record.remaining();
+                records.add(record);
+                count++;
+            }
+            if (count == 0) {
+                return 0;
+            }
+            ByteBuffer batch = ByteBuffer.allocate((int) bytes);
+            records.forEach(batch::put);
+            batch.flip();
+            active.append(batch, ids, offsets, count, now);
+            if (fsync) {
+                active.force();
+            }
+            // 按时间滚动保证小流量时旧数据也能按分段过期
+            if (active.size() >= segmentMaxBytes || now - active.minStoredAt() >= segmentMaxAgeMillis) {
+                rollover();
+            }
+            return count;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to append to tweet store " + dir, e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean contains(TweetId id) {
+        lock.readLock().lock();
+        try {
+            return containsLocked(id.value());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Tweet find(TweetId id) {
+        lock.readLock().lock();
+        try {
+            for (TweetLogSegment segment : newestFirst()) {
+                long offset = segment.offsetOf(id.value());
+                if (offset >= 0) {
+                    ByteBuffer payload = segment.readPayload(offset);
+                    return payload != null ? TweetRecordCodec.decode(payload) : null;
+                }
+            }
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read tweet " + id + " from " + dir, e);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Tweet> findStoredSince(OffsetDateTime since) {
+        long sinceMillis = since.toInstant().toEpochMilli();
+        List<Tweet> tweets = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            List<TweetLogSegment> segments = new ArrayList<>(sealed);
+            segments.add(active);
+            for (TweetLogSegment segment : segments) {
+                if (segment.count() == 0 || segment.maxStoredAt() < sinceMillis) {
+                    continue;
+                }
+                segment.forEach((offset, payload) -> {
+                    if (TweetRecordCodec.storedAt(payload) >= sinceMillis) {
+                        tweets.add(TweetRecordCodec.decode(payload));
+                    }
+                });
+            }
+            return tweets;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to scan tweet store " + dir, e);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 删除整段过期的封存分段，返回删除的分段数
+     */
+    int compact() throws IOException {
+        long cutoff = System.currentTimeMillis() - retentionMillis;
+        List<TweetLogSegment> expired = new ArrayList<>();
+        lock.writeLock().lock();
+        try {
+            for (TweetLogSegment segment : sealed) {
+                if (segment.maxStoredAt() < cutoff) {
+                    expired.add(segment);
+                }
+            }
+            sealed.removeAll(expired);
+            for (TweetLogSegment segment : expired) {
+                segment.delete();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (!expired.isEmpty()) {
+            log.info("Tweet store: removed {} segments older than {} days", expired.size(),
+                    TimeUnit.MILLISECONDS.toDays(retentionMillis));
+        }
+        return expired.size();
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        compactor.shutdownNow();
+        lock.writeLock().lock();
+        try {
+            active.force();
+            active.close();
+            sealed.forEach(TweetLogSegment::close);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void compactSafely() {
+        try {
+            compact();
+        } catch (Exception e) {
+            log.warn("Tweet store compaction failed", e);
+        }
+    }
+
+    private boolean containsLocked(long id) {
+        for (TweetLogSegment segment : newestFirst()) {
+            if (segment.offsetOf(id) >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private List<TweetLogSegment> newestFirst() {
+        List<TweetLogSegment> segments = new ArrayList<>(sealed.size() + 1);
+        segments.add(active);
+        for (int i = sealed.size() - 1; i >= 0; i--) {
+            segments.add(sealed.get(i));
+        }
+        return segments;
+    }
+
+    private void rollover() throws IOException {
+        active.seal();
+        sealed.add(active);
+        log.info("Tweet store: sealed segment {} ({} tweets, {} bytes)", active.seq(), active.count(),
+                active.size());
+        active = TweetLogSegment.create(dir, active.seq() + 1);
+    }
+
+    private void openSegments() throws IOException {
+        List<Long> seqs = new ArrayList<>();
+        try (Stream<Path> files = Files.list(dir)) {
+            files.forEach(file -> {
+                Matcher m = SEGMENT_FILE.matcher(file.getFileName().toString());
+                if (m.matches()) {
+                    seqs.add(Long.parseLong(m.group(1)));
+                }
+            });
+        }
+        seqs.sort(null);
+        long start = System.nanoTime();
+        int tweets = 0;
+        for (int i = 0; i < seqs.size(); i++) {
+            boolean last = i == seqs.size() - 1;
+            TweetLogSegment segment = TweetLogSegment.open(dir, seqs.get(i), last);
+            tweets += segment.count();
+            if (last) {
+                active = segment;
+            } else {
+                sealed.add(segment);
+            }
+        }
+        if (active == null) {
+            active = TweetLogSegment.create(dir, 0);
+        }
+        log.info("Tweet store: opened {} segments ({} tweets) from {} in {} ms", seqs.size(), tweets,
+                dir.toAbsolutePath(), (System.nanoTime() - start) / 1_000_000);
+    }
+}
@@ -0,0 +1,360 @@
+package life.ljs.digest.infra.persistence;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * 日志的一个分段：{@code segment-<seq>.log} 存记录，封存后再写 {@code segment-<seq>.idx}。
+ * <p>
+ * 活动分段在内存中维护 ID -> 偏移（开放寻址表，槽里存条目下标，不装箱）；封存时按ID排序写出索引文件并以只读方式mmap，
+ * 之后的查找直接在映射区上二分，不复制、不反序列化。
+ * 索引格式：{@code [int magic][int version][int count][int reserved][long minStoredAt][long maxStoredAt]}
+ * 之后是count个 {@code [long id][long offset]}，按id升序。
+ */
+final class TweetLogSegment {
+
+    private static final Logger log = LoggerFactory.getLogger(TweetLogSegment.class);
+
+    private static final int INDEX_MAGIC = 0x54494458; // "TIDX"
+    private static final int INDEX_VERSION = 1;
+    private static final int INDEX_HEADER_BYTES = 32;
+    private static final int INDEX_ENTRY_BYTES = 16;
+
+    private final long seq;
+    private final Path logPath;
+    private final Path indexPath;
+    private final FileChannel channel;
+    private long size;
+    private long minStoredAt = Long.MAX_VALUE;
+    private long maxStoredAt = Long.MIN_VALUE;
+
+    // 活动分段
+    private int[] activeSlots; // 条目下标 + 1，0为空槽
+    private long[] activeEntries; // id, offset交替存放，封存时排序
+    private int activeCount;
+
+    // 封存分段
+    private MappedByteBuffer index;
+    private int indexCount;
+
+    private TweetLogSegment(long seq, Path dir, FileChannel channel) {
+        this.seq = seq;
+        this.logPath = logPath(dir, seq);
+        this.indexPath = dir.resolve(baseName(seq) + ".idx");
+        this.channel = channel;
+    }
+
+    static Path logPath(Path dir, long seq) {
+        return dir.resolve(baseName(seq) + ".log");
+    }
+
+    private static String baseName(long seq) {
+        return String.format("segment-%020d", seq);
+    }
+
+    static TweetLogSegment create(Path dir, long seq) throws IOException {
+        FileChannel channel = FileChannel.open(logPath(dir, seq), StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        TweetLogSegment segment = new TweetLogSegment(seq, dir, channel);
+        segment.startActive();
+        return segment;
+    }
+
+    /**
+     * 打开已有分段：有完整索引的直接映射；否则扫描日志重建（并截掉崩溃留下的残缺记录）
+     * @param active 是否作为活动分段继续写入
+     */
+    static TweetLogSegment open(Path dir, long seq, boolean active) throws IOException {
+        FileChannel channel = FileChannel.open(logPath(dir, seq), StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        TweetLogSegment segment = new TweetLogSegment(seq, dir, channel);
+        segment.size = channel.size();
+        if (!active && segment.mapIndex()) {
+            return segment;
+        }
+        segment.startActive();
+        segment.recover();
+        if (!active) {
+            segment.seal();
+        }
+        return segment;
+    }
+
+    long seq() {
+        return seq;
+    }
+
+    long size() {
+        return size;
+    }
+
+    int count() {
+        return index != null ? indexCount : activeCount;
+    }
+
+    boolean isSealed() {
+        return index != null;
+    }
+
+    long minStoredAt() {
+        return minStoredAt;
+    }
+
+    long maxStoredAt() {
+        return maxStoredAt;
+    }
+
+    /**
+     * 顺序追加一批已编码的记录，一次write
+     */
+    void append(ByteBuffer records, long[] ids, long[] relativeOffsets, int count, long storedAt)
+            throws IOException {
+        long base = size;
+        while (records.hasRemaining()) {
+            size += channel.write(records, size);
+        }
+        for (int i = 0; i < count; i++) {
+            addActiveEntry(ids[i], base + relativeOffsets[i]);
+        }
+        if (count > 0) {
+            minStoredAt = Math.min(minStoredAt, storedAt);
+            maxStoredAt = Math.max(maxStoredAt, storedAt);
+        }
+    }
+
+    void force() throws IOException {
+        channel.force(false);
+    }
+
+    /**
+     * @return 记录偏移，不存在时返回-1
+     */
+    long offsetOf(long id) {
+        if (index == null) {
+            int entry = activeSlots[findSlot(id)] - 1;
+            return entry >= 0 ? activeEntries[2 * entry + 1] : -1;
+        }
+        int lo = 0;
+        int hi = indexCount - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            long midId = index.getLong(INDEX_HEADER_BYTES + mid * INDEX_ENTRY_BYTES);
+            if (midId < id) {
+                lo = mid + 1;
+            } else if (midId > id) {
+                hi = mid - 1;
+            } else {
+                return index.getLong(INDEX_HEADER_BYTES + mid * INDEX_ENTRY_BYTES + 8);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return 校验通过的payload，记录损坏或越界时返回null
+     */
+    ByteBuffer readPayload(long offset) throws IOException {
+        if (offset + TweetRecordCodec.HEADER_BYTES > size) {
+            return null;
+        }
+        ByteBuffer header = ByteBuffer.allocate(TweetRecordCodec.HEADER_BYTES);
+        readFully(header, offset);
+        header.flip();
+        int length = header.getInt();
+        int crc = header.getInt();
+        if (length <= 0 || offset + TweetRecordCodec.HEADER_BYTES + length > size) {
+            return null;
+        }
+        ByteBuffer payload = ByteBuffer.allocate(length);
+        readFully(payload, offset + TweetRecordCodec.HEADER_BYTES);
+        if (TweetRecordCodec.crc(payload.array(), 0, length) != crc) {
+            return null;
+        }
+        payload.flip();
+        return payload;
+    }
+
+    /**
+     * 按写入顺序遍历记录
+     */
+    void forEach(RecordVisitor visitor) throws IOException {
+        long offset = 0;
+        while (offset < size) {
+            ByteBuffer payload = readPayload(offset);
+            if (payload == null) {
+                return;
+            }
+            visitor.visit(offset, payload);
+            offset += TweetRecordCodec.HEADER_BYTES + payload.capacity();
+        }
+    }
+
+    @FunctionalInterface
+    interface RecordVisitor {
+        void visit(long offset, ByteBuffer payload) throws IOException;
+    }
+
+    /**
+     * 写出排序后的索引（临时文件 + rename）并切换为只读映射
+     */
+    void seal() throws IOException {
+        if (index != null) {
+            return;
+        }
+        channel.force(false);
+        int count = activeCount;
+        long[][] pairs = new long[count][];
+        for (int i = 0; i < count; i++) {
+            pairs[i] = new long[]{activeEntries[2 * i], activeEntries[2 * i + 1]};
+        }
+        Arrays.sort(pairs, (a, b) -> Long.compare(a[0], b[0]));
+
+        ByteBuffer buffer = ByteBuffer.allocate(INDEX_HEADER_BYTES + count * INDEX_ENTRY_BYTES);
+        buffer.putInt(INDEX_MAGIC).putInt(INDEX_VERSION).putInt(count).putInt(0);
+        buffer.putLong(minStoredAt).putLong(maxStoredAt);
+        for (long[] pair : pairs) {
+            buffer.putLong(pair[0]).putLong(pair[1]);
+        }
+        buffer.flip();
+        Path tmp = indexPath.resolveSibling(indexPath.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+            out.force(true);
+        }
+        try {
+            Files.move(tmp, indexPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, indexPath, StandardCopyOption.REPLACE_EXISTING);
+        }
+        if (!mapIndex()) {
+            throw new IOException("Index just written is unreadable: " + indexPath);
+        }
+        activeSlots = null;
+        activeEntries = null;
+    }
+
+    void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.debug("Failed to close segment {}", logPath, e);
+        }
+    }
+
+    void delete() throws IOException {
+        close();
+        // 映射区在GC前仍然有效，删除文件不影响正在进行的读
+        Files.deleteIfExists(indexPath);
+        Files.deleteIfExists(logPath);
+    }
+
+    private void startActive() {
+        activeSlots = new int[2048];
+        activeEntries = new long[2048];
+        activeCount = 0;
+    }
+
+    private void addActiveEntry(long id, long offset) {
+        if (2 * activeCount + 2 > activeEntries.length) {
+            activeEntries = Arrays.copyOf(activeEntries, activeEntries.length * 2);
+        }
+        if ((activeCount + 1) * 2 > activeSlots.length) {
+            rehash(activeSlots.length * 2);
+        }
+        activeEntries[2 * activeCount] = id;
+        activeEntries[2 * activeCount + 1] = offset;
+        activeCount++;
+        // 同一ID重复出现时指向最新的记录
+        activeSlots[findSlot(id)] = activeCount;
+    }
+
+    /**
+     * @return id所在的槽，不存在时为应插入的空槽
+     */
+    private int findSlot(long id) {
+        int mask = activeSlots.length - 1;
+        int i = mix(id) & mask;
+        while (activeSlots[i] != 0 && activeEntries[2 * (activeSlots[i] - 1)] != id) {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    /**
+     * snowflake的低位分布不均，先打散再取模
+     */
+    private static int mix(long id) {
+        long h = id * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private void rehash(int capacity) {
+        activeSlots = new int[capacity];
+        for (int entry = 0; entry < activeCount; entry++) {
+            activeSlots[findSlot(activeEntries[2 * entry])] = entry + 1;
+        }
+    }
+
+    private void recover() throws IOException {
+        long[] validEnd = {0};
+        forEach((offset, payload) -> {
+            long storedAt = TweetRecordCodec.storedAt(payload);
+            addActiveEntry(TweetRecordCodec.id(payload), offset);
+            minStoredAt = Math.min(minStoredAt, storedAt);
+            maxStoredAt = Math.max(maxStoredAt, storedAt);
+            validEnd[0] = offset + TweetRecordCodec.HEADER_BYTES + payload.capacity();
+        });
+        if (validEnd[0] < size) {
+            log.warn("Truncating {} torn bytes at the end of {}", size - validEnd[0], logPath);
+            channel.truncate(validEnd[0]);
+            size = validEnd[0];
+        }
+    }
+
+    private boolean mapIndex() throws IOException {
+        if (!Files.exists(indexPath)) {
+            return false;
+        }
+        try (FileChannel in = FileChannel.open(indexPath, StandardOpenOption.READ)) {
+            long length = in.size();
+            if (length < INDEX_HEADER_BYTES) {
+                return false;
+            }
+            MappedByteBuffer mapped = in.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            int count = mapped.getInt(8);
+            if (mapped.getInt(0) != INDEX_MAGIC || mapped.getInt(4) != INDEX_VERSION
+                    || length != INDEX_HEADER_BYTES + (long) count * INDEX_ENTRY_BYTES) {
+                log.warn("Ignoring invalid index {}", indexPath);
+                return false;
+            }
+            minStoredAt = mapped.getLong(16);
+            maxStoredAt = mapped.getLong(24);
+            index = mapped;
+            indexCount = count;
+            return true;
+        }
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new IOException("Unexpected end of " + logPath);
+            }
+        }
+    }
+}
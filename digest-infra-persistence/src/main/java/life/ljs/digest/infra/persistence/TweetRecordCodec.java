@@ -0,0 +1,125 @@
+package life.ljs.digest.infra.persistence;
+
+import life.ljs.digest.domain.model.Tweet;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.zip.CRC32;
+
+/**
+ * 日志记录的二进制格式：
+ * {@code [int payloadLength][int crc32][long id][long storedAt][payload...]}，
+ * payload依次为tweetId、author、text、createdAt、三个计数、url、language。
+ * 字符串为 {@code [int byteLength][utf8]}，null用长度-1表示。
+ */
+final class TweetRecordCodec {
+
+    /**
+     * 记录头：长度 + CRC
+     */
+    static final int HEADER_BYTES = 8;
+
+    private TweetRecordCodec() {
+    }
+
+    static ByteBuffer encode(Tweet tweet, long id, long storedAtMillis) {
+        byte[] tweetId = utf8(tweet.getTweetId());
+        byte[] author = utf8(tweet.getAuthor());
+        byte[] text = utf8(tweet.getText());
+        byte[] url = utf8(tweet.getUrl());
+        byte[] language = utf8(tweet.getLanguage());
+        int payloadLength = 8 + 8
+                + sizeOf(tweetId) + sizeOf(author) + sizeOf(text)
+                + 8 + 4
+                + 8 * 3
+                + sizeOf(url) + sizeOf(language);
+
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + payloadLength);
+        buffer.putInt(payloadLength);
+        buffer.putInt(0); // CRC，写完payload后回填
+        buffer.putLong(id);
+        buffer.putLong(storedAtMillis);
+        putString(buffer, tweetId);
+        putString(buffer, author);
+        putString(buffer, text);
+        OffsetDateTime createdAt = tweet.getCreatedAt();
+        buffer.putLong(createdAt != null ? createdAt.toInstant().toEpochMilli() : Long.MIN_VALUE);
+        buffer.putInt(createdAt != null ? createdAt.getOffset().getTotalSeconds() : 0);
+        buffer.putLong(tweet.getLikeCount());
+        buffer.putLong(tweet.getRetweetCount());
+        buffer.putLong(tweet.getReplyCount());
+        putString(buffer, url);
+        putString(buffer, language);
+
+        buffer.putInt(4, crc(buffer.array(), HEADER_BYTES, payloadLength));
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * @param payload 不含记录头的payload，position在开头
+     */
+    static Tweet decode(ByteBuffer payload) {
+        payload.getLong(); // id
+        payload.getLong(); // storedAt
+        String tweetId = getString(payload);
+        String author = getString(payload);
+        String text = getString(payload);
+        long createdAtMillis = payload.getLong();
+        int offsetSeconds = payload.getInt();
+        long likeCount = payload.getLong();
+        long retweetCount = payload.getLong();
+        long replyCount = payload.getLong();
+        String url = getString(payload);
+        String language = getString(payload);
+        OffsetDateTime createdAt = createdAtMillis == Long.MIN_VALUE
+                ? null
+                : Instant.ofEpochMilli(createdAtMillis).atOffset(ZoneOffset.ofTotalSeconds(offsetSeconds));
+        return new Tweet(tweetId, author, text, createdAt, likeCount, retweetCount, replyCount, url, language);
+    }
+
+    static long id(ByteBuffer payload) {
+        return payload.getLong(payload.position());
+    }
+
+    static long storedAt(ByteBuffer payload) {
+        return payload.getLong(payload.position() + 8);
+    }
+
+    static int crc(byte[] bytes, int offset, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes, offset, length);
+        return (int) crc.getValue();
+    }
+
+    private static byte[] utf8(String s) {
+        return s == null ? null : s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int sizeOf(byte[] bytes) {
+        return 4 + (bytes == null ? 0 : bytes.length);
+    }
+
+    private static void putString(ByteBuffer buffer, byte[] bytes) {
+        if (bytes == null) {
+            buffer.putInt(-1);
+            return;
+        }
+        buffer.putInt(bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        String s = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length,
+                StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return s;
+    }
+}
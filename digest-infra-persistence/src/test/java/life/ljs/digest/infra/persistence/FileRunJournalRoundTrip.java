@@ -0,0 +1,80 @@
+package life.ljs.digest.infra.persistence;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import life.ljs.digest.domain.model.DigestRun;
+import life.ljs.digest.domain.model.Tweet;
+import life.ljs.digest.domain.model.TweetId;
+import life.ljs.digest.domain.model.Watermarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 检查 {@link FileRunJournalAdapter} 保存后能原样读回，离线运行：
+ * <pre>
+ * mvn -q -pl digest-infra-persistence dependency:build-classpath -Dmdep.outputFile=target/cp.txt test-compile
+ * java -cp "$(cat digest-infra-persistence/target/cp.txt):digest-infra-persistence/target/classes:digest-infra-persistence/target/test-classes" \
+ *      life.ljs.digest.infra.persistence.FileRunJournalRoundTrip
+ * </pre>
+ * 覆盖拉取和过滤一起保存（没有raw.json）的FILTERED阶段的运行，失败时以非0退出。
+ */
+public class FileRunJournalRoundTrip {
+
+    public static void main(String[] args) throws IOException {
+        Path dir = Files.createTempDirectory("run-journal");
+        try {
+            filteredRunWithoutRawStage(dir);
+            System.out.println("OK");
+        } finally {
+            try (var paths = Files.walk(dir)) {
+                paths.sorted((a, b) -> b.compareTo(a)).forEach(p -> p.toFile().delete());
+            }
+        }
+    }
+
+    private static void filteredRunWithoutRawStage(Path dir) throws IOException {
+        FileRunJournalAdapter journal = new FileRunJournalAdapter(dir.toString(), new ObjectMapper());
+        OffsetDateTime now = OffsetDateTime.now();
+        DigestRun run = DigestRun.start(now.minusMinutes(30), now);
+        journal.save(run);
+
+        Watermarks watermarks = new Watermarks(TweetId.tryParse("1900000000000000002"),
+                Map.of("home", TweetId.tryParse("1900000000000000002"), "list", TweetId.tryParse("1900000000000000001")));
+        run.fetched(List.of(), watermarks);
+        List<TweetId> passedIds = List.of(TweetId.tryParse("1900000000000000002"),
+                TweetId.tryParse("1900000000000000001"), TweetId.tryParse("1899999999999999999"));
+        run.filtered(List.of(tweet("1900000000000000002", 120), tweet("1900000000000000001", 30)), passedIds);
+        journal.save(run);
+
+        DigestRun loaded = journal.loadIncomplete();
+        check(loaded != null, "FILTERED run was discarded");
+        check(loaded.getRunId().equals(run.getRunId()), "run id: " + loaded.getRunId());
+        check(loaded.getStage() == DigestRun.Stage.FILTERED, "stage: " + loaded.getStage());
+        check(loaded.getRawTweets().isEmpty(), "raw tweets: " + loaded.getRawTweets().size());
+        check(loaded.getFilteredTweets().size() == 2, "filtered tweets: " + loaded.getFilteredTweets().size());
+        check(loaded.getFilteredTweets().get(0).getLikeCount() == 120, "filtered order");
+        check(passedIds.equals(loaded.getPassedIds()), "passed ids: " + loaded.getPassedIds());
+        check(watermarks.getNewest().equals(loaded.getWatermarks().getNewest()), "watermark");
+        check(watermarks.getBySource().equals(loaded.getWatermarks().getBySource()),
+                "source watermarks: " + loaded.getWatermarks().getBySource());
+
+        journal.complete(loaded);
+        check(journal.loadIncomplete() == null, "completed run still loaded");
+    }
+
+    private static Tweet tweet(String id, long likes) {
+        return new Tweet(id, "Author @author", "text " + id, OffsetDateTime.now(), likes, 0, 0,
+                "https://x.com/author/status/" + id, "en");
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            System.err.println("FAILED: " + message);
+            System.exit(1);
+        }
+    }
+}